@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+# Builds the production jar (AOT-processed, dependencies in target/lib) and a class-data sharing archive from a
+# training run that stops as soon as the application context has refreshed. The training run connects to the
+# database from application.properties; extra application arguments are passed through, and CLASSPATH_EXTRA is
+# appended to the class path (a JDBC driver for another database, say). Run the application with the exact
+# class path of the training run, as printed at the end, or the JVM silently ignores the archive.
+#
+# Usage: scripts/build-cds-archive.sh [application arguments]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+JAR=target/interview-0.0.1-SNAPSHOT.jar
+ARCHIVE=${ARCHIVE:-target/interview.jsa}
+CLASSPATH="$JAR${CLASSPATH_EXTRA:+:$CLASSPATH_EXTRA}"
+MAIN=com.example.interview.InterviewApplication
+
+if [ -z "${SKIP_BUILD:-}" ]; then
+  ./mvnw -q -B -Pproduction -DskipTests clean package > /dev/null
+fi
+
+java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+  -cp "$CLASSPATH" "$MAIN" --spring.profiles.active=production "$@" > target/cds-training.log 2>&1
+
+echo "Wrote $ARCHIVE, start with:"
+echo "  java -XX:SharedArchiveFile=$ARCHIVE -Dspring.aot.enabled=true -cp $CLASSPATH $MAIN --spring.profiles.active=production"
@@ -0,0 +1,79 @@
+#!/usr/bin/env bash
+# Compares the servlet (MVC + JDBC) and reactive (WebFlux + R2DBC) deployments under the same closed-loop load:
+# throughput and latency from PatientLoadTest, plus peak RSS, JVM threads, open client connections and
+# database connections sampled while the load runs. Memory per connection is the RSS growth over idle
+# divided by the number of concurrent clients.
+# Needs the Postgres database from application.properties; psql is optional and only used for the
+# database connection count.
+#
+# Usage: scripts/compare-reactive-mode.sh [concurrency] [durationSeconds] [writeRatio]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+CONCURRENCY=${1:-2000}
+DURATION=${2:-30}
+WRITE_RATIO=${3:-0.05}
+PORT=${PORT:-8080}
+JAR=target/interview-0.0.1-SNAPSHOT.jar
+
+./mvnw -q -B -DskipTests clean package
+cp "$JAR" target/interview-servlet.jar
+./mvnw -q -B -Preactive -DskipTests clean package
+cp "$JAR" target/interview-reactive.jar
+./mvnw -q -B -Pbenchmark test-compile
+
+rss_kb() {
+  awk '/^VmRSS/ {print $2}' "/proc/$1/status"
+}
+
+threads() {
+  awk '/^Threads/ {print $2}' "/proc/$1/status"
+}
+
+db_connections() {
+  if command -v psql > /dev/null; then
+    PGPASSWORD=Rita2102 psql -h localhost -U postgres -d test -tAc \
+      "select count(*) from pg_stat_activity where datname = 'test' and pid <> pg_backend_pid()" 2>/dev/null || echo "?"
+  else
+    echo "?"
+  fi
+}
+
+run_mode() {
+  local label=$1
+  local jar=$2
+  java -jar "$jar" --server.port="$PORT" > "target/$label.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' RETURN
+  until curl -sf "http://localhost:$PORT/api/patient/allActive/page?size=1" > /dev/null; do
+    kill -0 "$pid" 2>/dev/null || { echo "$label failed to start, see target/$label.log"; return 1; }
+    sleep 0.5
+  done
+  local idle_rss
+  idle_rss=$(rss_kb "$pid")
+
+  local samples="target/$label.samples"
+  : > "$samples"
+  (
+    while kill -0 "$pid" 2>/dev/null; do
+      echo "$(rss_kb "$pid") $(threads "$pid") $(ss -Htn state established "( sport = :$PORT )" | wc -l) $(db_connections)"
+      sleep 1
+    done
+  ) >> "$samples" &
+  local sampler=$!
+
+  ./mvnw -q -B -Pbenchmark exec:exec \
+    -Dbenchmark.main=com.example.interview.benchmark.PatientLoadTest \
+    -Dbenchmark.args="http://localhost:$PORT $CONCURRENCY $DURATION $WRITE_RATIO $label"
+  kill "$sampler" 2>/dev/null || true
+
+  awk -v label="$label" -v idle="$idle_rss" -v clients="$CONCURRENCY" '
+    $1 > rss { rss = $1 } $2 > thr { thr = $2 } $3 > conn { conn = $3 } $4 ~ /^[0-9]+$/ && $4 > db { db = $4 }
+    END {
+      printf "%s peakRss=%dMB idleRss=%dMB perConnection=%.1fKB threads=%d clientConnections=%d dbConnections=%s\n",
+        label, rss / 1024, idle / 1024, (rss - idle) / clients, thr, conn, (db == "" ? "?" : db)
+    }' "$samples"
+}
+
+run_mode servlet target/interview-servlet.jar
+run_mode reactive target/interview-reactive.jar
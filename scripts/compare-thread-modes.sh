@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Compares throughput and p99 latency of the platform-thread and virtual-thread modes.
+# Needs a Java 21 runtime and the Postgres database from application.properties.
+#
+# Usage: scripts/compare-thread-modes.sh [concurrency] [durationSeconds] [writeRatio]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+CONCURRENCY=${1:-256}
+DURATION=${2:-30}
+WRITE_RATIO=${3:-0.2}
+PORT=${PORT:-8080}
+JAR=target/interview-0.0.1-SNAPSHOT.jar
+
+./mvnw -q -B -Pjava21 -DskipTests package
+./mvnw -q -B -Pbenchmark -Pjava21 test-compile
+
+run_mode() {
+  local label=$1
+  shift
+  java -jar "$JAR" --server.port="$PORT" "$@" > "target/$label.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' RETURN
+  until curl -sf "http://localhost:$PORT/api/patient/allActive/page?size=1" > /dev/null; do
+    kill -0 "$pid" 2>/dev/null || { echo "$label failed to start, see target/$label.log"; return 1; }
+    sleep 0.5
+  done
+  ./mvnw -q -B -Pbenchmark -Pjava21 exec:exec \
+    -Dbenchmark.main=com.example.interview.benchmark.PatientLoadTest \
+    -Dbenchmark.args="http://localhost:$PORT $CONCURRENCY $DURATION $WRITE_RATIO $label"
+}
+
+run_mode platform
+run_mode virtual --spring.profiles.active=virtual
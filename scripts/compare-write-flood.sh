@@ -0,0 +1,34 @@
+#!/usr/bin/env bash
+# Floods admissions from one client while others read, with and without the rate and concurrency limits, to
+# show how far the flood slows readers down. Needs the Postgres database from application.properties.
+#
+# Usage: scripts/compare-write-flood.sh [floodConnections] [readers] [durationSeconds]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+FLOOD=${1:-64}
+READERS=${2:-8}
+DURATION=${3:-30}
+PORT=${PORT:-8080}
+JAR=target/interview-0.0.1-SNAPSHOT.jar
+
+./mvnw -q -B -DskipTests package
+./mvnw -q -B -Pbenchmark test-compile
+
+run_mode() {
+  local label=$1
+  shift
+  java -jar "$JAR" --server.port="$PORT" "$@" > "target/$label.log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2>/dev/null || true' RETURN
+  until curl -sf "http://localhost:$PORT/api/patient/allActive/page?size=1" > /dev/null; do
+    kill -0 "$pid" 2>/dev/null || { echo "$label failed to start, see target/$label.log"; return 1; }
+    sleep 0.5
+  done
+  ./mvnw -q -B -Pbenchmark exec:exec \
+    -Dbenchmark.main=com.example.interview.benchmark.PatientWriteFloodLoadTest \
+    -Dbenchmark.args="http://localhost:$PORT $FLOOD $READERS $DURATION $label"
+}
+
+run_mode unlimited --patient.rate-limit.enabled=false --patient.concurrency.enabled=false
+run_mode limited
@@ -0,0 +1,79 @@
+#!/usr/bin/env bash
+# Reports time-to-first-request and resident set size for each startup mode, as the median of several runs:
+#   baseline    Liquibase at startup, no AOT, no CDS
+#   production  production profile: no Liquibase, no open-in-view
+#   aot         production + AOT-generated bean definitions
+#   aot-cds     aot + class-data sharing archive
+# Time-to-first-request runs from the JVM launch until the first page of active patients is served. The schema is
+# migrated once up front. Extra application arguments and CLASSPATH_EXTRA are passed on as in build-cds-archive.sh.
+#
+# Usage: [MODES="aot aot-cds"] scripts/measure-startup.sh [runs] [application arguments]
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+RUNS=${1:-5}
+shift || true
+PORT=${PORT:-8080}
+JAVA_OPTS=${JAVA_OPTS:--Xmx512m}
+JAR=target/interview-0.0.1-SNAPSHOT.jar
+ARCHIVE=target/interview.jsa
+CLASSPATH="$JAR${CLASSPATH_EXTRA:+:$CLASSPATH_EXTRA}"
+MAIN=com.example.interview.InterviewApplication
+URL="http://localhost:$PORT/api/patient/allActive/page?size=1"
+
+./mvnw -q -B -Pproduction -DskipTests clean package > /dev/null
+java -cp "$CLASSPATH" "$MAIN" migrate "$@" > target/migrate.log 2>&1
+SKIP_BUILD=1 ARCHIVE=$ARCHIVE scripts/build-cds-archive.sh "$@" > /dev/null
+
+now_millis() {
+  date +%s%3N
+}
+
+# Prints "<time-to-first-request millis> <rss KB>" for one launch.
+launch() {
+  local started pid
+  started=$(now_millis)
+  # shellcheck disable=SC2086
+  java $JAVA_OPTS "$@" > target/startup.log 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "$URL"; do
+    kill -0 "$pid" 2>/dev/null || { echo "startup failed, see target/startup.log" >&2; exit 1; }
+    sleep 0.01
+  done
+  local elapsed=$(( $(now_millis) - started ))
+  local rss
+  rss=$(ps -o rss= -p "$pid" | tr -d ' ')
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$elapsed $rss"
+}
+
+median() {
+  sort -n | awk '{ values[NR] = $1 } END { print values[int((NR + 1) / 2)] }'
+}
+
+measure() {
+  local label=$1
+  shift
+  launch "$@" > /dev/null
+  local samples=()
+  for _ in $(seq "$RUNS"); do
+    samples+=("$(launch "$@")")
+  done
+  local ttfr rss
+  ttfr=$(printf '%s\n' "${samples[@]}" | cut -d' ' -f1 | median)
+  rss=$(printf '%s\n' "${samples[@]}" | cut -d' ' -f2 | median)
+  printf '%-11s time-to-first-request=%5d ms  rss=%6d MB\n' "$label" "$ttfr" $(( rss / 1024 ))
+}
+
+APP=(--server.port="$PORT" "$@")
+PRODUCTION=(-cp "$CLASSPATH" "$MAIN" --spring.profiles.active=production "${APP[@]}")
+for mode in ${MODES:-baseline production aot aot-cds}; do
+  case $mode in
+    baseline) measure baseline -cp "$CLASSPATH" "$MAIN" "${APP[@]}" ;;
+    production) measure production "${PRODUCTION[@]}" ;;
+    aot) measure aot -Dspring.aot.enabled=true "${PRODUCTION[@]}" ;;
+    aot-cds) measure aot-cds -XX:SharedArchiveFile="$ARCHIVE" -Dspring.aot.enabled=true "${PRODUCTION[@]}" ;;
+    *) echo "Unknown mode $mode" >&2; exit 1 ;;
+  esac
+done
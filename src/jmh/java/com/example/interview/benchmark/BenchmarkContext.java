@@ -0,0 +1,60 @@
+package com.example.interview.benchmark;
+
+import com.example.interview.InterviewApplication;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.entity.PatientEntity;
+import com.example.interview.repository.PatientJdbcRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Boots the application against the in-memory H2 database of the {@code benchmark} profile and seeds it.
+ */
+public final class BenchmarkContext {
+    private static final int SEED_CHUNK = 10_000;
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * @param properties {@code key=value} overrides, passed as command-line arguments so that they win over the
+     *                   profile's own properties
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        return new SpringApplicationBuilder(InterviewApplication.class)
+                .profiles("benchmark")
+                .web(WebApplicationType.NONE)
+                .run(Arrays.stream(properties).map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    public static void seed(ConfigurableApplicationContext context, int rows) {
+        PatientJdbcRepository repository = context.getBean(PatientJdbcRepository.class);
+        for (int from = 0; from < rows; from += SEED_CHUNK) {
+            int to = Math.min(from + SEED_CHUNK, rows);
+            List<PatientEntity> chunk = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                chunk.add(patient(i));
+            }
+            repository.insertAll(chunk);
+        }
+    }
+
+    public static String name(int index) {
+        return String.format("Patient%07d", index);
+    }
+
+    private static PatientEntity patient(int index) {
+        PatientEntity patient = new PatientEntity();
+        patient.setName(name(index));
+        patient.setTemperature(36.0 + index % 30 / 10.0);
+        patient.setPulse(50.0 + index % 90);
+        patient.setDateOfBirth(LocalDate.of(1940, 1, 1).plusDays(index % 25_000));
+        patient.setStatus(PatientStatus.ACTIVE);
+        return patient;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.interview.benchmark;
+
+import com.example.interview.cache.PatientNameCache;
+import com.example.interview.service.PatientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deletes are destructive, so every iteration deletes a fixed batch of seeded patients and the table is
+ * reactivated before the next one.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, batchSize = PatientDeleteBenchmark.BATCH_SIZE)
+@Measurement(iterations = 10, batchSize = PatientDeleteBenchmark.BATCH_SIZE)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PatientDeleteBenchmark {
+    static final int BATCH_SIZE = 1000;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private PatientService patientService;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, rows);
+        patientService = context.getBean(PatientService.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void reactivate() {
+        context.getBean(JdbcTemplate.class).update("update patients set status = 'ACTIVE'");
+        context.getBean(PatientNameCache.class).invalidateAll();
+        next = 0;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void deletePatient() {
+        patientService.deletePatient(BenchmarkContext.name(next++));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.interview.benchmark;
+
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.export.PatientCsvExporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full-table CSV export into a sink that only counts bytes, plain and gzipped, so the score is the exporter's own
+ * cost per table. Run with {@code -prof gc} to see the allocation per row, which is garbage from the driver rather
+ * than retained rows.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PatientExportBenchmark {
+    /**
+     * The benchmark database with lazy query execution, so that H2 streams the result the way a Postgres cursor
+     * does instead of materializing it.
+     */
+    private static final String LAZY_H2_URL = "jdbc:h2:mem:benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+            + "DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE;LAZY_QUERY_EXECUTION=TRUE";
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private ConfigurableApplicationContext context;
+    private PatientCsvExporter exporter;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("spring.datasource.url=" + LAZY_H2_URL);
+        BenchmarkContext.seed(context, rows);
+        exporter = context.getBean(PatientCsvExporter.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long export() throws IOException {
+        CountingSink sink = new CountingSink();
+        exporter.export(List.of(PatientStatus.ACTIVE), sink, gzip);
+        return sink.bytes;
+    }
+
+    private static final class CountingSink extends OutputStream {
+        private long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
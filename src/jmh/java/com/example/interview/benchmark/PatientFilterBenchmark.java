@@ -0,0 +1,87 @@
+package com.example.interview.benchmark;
+
+import com.example.interview.domain.PatientCursor;
+import com.example.interview.domain.PatientFilter;
+import com.example.interview.domain.PatientPage;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.service.PatientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter API pages over a seeded table: a selective vitals range, a pulse-outside-range plus date of birth
+ * combination, and a deep keyset page. H2 has no partial indexes, so it runs on the composite status indexes;
+ * the Postgres plans are checked by {@code PatientFilterExplainTest}.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PatientFilterBenchmark {
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"1000000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private PatientService patientService;
+    private PatientFilter highTemperature;
+    private PatientFilter abnormalPulseElderly;
+    private PatientCursor deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, rows);
+        patientService = context.getBean(PatientService.class);
+
+        highTemperature = new PatientFilter();
+        highTemperature.setStatus(PatientStatus.ACTIVE);
+        highTemperature.setMinTemperature(38.0);
+
+        abnormalPulseElderly = new PatientFilter();
+        abnormalPulseElderly.setStatus(PatientStatus.ACTIVE);
+        abnormalPulseElderly.setMinPulse(55.0);
+        abnormalPulseElderly.setMaxPulse(130.0);
+        abnormalPulseElderly.setPulseOutside(true);
+        abnormalPulseElderly.setBornBefore(LocalDate.of(1950, 1, 1));
+
+        deepCursor = new PatientCursor(BenchmarkContext.name(rows / 2), rows / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PatientPage highTemperatureFirstPage() {
+        return patientService.filterPatients(highTemperature, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PatientPage abnormalPulseElderlyFirstPage() {
+        return patientService.filterPatients(abnormalPulseElderly, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PatientPage highTemperatureDeepPage() {
+        return patientService.filterPatients(highTemperature, deepCursor, PAGE_SIZE);
+    }
+}
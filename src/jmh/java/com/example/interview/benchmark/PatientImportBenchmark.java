@@ -0,0 +1,96 @@
+package com.example.interview.benchmark;
+
+import com.example.interview.domain.PatientImportSummary;
+import com.example.interview.importer.PatientImporter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Imports a generated CSV into an emptied patients table, with one parse worker and with one per core, so the
+ * score is milliseconds per {@code rows}; every tenth row is a duplicate or invalid and ends up in the rejects.
+ * The import needs {@code COPY}, so this runs against the PostgreSQL given by {@code -Dbenchmark.postgres.url}
+ * (default {@code jdbc:postgresql://localhost:5432/test}) and deletes its patients between invocations.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PatientImportBenchmark {
+    private static final String NAME_PREFIX = "Import";
+
+    @Param({"1000000"})
+    public int rows;
+
+    @Param({"1", "0"})
+    public int parallelism;
+
+    private ConfigurableApplicationContext context;
+    private JdbcTemplate jdbcTemplate;
+    private PatientImporter importer;
+    private String csv;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "spring.datasource.driver-class-name=org.postgresql.Driver",
+                "spring.datasource.url=" + System.getProperty("benchmark.postgres.url",
+                        "jdbc:postgresql://localhost:5432/test"),
+                "spring.datasource.username=" + System.getProperty("benchmark.postgres.username", "postgres"),
+                "spring.datasource.password=" + System.getProperty("benchmark.postgres.password", "Rita2102"));
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        importer = new PatientImporter(jdbcTemplate, context.getBean(PlatformTransactionManager.class),
+                context, null, parallelism, 10_000, 5_000);
+        csv = csv(rows);
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyTable() {
+        jdbcTemplate.update("delete from patients where name like '" + NAME_PREFIX + "%'");
+        jdbcTemplate.execute("vacuum patients");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        emptyTable();
+        context.close();
+    }
+
+    @Benchmark
+    public PatientImportSummary importCsv() throws IOException {
+        return importer.importCsv(new StringReader(csv), Writer.nullWriter());
+    }
+
+    private static String csv(int rows) {
+        StringBuilder csv = new StringBuilder(rows * 40).append("name,temperature,pulse,date_of_birth\n");
+        for (int i = 0; i < rows; i++) {
+            switch (i % 10) {
+                case 8 -> csv.append(NAME_PREFIX).append(i - 1).append(",36.6,60,1990-01-01\n");
+                case 9 -> csv.append(NAME_PREFIX).append(i).append(",36.6,60,\n");
+                default -> csv.append(NAME_PREFIX).append(i).append(',').append(36.0 + i % 30 / 10.0).append(',')
+                        .append(50 + i % 90).append(",1990-01-").append(String.format("%02d", i % 28 + 1))
+                        .append('\n');
+            }
+        }
+        return csv.toString();
+    }
+}
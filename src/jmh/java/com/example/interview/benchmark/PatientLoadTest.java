@@ -0,0 +1,126 @@
+package com.example.interview.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop HTTP load generator for a running instance: every worker issues admissions and active-list
+ * page reads back to back, then throughput and latency percentiles are printed on one line.
+ * <p>
+ * Arguments: {@code baseUrl concurrency durationSeconds [writeRatio] [label]}.
+ */
+public final class PatientLoadTest {
+    private PatientLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        double writeRatio = args.length > 3 ? Double.parseDouble(args[3]) : 0.2;
+        String label = args.length > 4 ? args[4] : "run";
+
+        LoadResult result = run(baseUrl, concurrency, Duration.ofSeconds(durationSeconds), writeRatio);
+        System.out.println(result.format(label));
+    }
+
+    public static LoadResult run(String baseUrl, int concurrency, Duration duration, double writeRatio)
+            throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + duration.toNanos();
+        String runId = Long.toString(System.currentTimeMillis() % 100_000, 36);
+        AtomicLong errors = new AtomicLong();
+        long[][] latencies = new long[concurrency][];
+        List<Thread> workers = new ArrayList<>(concurrency);
+
+        for (int w = 0; w < concurrency; w++) {
+            int worker = w;
+            Thread thread = new Thread(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                int sequence = 0;
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = ThreadLocalRandom.current().nextDouble() < writeRatio
+                            ? admission(baseUrl, runId + "-" + worker + "-" + sequence++)
+                            : activePage(baseUrl);
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 500) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                latencies[worker] = Arrays.copyOf(samples, count);
+            }, "load-" + w);
+            workers.add(thread);
+            thread.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return LoadResult.of(latencies, errors.get(), duration);
+    }
+
+    private static HttpRequest admission(String baseUrl, String name) {
+        String body = String.format(Locale.ROOT,
+                "{\"name\":\"Load-%s\",\"temperature\":36.6,\"pulse\":70,\"dateOfBirth\":\"1990-01-01\"}", name);
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/patient/add"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static HttpRequest activePage(String baseUrl) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/patient/allActive/page?size=50")).GET().build();
+    }
+
+    public static final class LoadResult {
+        private final long requests;
+        private final long errors;
+        private final double throughput;
+        private final long[] sorted;
+
+        private LoadResult(long[] sorted, long errors, Duration duration) {
+            this.sorted = sorted;
+            this.requests = sorted.length;
+            this.errors = errors;
+            this.throughput = requests / (duration.toMillis() / 1000.0);
+        }
+
+        static LoadResult of(long[][] latencies, long errors, Duration duration) {
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+            return new LoadResult(all, errors, duration);
+        }
+
+        public double percentileMillis(double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile / 100.0 * sorted.length) - 1);
+            return sorted[Math.max(index, 0)] / 1_000_000.0;
+        }
+
+        public String format(String label) {
+            return String.format(Locale.ROOT,
+                    "%s: requests=%d errors=%d throughput=%.1f req/s p50=%.2f ms p99=%.2f ms p99.9=%.2f ms",
+                    label, requests, errors, throughput, percentileMillis(50), percentileMillis(99),
+                    percentileMillis(99.9));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.interview.benchmark;
+
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.entity.PatientEntity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes an active-patient list with the mappers the application negotiates for {@code application/json},
+ * {@code application/x-jackson-smile} and {@code application/cbor}. The raw and gzipped payload sizes of each format
+ * are printed once per trial; the benchmark itself measures encoding time.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PatientSerializationBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    private ObjectMapper mapper;
+    private List<PatientEntity> patients;
+    private int expectedSize;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ConfigurableApplicationContext context = BenchmarkContext.start();
+        try {
+            mapper = switch (format) {
+                case "json" -> context.getBean(ObjectMapper.class);
+                case "smile" -> context.getBean(MappingJackson2SmileHttpMessageConverter.class).getObjectMapper();
+                case "cbor" -> context.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper();
+                default -> throw new IllegalArgumentException(format);
+            };
+        } finally {
+            context.close();
+        }
+        patients = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            patients.add(patient(i));
+        }
+        byte[] payload = mapper.writeValueAsBytes(patients);
+        expectedSize = payload.length;
+        System.out.printf(Locale.ROOT, "%n%s rows=%d: %d bytes, %d bytes gzipped%n",
+                format, rows, payload.length, gzip(payload).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(expectedSize);
+        mapper.writeValue(out, patients);
+        return out.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] payload) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        }
+        return out.toByteArray();
+    }
+
+    private static PatientEntity patient(int index) {
+        PatientEntity patient = new PatientEntity();
+        patient.setId(index + 1);
+        patient.setName(BenchmarkContext.name(index));
+        patient.setTemperature(36.0 + index % 30 / 10.0);
+        patient.setPulse(50.0 + index % 90);
+        patient.setDateOfBirth(LocalDate.of(1940, 1, 1).plusDays(index % 25_000));
+        patient.setStatus(PatientStatus.ACTIVE);
+        patient.setVersion(0);
+        return patient;
+    }
+}
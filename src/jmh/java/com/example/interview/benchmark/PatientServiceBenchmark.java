@@ -0,0 +1,119 @@
+package com.example.interview.benchmark;
+
+import com.example.interview.controller.PatientController;
+import com.example.interview.domain.PatientPage;
+import com.example.interview.domain.PatientRequest;
+import com.example.interview.entity.PatientEntity;
+import com.example.interview.service.PatientService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-destructive service and controller hot paths over a seeded table. Destructive deletes are measured
+ * separately in {@link PatientDeleteBenchmark}.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PatientServiceBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private final AtomicInteger added = new AtomicInteger();
+    private ConfigurableApplicationContext context;
+    private PatientService patientService;
+    private PatientController patientController;
+    private ObjectMapper objectMapper;
+    private List<PatientEntity> activePatients;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, rows);
+        patientService = context.getBean(PatientService.class);
+        patientController = context.getBean(PatientController.class);
+        objectMapper = context.getBean(ObjectMapper.class);
+        activePatients = patientService.showAllActivePatients();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void addPatient() {
+        patientService.addPatient("Added" + added.incrementAndGet(), 36.6, 70.0, LocalDate.of(1990, 1, 1));
+    }
+
+    @Benchmark
+    public void updatePatient() {
+        PatientRequest patientRequest = new PatientRequest();
+        patientRequest.setTemperature(36.0 + ThreadLocalRandom.current().nextInt(30) / 10.0);
+        patientService.updatePatient(BenchmarkContext.name(ThreadLocalRandom.current().nextInt(rows)), patientRequest);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<PatientEntity> showAllActivePatients() {
+        return patientService.showAllActivePatients();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public byte[] showAllActivePatientsAsJson() throws Exception {
+        return objectMapper.writeValueAsBytes(patientController.showAllActivePatients().getBody());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public byte[] serializeActivePatients() throws Exception {
+        return objectMapper.writeValueAsBytes(activePatients);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public byte[] showAllActivePatientViewsAsJson() throws Exception {
+        return objectMapper.writeValueAsBytes(patientService.showAllActivePatientViews());
+    }
+
+    @Benchmark
+    public byte[] showActivePatientsSnapshot() {
+        return patientController.showActivePatientsSnapshot(null).getBody();
+    }
+
+    @Benchmark
+    public PatientPage showActivePatientsPage() {
+        return patientService.showActivePatientsPage(null, 100);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long streamAllActivePatients() {
+        AtomicLong streamed = new AtomicLong();
+        patientService.streamAllActivePatients(patient -> streamed.incrementAndGet());
+        return streamed.get();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.interview.benchmark;
+
+import com.example.interview.exception.ForbiddenException;
+import com.example.interview.service.PatientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admissions from 64 threads: every thread adding its own patients, and all threads retrying the admission of one
+ * patient that was just added. Per-name locking should leave the first close to the single-writer rate times the pool size
+ * and keep the second, which is all rejections, free of lock contention.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(64)
+public class PatientWriteContentionBenchmark {
+    private static final LocalDate DATE_OF_BIRTH = LocalDate.of(1990, 1, 1);
+    private static final String HOT_NAME = "Contention";
+
+    private final AtomicLong sequence = new AtomicLong();
+    private ConfigurableApplicationContext context;
+    private PatientService patientService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("spring.datasource.hikari.maximum-pool-size=64");
+        patientService = context.getBean(PatientService.class);
+        patientService.addPatient(HOT_NAME, 36.6, 60.0, DATE_OF_BIRTH);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void addDistinctNames() {
+        patientService.addPatient(HOT_NAME + sequence.incrementAndGet(), 36.6, 60.0, DATE_OF_BIRTH);
+    }
+
+    @Benchmark
+    public boolean addSameName() {
+        try {
+            patientService.addPatient(HOT_NAME, 36.6, 60.0, DATE_OF_BIRTH);
+            return true;
+        } catch (ForbiddenException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.interview.benchmark;
+
+import com.example.interview.filter.ClientIdentity;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * One misbehaving client floods admissions from many connections while well-behaved clients page through the
+ * active list, both closed-loop. Prints the readers' throughput and latency percentiles next to how the flood was
+ * answered: admitted, rate limited (429) or shed (503).
+ * <p>
+ * Arguments: {@code baseUrl floodConnections readers durationSeconds [label]}.
+ */
+public final class PatientWriteFloodLoadTest {
+    private static final int ADMITTED = 0;
+    private static final int RATE_LIMITED = 1;
+    private static final int SHED = 2;
+    private static final int FAILED = 3;
+
+    private PatientWriteFloodLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int floodConnections = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int readers = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+        int durationSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 30;
+        String label = args.length > 4 ? args[4] : "run";
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        Duration duration = Duration.ofSeconds(durationSeconds);
+        long deadline = System.nanoTime() + duration.toNanos();
+        String runId = Long.toString(System.currentTimeMillis() % 100_000, 36);
+        AtomicLongArray writes = new AtomicLongArray(4);
+        AtomicLong readErrors = new AtomicLong();
+        long[][] readLatencies = new long[readers][];
+        List<Thread> threads = new ArrayList<>();
+
+        for (int f = 0; f < floodConnections; f++) {
+            int connection = f;
+            threads.add(new Thread(() -> {
+                int sequence = 0;
+                while (System.nanoTime() < deadline) {
+                    HttpRequest request = admission(baseUrl, runId + "-" + connection + "-" + sequence++);
+                    writes.incrementAndGet(outcome(client, request));
+                }
+            }, "flood-" + f));
+        }
+        for (int r = 0; r < readers; r++) {
+            int reader = r;
+            threads.add(new Thread(() -> {
+                long[] samples = new long[1024];
+                int count = 0;
+                HttpRequest request = HttpRequest.newBuilder(
+                                URI.create(baseUrl + "/api/patient/allActive/page?size=50"))
+                        .header(ClientIdentity.HEADER, "reader-" + reader)
+                        .GET()
+                        .build();
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    if (outcome(client, request) != ADMITTED) {
+                        readErrors.incrementAndGet();
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                readLatencies[reader] = Arrays.copyOf(samples, count);
+            }, "reader-" + r));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        PatientLoadTest.LoadResult reads = PatientLoadTest.LoadResult.of(readLatencies, readErrors.get(), duration);
+        System.out.println(reads.format(label + " reads") + String.format(Locale.ROOT,
+                " | writes admitted=%d limited=%d shed=%d failed=%d", writes.get(ADMITTED),
+                writes.get(RATE_LIMITED), writes.get(SHED), writes.get(FAILED)));
+    }
+
+    private static int outcome(HttpClient client, HttpRequest request) {
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status == 429) {
+                return RATE_LIMITED;
+            }
+            if (status == 503) {
+                return SHED;
+            }
+            return status < 500 ? ADMITTED : FAILED;
+        } catch (Exception e) {
+            return FAILED;
+        }
+    }
+
+    private static HttpRequest admission(String baseUrl, String name) {
+        String body = String.format(Locale.ROOT,
+                "{\"name\":\"Flood-%s\",\"temperature\":36.6,\"pulse\":70,\"dateOfBirth\":\"1990-01-01\"}", name);
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/patient/add"))
+                .header("Content-Type", "application/json")
+                .header(ClientIdentity.HEADER, "flood")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.interview.benchmark;
+
+import com.example.interview.controller.PatientController;
+import com.example.interview.domain.PatientRequest;
+import com.example.interview.exception.ForbiddenException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Add traffic where most requests are rejected as duplicates, plus the bare cost of building and catching
+ * a rejection deep in a call stack. Run with {@code -prof gc} to see the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RejectionBenchmark {
+    private static final int ROWS = 10_000;
+    private static final int STACK_DEPTH = 64;
+
+    @Param({"0.9"})
+    public double rejectionRatio;
+
+    private final AtomicInteger added = new AtomicInteger();
+    private ConfigurableApplicationContext context;
+    private PatientController patientController;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, ROWS);
+        patientController = context.getBean(PatientController.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<String> addPatientMixed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        PatientRequest patientRequest = new PatientRequest();
+        patientRequest.setName(random.nextDouble() < rejectionRatio
+                ? BenchmarkContext.name(random.nextInt(ROWS))
+                : "Added" + added.incrementAndGet());
+        patientRequest.setTemperature(36.6);
+        patientRequest.setPulse(70.0);
+        patientRequest.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        return patientController.addPatient(patientRequest);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String stacklessRejection() {
+        try {
+            return throwAt(STACK_DEPTH, true);
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public String formattedStackTraceRejection() {
+        try {
+            return throwAt(STACK_DEPTH, false);
+        } catch (RuntimeException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static String throwAt(int depth, boolean stackless) {
+        if (depth > 0) {
+            return throwAt(depth - 1, stackless);
+        }
+        if (stackless) {
+            throw ForbiddenException.notUniqName("Patient0000042");
+        }
+        throw new RuntimeException(String.format("Patient with name %s already exists", "Patient0000042"));
+    }
+}
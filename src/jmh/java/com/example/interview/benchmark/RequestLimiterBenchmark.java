@@ -0,0 +1,101 @@
+package com.example.interview.benchmark;
+
+import com.example.interview.filter.AdaptiveConcurrencyLimit;
+import com.example.interview.filter.ClientIdentity;
+import com.example.interview.filter.ConcurrencyLimitFilter;
+import com.example.interview.filter.RateLimitFilter;
+import com.example.interview.filter.StripedTokenBuckets;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead the request limiters add to every patient request: a token bucket check for an admitted and for a
+ * rejected client, an acquire and release of the adaptive limit, and both filters around an empty chain. The
+ * filters reuse one request and response so that the score is theirs rather than the mocks'.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestLimiterBenchmark {
+    private static final int CLIENTS = 1024;
+    private static final FilterChain EMPTY_CHAIN = (request, response) -> {
+    };
+
+    private final String[] clients = new String[CLIENTS];
+    private StripedTokenBuckets generousBuckets;
+    private StripedTokenBuckets exhaustedBuckets;
+    private AdaptiveConcurrencyLimit limit;
+    private RateLimitFilter rateLimitFilter;
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+    private FilterChain limitedChain;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < CLIENTS; i++) {
+            clients[i] = "integration-client-" + i;
+        }
+        generousBuckets = new StripedTokenBuckets(1e9, 1_000_000, 4096);
+        exhaustedBuckets = new StripedTokenBuckets(1e-3, 1, 4096);
+        for (String client : clients) {
+            exhaustedBuckets.tryAcquire(client);
+        }
+        limit = new AdaptiveConcurrencyLimit(100, 1, 100, Duration.ofSeconds(1), 0.9);
+        rateLimitFilter = new RateLimitFilter(new StripedTokenBuckets(1e9, 1_000_000, 4096),
+                new ClientIdentity("127\\.0\\.0\\.1"));
+        concurrencyLimitFilter = new ConcurrencyLimitFilter(
+                new AdaptiveConcurrencyLimit(100, 1, 100, Duration.ofSeconds(1), 0.9),
+                new AdaptiveConcurrencyLimit(100, 1, 100, Duration.ofSeconds(1), 0.9),
+                Duration.ZERO);
+        limitedChain = (req, res) -> concurrencyLimitFilter.doFilter(req, res, EMPTY_CHAIN);
+        request = new MockHttpServletRequest("POST", "/api/patient/add");
+        request.addHeader(ClientIdentity.HEADER, "integration-client-7");
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public long tokenBucketAdmitted() {
+        return generousBuckets.tryAcquire(clients[next++ & (CLIENTS - 1)]);
+    }
+
+    @Benchmark
+    public long tokenBucketRejected() {
+        return exhaustedBuckets.tryAcquire(clients[next++ & (CLIENTS - 1)]);
+    }
+
+    @Benchmark
+    public boolean adaptiveLimit() {
+        boolean acquired = limit.tryAcquire();
+        limit.release(System.nanoTime(), false);
+        return acquired;
+    }
+
+    @Benchmark
+    public int bothFilters() throws IOException, ServletException {
+        request.removeAttribute(RateLimitFilter.class.getName() + ".FILTERED");
+        request.removeAttribute(ConcurrencyLimitFilter.class.getName() + ".FILTERED");
+        rateLimitFilter.doFilter(request, response, limitedChain);
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.interview.benchmark;
+
+import com.example.interview.domain.VitalReading;
+import com.example.interview.service.VitalsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sustained vitals ingest rate in readings per second. Each invocation submits one device batch and retries
+ * the rejected tail, so once the buffer is full the score is bounded by the flusher's database throughput.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class VitalsIngestBenchmark {
+    private static final int READINGS_PER_REQUEST = 500;
+
+    private ConfigurableApplicationContext context;
+    private VitalsService vitalsService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        vitalsService = context.getBean(VitalsService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(READINGS_PER_REQUEST)
+    public void recordVitals() {
+        List<VitalReading> readings = readings();
+        int accepted = vitalsService.recordVitals(readings);
+        while (accepted < readings.size()) {
+            Thread.onSpinWait();
+            accepted += vitalsService.recordVitals(readings.subList(accepted, readings.size()));
+        }
+    }
+
+    private List<VitalReading> readings() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Instant now = Instant.now();
+        List<VitalReading> readings = new ArrayList<>(READINGS_PER_REQUEST);
+        for (int i = 0; i < READINGS_PER_REQUEST; i++) {
+            readings.add(new VitalReading(random.nextInt(10_000), now.minusMillis(i),
+                    36.0 + random.nextInt(30) / 10.0, 50.0 + random.nextInt(90)));
+        }
+        return readings;
+    }
+}
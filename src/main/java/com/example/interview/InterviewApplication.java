@@ -1,12 +1,34 @@
 package com.example.interview;
 
+import com.example.interview.export.PatientExport;
+import com.example.interview.importer.PatientImport;
+import com.example.interview.migration.DatabaseMigration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import java.io.IOException;
+import java.util.Arrays;
 
-@SpringBootApplication
+/**
+ * Entry point of the servlet application. R2DBC stays off even when a build with the reactive profile puts it on
+ * the classpath: a connection factory would make Spring Boot skip the JDBC data source that JPA runs on.
+ */
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class InterviewApplication {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && DatabaseMigration.COMMAND.equals(args[0])) {
+            DatabaseMigration.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && PatientExport.COMMAND.equals(args[0])) {
+            PatientExport.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && PatientImport.COMMAND.equals(args[0])) {
+            PatientImport.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         SpringApplication.run(InterviewApplication.class, args);
     }
 
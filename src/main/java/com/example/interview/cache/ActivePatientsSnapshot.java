@@ -0,0 +1,228 @@
+package com.example.interview.cache;
+
+import com.example.interview.datasource.ReplicaRouting;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.domain.PatientView;
+import com.example.interview.event.PatientChangedEvent;
+import com.example.interview.event.PatientsChangedElsewhereEvent;
+import com.example.interview.event.PatientsImportedEvent;
+import com.example.interview.service.PatientService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pre-serialized JSON of the active patient list. Every active patient is kept as its own JSON fragment, ordered
+ * by name; a mutation re-serializes only the affected row, and the next read concatenates the fragments once
+ * and serves the same bytes and ETag until something changes again.
+ * <p>
+ * Changes made on other instances arrive as {@link PatientsChangedElsewhereEvent}s; their rows are re-read from the
+ * primary on the next read, and the ETag changes with them.
+ */
+@Component
+public class ActivePatientsSnapshot {
+    private static final int MAX_STALE_NAMES = 1000;
+
+    private final PatientService patientService;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final NavigableMap<String, Row> rows = new TreeMap<>();
+    private final Set<String> stale = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean staleAll = new AtomicBoolean();
+    private boolean loaded;
+    private long generation;
+    private volatile Snapshot current;
+
+    public ActivePatientsSnapshot(PatientService patientService, ObjectMapper objectMapper,
+                                  @Value("${patient.active-snapshot.enabled:true}") boolean enabled) {
+        this.patientService = patientService;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    public Snapshot get() {
+        Snapshot snapshot = current;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        if (!enabled) {
+            return build(patientService.showAllActivePatientViews());
+        }
+        return rebuild();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPatientChanged(PatientChangedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        switch (event.getType()) {
+            case ADDED -> rows.put(event.getName(), row(new PatientView(event.getId(), event.getName(),
+                    event.getTemperature(), event.getPulse(), event.getDateOfBirth(), event.getStatus(),
+                    event.getVersion())));
+            case UPDATED -> applyUpdate(event);
+            case DELETED -> rows.remove(event.getName());
+            case ARCHIVED -> {
+                return;
+            }
+        }
+        generation++;
+        current = null;
+    }
+
+    /**
+     * Imports come as one event without their rows, so the snapshot is reloaded on the next read.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPatientsImported(PatientsImportedEvent event) {
+        if (!loaded || event.getAdded() == 0) {
+            return;
+        }
+        reload();
+    }
+
+    /**
+     * Marks the rows changed elsewhere for re-reading, or the whole list when there are too many of them. This runs
+     * on the invalidation channel's thread, so it only marks and leaves the reading to the next {@link #get()}.
+     */
+    @EventListener
+    public void onPatientsChangedElsewhere(PatientsChangedElsewhereEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (event.isEverything() || stale.size() > MAX_STALE_NAMES) {
+            staleAll.set(true);
+        } else {
+            stale.addAll(event.getNames());
+        }
+        current = null;
+    }
+
+    private void reload() {
+        loaded = false;
+        rows.clear();
+        generation++;
+        current = null;
+    }
+
+    private void applyUpdate(PatientChangedEvent event) {
+        String oldName = event.getPreviousName() != null ? event.getPreviousName() : event.getName();
+        Row previous = rows.remove(oldName);
+        if (previous == null) {
+            return;
+        }
+        PatientView view = previous.getView();
+        rows.put(event.getName(), row(new PatientView(view.getId(), event.getName(),
+                event.getTemperature() != null ? event.getTemperature() : view.getTemperature(),
+                event.getPulse() != null ? event.getPulse() : view.getPulse(),
+                event.getDateOfBirth() != null ? event.getDateOfBirth() : view.getDateOfBirth(),
+                PatientStatus.ACTIVE, event.getVersion())));
+    }
+
+    private synchronized Snapshot rebuild() {
+        if (current != null) {
+            return current;
+        }
+        boolean changedElsewhere = staleAll.getAndSet(false);
+        List<String> staleNames = new ArrayList<>();
+        for (Iterator<String> names = stale.iterator(); names.hasNext(); names.remove()) {
+            staleNames.add(names.next());
+        }
+        try {
+            if (!loaded || changedElsewhere) {
+                loaded = false;
+                rows.clear();
+                for (PatientView view : ReplicaRouting.onPrimary(patientService::showAllActivePatientViews)) {
+                    rows.put(view.getName(), row(view));
+                }
+                loaded = true;
+            } else if (!staleNames.isEmpty()) {
+                List<PatientView> views = ReplicaRouting.onPrimary(
+                        () -> patientService.showActivePatientViews(staleNames));
+                staleNames.forEach(rows::remove);
+                for (PatientView view : views) {
+                    rows.put(view.getName(), row(view));
+                }
+            }
+        } catch (RuntimeException e) {
+            staleAll.compareAndSet(false, changedElsewhere);
+            stale.addAll(staleNames);
+            throw e;
+        }
+        if (changedElsewhere || !staleNames.isEmpty()) {
+            generation++;
+        }
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        json.write('[');
+        boolean first = true;
+        for (Map.Entry<String, Row> entry : rows.entrySet()) {
+            if (!first) {
+                json.write(',');
+            }
+            json.writeBytes(entry.getValue().getJson());
+            first = false;
+        }
+        json.write(']');
+        Snapshot snapshot = new Snapshot(json.toByteArray(), etag());
+        current = snapshot;
+        if (staleAll.get() || !stale.isEmpty()) {
+            // changed elsewhere while this was being built; serve it once and re-read on the next call
+            current = null;
+        }
+        return snapshot;
+    }
+
+    private Snapshot build(List<PatientView> views) {
+        try {
+            return new Snapshot(objectMapper.writeValueAsBytes(views), null);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String etag() {
+        return "\"" + epoch + "-" + generation + "\"";
+    }
+
+    private Row row(PatientView view) {
+        try {
+            return new Row(view, objectMapper.writeValueAsBytes(view));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Row {
+        private final PatientView view;
+        private final byte[] json;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Snapshot {
+        private final byte[] json;
+        /**
+         * {@code null} when the snapshot is disabled and the list was serialized for this request only.
+         */
+        private final String etag;
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.interview.cache;
+
+import com.example.interview.event.PatientChangedEvent;
+import com.example.interview.event.PatientsChangedElsewhereEvent;
+import com.example.interview.event.PatientsImportedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the per-instance patient caches coherent across instances over PostgreSQL {@code LISTEN/NOTIFY}. After a
+ * mutation commits, the changed names are evicted locally and queued; a single thread holding its own connection to
+ * the primary sends them as one {@code pg_notify} per batch and, in between, waits for the other instances'
+ * batches and evicts those names from {@link PatientLookupCache} and {@link PatientNameCache}.
+ * <p>
+ * Every batch received is also published as a {@link PatientsChangedElsewhereEvent} for the in-memory views that
+ * follow this instance's own changes.
+ * <p>
+ * A notification is lost while the channel is down, so both caches are cleared, and everything is reported as
+ * changed, whenever the thread (re)connects. Should more than {@code max-pending} names queue up before they can be
+ * sent, the other instances are told to drop everything instead.
+ */
+@Slf4j
+@Component
+public class PatientCacheInvalidator implements SmartLifecycle, MeterBinder {
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final long MAX_RECONNECT_BACKOFF_NANOS = Duration.ofSeconds(5).toNanos();
+
+    private final PatientLookupCache patientLookupCache;
+    private final PatientNameCache patientNameCache;
+    private final DataSourceProperties dataSourceProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String channel;
+    private final int pollMillis;
+    private final int maxPending;
+    private final boolean broadcasting;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Queue<String> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread listener;
+
+    public PatientCacheInvalidator(PatientLookupCache patientLookupCache, PatientNameCache patientNameCache,
+                                   DataSourceProperties dataSourceProperties, ApplicationEventPublisher eventPublisher,
+                                   @Value("${patient.lookup-cache.invalidation.enabled:true}") boolean enabled,
+                                   @Value("${patient.lookup-cache.invalidation.channel:patient_cache}") String channel,
+                                   @Value("${patient.lookup-cache.invalidation.poll-interval:100ms}") Duration pollInterval,
+                                   @Value("${patient.lookup-cache.invalidation.max-pending:10000}") int maxPending) {
+        if (!CHANNEL.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Not a valid notification channel: " + channel);
+        }
+        this.patientLookupCache = patientLookupCache;
+        this.patientNameCache = patientNameCache;
+        this.dataSourceProperties = dataSourceProperties;
+        this.eventPublisher = eventPublisher;
+        this.channel = channel;
+        this.pollMillis = (int) Math.max(pollInterval.toMillis(), 1);
+        this.maxPending = maxPending;
+        this.broadcasting = enabled && dataSourceProperties.determineUrl().startsWith("jdbc:postgresql:");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        List<String> names = event.getPreviousName() == null
+                ? List.of(event.getName())
+                : List.of(event.getName(), event.getPreviousName());
+        patientLookupCache.evict(names);
+        if (!broadcasting) {
+            return;
+        }
+        for (String name : names) {
+            if (pendingCount.incrementAndGet() > maxPending) {
+                pendingCount.decrementAndGet();
+                dropped.incrementAndGet();
+                overflowed.set(true);
+            } else {
+                pending.offer(name);
+            }
+        }
+    }
+
+    /**
+     * An import only adds names, so the shared tier holds nothing stale, but this instance may remember some of them
+     * as missing. The other instances hear about it from the import's own notification.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientsImported(PatientsImportedEvent event) {
+        patientLookupCache.evictAllLocal();
+        patientNameCache.invalidateAll();
+    }
+
+    /**
+     * A batch that names no patients, telling every instance to drop its caches entirely. Bulk writes send it
+     * through {@link #notifyEvictAll(JdbcTemplate)} instead of listing every name they touched.
+     */
+    static String evictAllPayload(String sender) {
+        return sender + '\n';
+    }
+
+    /**
+     * Tells the other instances to drop everything once the caller's transaction commits. This instance ignores
+     * the notification as its own, so the caller is expected to announce the change locally with an event.
+     */
+    public void notifyEvictAll(JdbcTemplate jdbcTemplate) {
+        if (broadcasting) {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", resultSet -> {
+            }, channel, evictAllPayload(nodeId));
+        }
+    }
+
+    /**
+     * Applies a batch from another instance: the node id on the first line, then one name per line, or no names at
+     * all to evict everything.
+     */
+    void onNotification(String payload) {
+        int header = payload.indexOf('\n');
+        if (header < 0 || payload.startsWith(nodeId + '\n')) {
+            return;
+        }
+        if (header == payload.length() - 1) {
+            evictAllLocal();
+            received.incrementAndGet();
+            return;
+        }
+        List<String> names = Arrays.asList(payload.substring(header + 1).split("\n"));
+        patientLookupCache.evictLocal(names);
+        names.forEach(patientNameCache::invalidate);
+        received.addAndGet(names.size());
+        eventPublisher.publishEvent(new PatientsChangedElsewhereEvent(names));
+    }
+
+    /**
+     * Takes everything queued so far and packs it into payloads that fit a notification, or replaces it all with a
+     * single {@link #evictAllPayload(String)} when names had to be dropped.
+     */
+    List<String> drainPayloads() {
+        if (overflowed.getAndSet(false)) {
+            while (pending.poll() != null) {
+                pendingCount.decrementAndGet();
+            }
+            return List.of(evictAllPayload(nodeId));
+        }
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId);
+        int bytes = nodeId.length();
+        String name;
+        while ((name = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            int length = name.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (bytes + length > MAX_PAYLOAD_BYTES && payload.length() > nodeId.length()) {
+                payloads.add(payload.toString());
+                payload.setLength(nodeId.length());
+                bytes = nodeId.length();
+            }
+            payload.append('\n').append(name);
+            bytes += length;
+        }
+        if (payload.length() > nodeId.length()) {
+            payloads.add(payload.toString());
+        }
+        return payloads;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("patient.lookup-cache.invalidations", sent, AtomicLong::get)
+                .description("Invalidated names sent to other instances")
+                .tag("direction", "sent")
+                .register(registry);
+        FunctionCounter.builder("patient.lookup-cache.invalidations", received, AtomicLong::get)
+                .tag("direction", "received")
+                .register(registry);
+        FunctionCounter.builder("patient.lookup-cache.invalidations", dropped, AtomicLong::get)
+                .tag("direction", "dropped")
+                .register(registry);
+    }
+
+    @Override
+    public void start() {
+        if (!broadcasting) {
+            log.info("Patient cache invalidation across instances needs PostgreSQL; caches stay local");
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listen, "patient-cache-invalidator");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            listener.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return whether the channel is currently up, so that other instances' changes reach this one
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    private void evictAllLocal() {
+        patientLookupCache.evictAllLocal();
+        patientNameCache.invalidateAll();
+        eventPublisher.publishEvent(new PatientsChangedElsewhereEvent(List.of()));
+    }
+
+    private void listen() {
+        long backoff = Duration.ofMillis(pollMillis).toNanos();
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                PGConnection notifications = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                listening = true;
+                evictAllLocal();
+                backoff = Duration.ofMillis(pollMillis).toNanos();
+                try (PreparedStatement notify = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                    while (running) {
+                        for (String payload : drainPayloads()) {
+                            notify.setString(1, channel);
+                            notify.setString(2, payload);
+                            notify.execute();
+                            sent.addAndGet(payload.chars().filter(c -> c == '\n').count());
+                        }
+                        PGNotification[] batch = notifications.getNotifications(pollMillis);
+                        if (batch != null) {
+                            for (PGNotification notification : batch) {
+                                onNotification(notification.getParameter());
+                            }
+                        }
+                    }
+                }
+                listening = false;
+            } catch (SQLException e) {
+                listening = false;
+                if (!running) {
+                    return;
+                }
+                log.warn("Lost the patient cache invalidation channel, reconnecting: {}", e.getMessage());
+                LockSupport.parkNanos(this, backoff);
+                backoff = Math.min(backoff * 2, MAX_RECONNECT_BACKOFF_NANOS);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.interview.cache;
+
+import com.example.interview.datasource.ReplicaRouting;
+import com.example.interview.domain.PatientView;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Two-tier cache of live patients by name. The first tier is a bounded on-heap cache per instance that also
+ * remembers names known not to exist; the optional second tier is a {@link SharedPatientCache} that lets one
+ * instance's load serve the others.
+ * <p>
+ * Mutations evict both tiers after commit and {@link PatientCacheInvalidator} tells the other instances to drop
+ * their first tier. Should a notification be lost, the first tier's time-to-live bounds how long a stale entry
+ * can be served.
+ * <p>
+ * Loads always read from the primary: a row read from a lagging replica right after an eviction would otherwise
+ * be cached, and served, for the whole time-to-live.
+ */
+@Component
+public class PatientLookupCache implements MeterBinder {
+    private final Cache<String, Optional<PatientView>> local;
+    private final SharedPatientCache shared;
+
+    public PatientLookupCache(@Nullable SharedPatientCache shared,
+                              @Value("${patient.lookup-cache.maximum-size:100000}") long maximumSize,
+                              @Value("${patient.lookup-cache.local-ttl:30s}") Duration localTtl) {
+        this.shared = shared;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param loader reads the patient from the database, returning {@code null} when there is none
+     * @return the patient, or {@code null} when there is no live patient of that name
+     */
+    public PatientView get(String name, Function<String, PatientView> loader) {
+        return local.get(name, key -> Optional.ofNullable(load(key, loader))).orElse(null);
+    }
+
+    /**
+     * Drops the names from both tiers; called on the instance that made the change.
+     */
+    public void evict(Collection<String> names) {
+        local.invalidateAll(names);
+        if (shared != null) {
+            shared.evict(names);
+        }
+    }
+
+    /**
+     * Drops the names from this instance's tier only; the instance that made the change has already cleared the
+     * shared one.
+     */
+    public void evictLocal(Collection<String> names) {
+        local.invalidateAll(names);
+    }
+
+    public void evictAllLocal() {
+        local.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, local, "patientLookup");
+    }
+
+    private PatientView load(String name, Function<String, PatientView> loader) {
+        if (shared == null) {
+            return ReplicaRouting.onPrimary(() -> loader.apply(name));
+        }
+        PatientView view = shared.get(name);
+        if (view == null) {
+            view = ReplicaRouting.onPrimary(() -> loader.apply(name));
+            if (view != null) {
+                shared.put(name, view);
+            }
+        }
+        return view;
+    }
+}
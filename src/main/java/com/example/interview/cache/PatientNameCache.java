@@ -0,0 +1,72 @@
+package com.example.interview.cache;
+
+import com.example.interview.domain.CacheStatistics;
+import com.example.interview.domain.PatientKey;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded W-TinyLFU cache from patient name to its id and status. Names known not to exist are cached as
+ * {@link PatientKey#ABSENT}, so both duplicate-name and not-found rejections can be answered from memory.
+ * The service writes through on every mutation; the unique index on {@code patients.name} stays the source of truth.
+ */
+@Component
+public class PatientNameCache implements MeterBinder {
+    private final Cache<String, PatientKey> cache;
+
+    public PatientNameCache(@Value("${patient.name-cache.maximum-size:100000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @return the cached key, {@link PatientKey#ABSENT} for a known missing name, or {@code null} on a miss
+     */
+    public PatientKey getIfPresent(String name) {
+        return name == null ? null : cache.getIfPresent(name);
+    }
+
+    public void put(String name, PatientKey key) {
+        if (name != null) {
+            cache.put(name, key);
+        }
+    }
+
+    /**
+     * Caches a name as missing unless a concurrent mutation has already written a fresher entry.
+     */
+    public void putAbsent(String name) {
+        if (name != null) {
+            cache.asMap().putIfAbsent(name, PatientKey.ABSENT);
+        }
+    }
+
+    public void invalidate(String name) {
+        if (name != null) {
+            cache.invalidate(name);
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStatistics statistics() {
+        CacheStats stats = cache.stats();
+        return new CacheStatistics(stats.hitCount(), stats.missCount(), stats.hitRate(),
+                stats.evictionCount(), cache.estimatedSize());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "patientName");
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.interview.cache;
+
+import com.example.interview.domain.PatientView;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * {@link SharedPatientCache} on Redis. Views are stored as JSON under {@code patient:<name>} with a time-to-live,
+ * over one multiplexed connection. Redis errors and timeouts count as misses.
+ */
+@Slf4j
+public class RedisSharedPatientCache implements SharedPatientCache, Closeable {
+    private static final String KEY_PREFIX = "patient:";
+
+    private final RedisClient client;
+    private final StatefulRedisConnection<String, String> connection;
+    private final RedisCommands<String, String> commands;
+    private final ObjectMapper objectMapper;
+    private final SetArgs ttl;
+    private final Counter errors;
+
+    public RedisSharedPatientCache(String url, Duration timeout, Duration ttl, ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry) {
+        RedisURI uri = RedisURI.create(url);
+        uri.setTimeout(timeout);
+        this.client = RedisClient.create(uri);
+        this.connection = client.connect();
+        this.commands = connection.sync();
+        this.objectMapper = objectMapper;
+        this.ttl = SetArgs.Builder.px(ttl);
+        this.errors = Counter.builder("patient.lookup-cache.shared.errors")
+                .description("Shared cache calls that failed and were treated as misses")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public PatientView get(String name) {
+        try {
+            String json = commands.get(KEY_PREFIX + name);
+            return json == null ? null : objectMapper.readValue(json, PatientView.class);
+        } catch (RedisException | JsonProcessingException e) {
+            failed("read", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String name, PatientView view) {
+        try {
+            commands.set(KEY_PREFIX + name, objectMapper.writeValueAsString(view), ttl);
+        } catch (RedisException | JsonProcessingException e) {
+            failed("write", e);
+        }
+    }
+
+    @Override
+    public void evict(Collection<String> names) {
+        try {
+            commands.del(names.stream().map(name -> KEY_PREFIX + name).toArray(String[]::new));
+        } catch (RedisException e) {
+            failed("evict", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        connection.close();
+        client.shutdown();
+    }
+
+    private void failed(String operation, Exception e) {
+        errors.increment();
+        log.debug("Shared patient cache {} failed: {}", operation, e.getMessage());
+    }
+}
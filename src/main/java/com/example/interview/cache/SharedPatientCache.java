@@ -0,0 +1,20 @@
+package com.example.interview.cache;
+
+import com.example.interview.domain.PatientView;
+import java.util.Collection;
+
+/**
+ * Second cache tier shared by every instance, consulted by {@link PatientLookupCache} after its own on-heap tier
+ * misses. Implementations are best-effort: a failing tier answers with a miss instead of failing the lookup.
+ */
+public interface SharedPatientCache {
+
+    /**
+     * @return the cached view, or {@code null} on a miss
+     */
+    PatientView get(String name);
+
+    void put(String name, PatientView view);
+
+    void evict(Collection<String> names);
+}
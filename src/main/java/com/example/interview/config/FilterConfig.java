@@ -0,0 +1,152 @@
+package com.example.interview.config;
+
+import com.example.interview.filter.AdaptiveConcurrencyLimit;
+import com.example.interview.filter.ClientIdentity;
+import com.example.interview.filter.ConcurrencyLimitFilter;
+import com.example.interview.filter.IdempotencyKeyFilter;
+import com.example.interview.filter.RateLimitFilter;
+import com.example.interview.filter.ReadYourWritesFilter;
+import com.example.interview.filter.StripedTokenBuckets;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.util.unit.DataSize;
+import java.time.Duration;
+
+/**
+ * The filters are switched on and off with {@code patient.*.enabled} through their registration rather than with
+ * conditional beans, so the switches keep working at run time in an AOT-processed jar.
+ */
+@Configuration
+public class FilterConfig {
+    private static final String PATIENT_API = "/api/patient/*";
+    private static final String POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    /**
+     * Reads, writes, streamed exports and bulk writes each take a connection per request, so their maximum limits
+     * together must fit the connection pool, and startup fails when they do not. Within it, the read and write
+     * pools are separate so that flooded writes always leave connections for reads, and the read limit never drops
+     * below a floor, since a host slowed down by a flood should not shed the reads it is protecting. Streamed
+     * exports hold a connection for as long as they run and get a small pool of their own. Bulk writes and imports
+     * also run for long, and get a fixed pool of their own so that their duration never cuts the write limit.
+     * Change feed subscribers hold no connection, so their large pool is left out of the sum.
+     */
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            Environment environment,
+            @Value("${patient.concurrency.enabled:true}") boolean enabled,
+            @Value("${patient.concurrency.acquire-timeout:0s}") Duration acquireTimeout,
+            MeterRegistry meterRegistry) {
+        AdaptiveConcurrencyLimit reads = concurrencyLimit(environment, "read", 8, 4, 10);
+        AdaptiveConcurrencyLimit writes = concurrencyLimit(environment, "write", 4, 1, 4);
+        AdaptiveConcurrencyLimit streams = concurrencyLimit(environment, "stream", 4, 1, 4);
+        AdaptiveConcurrencyLimit bulk = concurrencyLimit(environment, "bulk", 2, 2, 2);
+        if (enabled) {
+            checkFitsConnectionPool(environment, reads, writes, streams, bulk);
+        }
+        ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(reads, writes, acquireTimeout)
+                .route("stream", streams, "/api/patient/export", "/api/patient/allActive/stream")
+                .route("bulk", bulk, "/api/patient/bulk", "/api/patient/import")
+                .route("feed", concurrencyLimit(environment, "feed", 1000, 1, 1000), "/api/patient/changes");
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns(PATIENT_API);
+        registration.setEnabled(enabled);
+        if (enabled) {
+            filter.bindTo(meterRegistry);
+        }
+        return registration;
+    }
+
+    @Bean
+    public ClientIdentity clientIdentity(@Value("${patient.client-identity.trusted-proxies:}") String trustedProxies) {
+        return new ClientIdentity(trustedProxies);
+    }
+
+    /**
+     * Runs first, so that a client over its rate costs nothing else.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(
+            ClientIdentity clientIdentity,
+            @Value("${patient.rate-limit.enabled:true}") boolean enabled,
+            @Value("${patient.rate-limit.writes-per-second:200}") double writesPerSecond,
+            @Value("${patient.rate-limit.burst:400}") int burst,
+            @Value("${patient.rate-limit.stripes:4096}") int stripes,
+            MeterRegistry meterRegistry) {
+        RateLimitFilter filter = new RateLimitFilter(new StripedTokenBuckets(writesPerSecond, burst, stripes),
+                clientIdentity);
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns(PATIENT_API);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        registration.setEnabled(enabled);
+        if (enabled) {
+            filter.bindTo(meterRegistry);
+        }
+        return registration;
+    }
+
+    /**
+     * Runs ahead of the concurrency limit so that replayed responses never wait for a permit.
+     */
+    @Bean
+    public FilterRegistrationBean<IdempotencyKeyFilter> idempotencyKeyFilter(
+            @Value("${patient.idempotency.enabled:true}") boolean enabled,
+            @Value("${patient.idempotency.max-size:64MB}") DataSize maxSize,
+            @Value("${patient.idempotency.ttl:24h}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        IdempotencyKeyFilter filter = new IdempotencyKeyFilter(maxSize.toBytes(), ttl);
+        FilterRegistrationBean<IdempotencyKeyFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns(PATIENT_API);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        registration.setEnabled(enabled);
+        if (enabled) {
+            filter.bindTo(meterRegistry);
+        }
+        return registration;
+    }
+
+    /**
+     * Only needed when reads can land on a lagging replica. Like the replica routing it belongs to, it is decided
+     * when the bean definitions are built, which for an AOT-processed jar is at build time.
+     */
+    @Bean
+    @ConditionalOnProperty("patient.datasource.replica-urls")
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            ClientIdentity clientIdentity,
+            @Value("${patient.datasource.read-your-writes-window:5s}") Duration window,
+            @Value("${patient.datasource.read-your-writes-max-clients:100000}") long maxClients) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(clientIdentity, window, maxClients));
+        registration.addUrlPatterns(PATIENT_API);
+        return registration;
+    }
+
+    private static void checkFitsConnectionPool(Environment environment, AdaptiveConcurrencyLimit... limits) {
+        int connections = environment.getProperty(POOL_SIZE, Integer.class, HIKARI_DEFAULT_POOL_SIZE);
+        int inFlight = 0;
+        for (AdaptiveConcurrencyLimit limit : limits) {
+            inFlight += limit.getMaxLimit();
+        }
+        if (inFlight > connections) {
+            throw new IllegalStateException(String.format("The read, write, stream and bulk concurrency limits "
+                    + "let %d requests use a connection at once, but %s is %d", inFlight, POOL_SIZE, connections));
+        }
+    }
+
+    private static AdaptiveConcurrencyLimit concurrencyLimit(Environment environment, String pool,
+                                                             int initialLimit, int minLimit, int maxLimit) {
+        String prefix = "patient.concurrency." + pool + ".";
+        return new AdaptiveConcurrencyLimit(
+                environment.getProperty(prefix + "initial-limit", Integer.class, initialLimit),
+                environment.getProperty(prefix + "min-limit", Integer.class, minLimit),
+                environment.getProperty(prefix + "max-limit", Integer.class, maxLimit),
+                environment.getProperty(prefix + "latency-threshold", Duration.class, Duration.ofMillis(250)),
+                environment.getProperty("patient.concurrency.backoff-ratio", Double.class, 0.9));
+    }
+}
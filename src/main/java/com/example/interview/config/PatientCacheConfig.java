@@ -0,0 +1,28 @@
+package com.example.interview.config;
+
+import com.example.interview.cache.RedisSharedPatientCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import java.time.Duration;
+
+/**
+ * Adds the shared second tier behind the patient lookup cache once {@code patient.lookup-cache.redis-url} is set.
+ */
+@Configuration
+@ConditionalOnProperty("patient.lookup-cache.redis-url")
+public class PatientCacheConfig {
+
+    @Bean
+    public RedisSharedPatientCache redisSharedPatientCache(
+            @Value("${patient.lookup-cache.redis-url}") String url,
+            @Value("${patient.lookup-cache.redis-timeout:50ms}") Duration timeout,
+            @Value("${patient.lookup-cache.shared-ttl:5m}") Duration ttl,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        return new RedisSharedPatientCache(url, timeout, ttl, objectMapper, meterRegistry);
+    }
+}
@@ -1,13 +1,29 @@
 package com.example.interview.controller;
 
+import com.example.interview.domain.CacheStatistics;
+import com.example.interview.domain.PatientAdmission;
+import com.example.interview.domain.PatientBulkResult;
+import com.example.interview.domain.PatientFilter;
+import com.example.interview.domain.PatientPage;
 import com.example.interview.domain.PatientRequest;
+import com.example.interview.domain.PatientSearchPage;
+import com.example.interview.domain.PatientStatistics;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.domain.PatientView;
 import com.example.interview.entity.PatientEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.InputStream;
 import java.util.List;
 
 @RequestMapping("api/patient")
@@ -16,6 +32,15 @@ public interface PatientController {
     @PostMapping(value = "/add")
     ResponseEntity<String> addPatient(@RequestBody(required = false) PatientRequest patientRequest);
 
+    @GetMapping(value = "/admissions/{trackingId}")
+    ResponseEntity<PatientAdmission> showAdmission(@PathVariable String trackingId);
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<List<PatientBulkResult>> addPatients(@RequestBody List<PatientRequest> patientRequests);
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<List<PatientBulkResult>> addPatientsNdjson(InputStream patientRequests);
+
     @PostMapping(value = "/delete")
     ResponseEntity<String> setPatientDeleted (@RequestParam(required = false) String name);
 
@@ -25,4 +50,50 @@ public interface PatientController {
 
     @GetMapping(value = "/allActive")
     ResponseEntity<List<PatientEntity>> showAllActivePatients();
+
+    @GetMapping(value = "/allActive/snapshot", produces = MediaType.APPLICATION_JSON_VALUE)
+    ResponseEntity<byte[]> showActivePatientsSnapshot(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch);
+
+    @GetMapping(value = "/allActive/page")
+    ResponseEntity<PatientPage> showActivePatientsPage(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size);
+
+    @GetMapping(value = "/filter")
+    ResponseEntity<PatientPage> filterPatients(PatientFilter filter,
+                                               @RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer size);
+
+    @GetMapping(value = "/allActive/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> streamAllActivePatients();
+
+    @GetMapping(value = "/export")
+    ResponseEntity<StreamingResponseBody> exportPatients(@RequestParam(required = false) List<PatientStatus> status,
+                                                         @RequestParam(required = false) boolean gzip);
+
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    ResponseEntity<StreamingResponseBody> importPatients(
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream csv);
+
+    @GetMapping(value = "/stats")
+    ResponseEntity<PatientStatistics> showStatistics();
+
+    @GetMapping(value = "/byName")
+    ResponseEntity<PatientView> findPatient(@RequestParam(required = false) String name,
+                                            @RequestParam(required = false) boolean includeArchived);
+
+    @GetMapping(value = "/search")
+    ResponseEntity<PatientSearchPage> searchPatients(@RequestParam(required = false) String q,
+                                                     @RequestParam(required = false) PatientStatus status,
+                                                     @RequestParam(required = false) Boolean fuzzy,
+                                                     @RequestParam(required = false) Integer offset,
+                                                     @RequestParam(required = false) Integer size);
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    ResponseEntity<SseEmitter> streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                                             @RequestParam(required = false) String since);
+
+    @GetMapping(value = "/nameCache/stats")
+    ResponseEntity<CacheStatistics> showNameCacheStatistics();
 }
@@ -1,22 +1,86 @@
 package com.example.interview.controller;
 
+import com.example.interview.cache.ActivePatientsSnapshot;
+import com.example.interview.domain.CacheStatistics;
+import com.example.interview.domain.PatientAdmission;
+import com.example.interview.domain.PatientBulkResult;
+import com.example.interview.domain.PatientCursor;
+import com.example.interview.domain.PatientFilter;
+import com.example.interview.domain.PatientImportSummary;
+import com.example.interview.domain.PatientPage;
 import com.example.interview.domain.PatientRequest;
+import com.example.interview.domain.PatientSearchPage;
+import com.example.interview.domain.PatientStatistics;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.domain.PatientView;
 import com.example.interview.entity.PatientEntity;
+import com.example.interview.exception.ConflictException;
+import com.example.interview.export.PatientCsvExporter;
 import com.example.interview.exception.ForbiddenException;
+import com.example.interview.feed.PatientChangeFeed;
+import com.example.interview.importer.PatientImporter;
+import com.example.interview.search.PatientSearchIndex;
+import com.example.interview.service.PatientAdmissionQueue;
 import com.example.interview.service.PatientService;
+import com.example.interview.service.PatientValidation;
+import com.example.interview.stats.PatientStatsRefresher;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequiredArgsConstructor
 public class PatientControllerImpl implements PatientController {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int DEFAULT_SEARCH_SIZE = 20;
+
     private final PatientService patientService;
+    private final ObjectMapper objectMapper;
+    private final ActivePatientsSnapshot activePatientsSnapshot;
+    private final PatientChangeFeed patientChangeFeed;
+    private final PatientSearchIndex patientSearchIndex;
+    private final PatientAdmissionQueue patientAdmissionQueue;
+    private final PatientCsvExporter patientCsvExporter;
+    private final PatientImporter patientImporter;
+    private final PatientStatsRefresher patientStatsRefresher;
+
+    @Value("${patient.page.max-size:1000}")
+    private int maxPageSize;
+
+    @Value("${patient.bulk.max-size:10000}")
+    private int maxBulkSize;
 
     @Override
     public ResponseEntity<String> addPatient(PatientRequest patientRequest) {
+        String rejection = PatientValidation.validateImportedPatient(patientRequest);
+        if (rejection != null) {
+            return ResponseEntity.badRequest().body(rejection);
+        }
+        if (patientAdmissionQueue.isEnabled()) {
+            return admitPatient(patientRequest);
+        }
         try {
             patientService.addPatient(patientRequest.getName(), patientRequest.getTemperature(),
                     patientRequest.getPulse(), patientRequest.getDateOfBirth());
@@ -26,6 +90,37 @@ public class PatientControllerImpl implements PatientController {
         }
     }
 
+    @Override
+    public ResponseEntity<PatientAdmission> showAdmission(String trackingId) {
+        PatientAdmission admission = patientAdmissionQueue.status(trackingId);
+        return admission == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(admission);
+    }
+
+    @Override
+    public ResponseEntity<List<PatientBulkResult>> addPatients(List<PatientRequest> patientRequests) {
+        if (patientRequests.size() > maxBulkSize) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        return ResponseEntity.ok(patientService.addPatients(patientRequests));
+    }
+
+    @Override
+    public ResponseEntity<List<PatientBulkResult>> addPatientsNdjson(InputStream patientRequests) {
+        List<PatientRequest> requests = new ArrayList<>();
+        try (MappingIterator<PatientRequest> iterator =
+                     objectMapper.readerFor(PatientRequest.class).readValues(patientRequests)) {
+            while (iterator.hasNextValue()) {
+                if (requests.size() == maxBulkSize) {
+                    return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+                }
+                requests.add(iterator.nextValue());
+            }
+        } catch (IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(patientService.addPatients(requests));
+    }
+
     @Override
     public ResponseEntity<String> setPatientDeleted(String name) {
         try {
@@ -33,17 +128,20 @@ public class PatientControllerImpl implements PatientController {
             return ResponseEntity.ok("Patient was deleted");
         } catch (ForbiddenException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         }
     }
 
     @Override
     public ResponseEntity<String> updatePatient(String oldName, PatientRequest patientRequest) {
-        System.out.println(oldName);
         try {
             patientService.updatePatient(oldName, patientRequest);
             return ResponseEntity.ok("Patient was updated");
         } catch (ForbiddenException e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        } catch (ConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
         }
     }
 
@@ -52,4 +150,185 @@ public class PatientControllerImpl implements PatientController {
         List<PatientEntity> allActivePatients = patientService.showAllActivePatients();
         return ResponseEntity.ok(allActivePatients);
     }
+
+    @Override
+    public ResponseEntity<byte[]> showActivePatientsSnapshot(String ifNoneMatch) {
+        ActivePatientsSnapshot.Snapshot snapshot = activePatientsSnapshot.get();
+        String etag = snapshot.getEtag();
+        if (etag == null) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(snapshot.getJson());
+        }
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(etag).body(snapshot.getJson());
+    }
+
+    @Override
+    public ResponseEntity<PatientPage> showActivePatientsPage(String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize <= 0 || pageSize > maxPageSize) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            PatientCursor after = cursor == null ? null : PatientCursor.decode(cursor);
+            return ResponseEntity.ok(patientService.showActivePatientsPage(after, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Override
+    public ResponseEntity<PatientPage> filterPatients(PatientFilter filter, String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize <= 0 || pageSize > maxPageSize || filter.validate() != null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            PatientCursor after = cursor == null ? null : PatientCursor.decode(cursor);
+            return ResponseEntity.ok(patientService.filterPatients(filter, after, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> streamAllActivePatients() {
+        StreamingResponseBody body = outputStream -> patientService.streamAllActivePatients(patient -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(patient));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportPatients(List<PatientStatus> status, boolean gzip) {
+        List<PatientStatus> statuses = status == null ? List.of() : status;
+        StreamingResponseBody body = outputStream -> patientCsvExporter.export(statuses, outputStream, gzip);
+        ContentDisposition attachment = ContentDisposition.attachment()
+                .filename(gzip ? "patients.csv.gz" : "patients.csv")
+                .build();
+        return ResponseEntity.ok()
+                .contentType(gzip ? PatientCsvExporter.APPLICATION_GZIP : PatientCsvExporter.TEXT_CSV)
+                .header(HttpHeaders.CONTENT_DISPOSITION, attachment.toString())
+                .body(body);
+    }
+
+    /**
+     * Rejects are spooled to a temporary file because the import has to finish, and its counts be known for the
+     * headers, before the report can be sent.
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> importPatients(String contentEncoding, InputStream csv) {
+        if (!patientImporter.isSupported()) {
+            return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED).build();
+        }
+        Path rejects = null;
+        try {
+            rejects = Files.createTempFile("patient-import-", ".csv");
+            InputStream in = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(csv, 1 << 16) : csv;
+            PatientImportSummary summary;
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8);
+                 Writer writer = Files.newBufferedWriter(rejects)) {
+                summary = patientImporter.importCsv(reader, writer);
+            }
+            Path report = rejects;
+            StreamingResponseBody body = outputStream -> {
+                try {
+                    Files.copy(report, outputStream);
+                } finally {
+                    Files.deleteIfExists(report);
+                }
+            };
+            return ResponseEntity.ok()
+                    .contentType(PatientCsvExporter.TEXT_CSV)
+                    .header("Import-Rows", Long.toString(summary.getRows()))
+                    .header("Import-Added", Long.toString(summary.getAdded()))
+                    .header("Import-Rejected", Long.toString(summary.getRejected()))
+                    .body(body);
+        } catch (IllegalArgumentException | IOException e) {
+            deleteQuietly(rejects);
+            return ResponseEntity.badRequest().build();
+        } catch (RuntimeException e) {
+            deleteQuietly(rejects);
+            throw e;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+            // the temporary directory is cleaned up eventually anyway
+        }
+    }
+
+    @Override
+    public ResponseEntity<PatientStatistics> showStatistics() {
+        return ResponseEntity.ok(patientStatsRefresher.get());
+    }
+
+    @Override
+    public ResponseEntity<PatientView> findPatient(String name, boolean includeArchived) {
+        if (name == null || name.isBlank()) {
+            return ResponseEntity.badRequest().build();
+        }
+        PatientView patient = patientService.findPatient(name, includeArchived);
+        return patient == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(patient);
+    }
+
+    @Override
+    public ResponseEntity<PatientSearchPage> searchPatients(String q, PatientStatus status, Boolean fuzzy,
+                                                            Integer offset, Integer size) {
+        int from = offset == null ? 0 : offset;
+        int pageSize = size == null ? DEFAULT_SEARCH_SIZE : size;
+        if (q == null || q.isBlank() || from < 0 || pageSize <= 0
+                || from + pageSize > patientSearchIndex.getMaxResults()) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!patientSearchIndex.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        return ResponseEntity.ok(patientSearchIndex.search(q, status, fuzzy == null || fuzzy, from, pageSize));
+    }
+
+    @Override
+    public ResponseEntity<SseEmitter> streamChanges(String lastEventId, String since) {
+        SseEmitter emitter = patientChangeFeed.subscribe(lastEventId != null ? lastEventId : since);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Write-behind admission: answers 202 with the tracking id once the request is journaled to disk and queued, and
+     * 503 while the queue is full, starting or stopping.
+     */
+    private ResponseEntity<String> admitPatient(PatientRequest patientRequest) {
+        try {
+            PatientAdmission admission = patientAdmissionQueue.admit(patientRequest);
+            if (admission == null) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                        .body("Admission queue is unavailable, retry later");
+            }
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/patient/admissions/" + admission.getTrackingId()))
+                    .body(admission.getTrackingId());
+        } catch (ForbiddenException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        }
+    }
+
+    @Override
+    public ResponseEntity<CacheStatistics> showNameCacheStatistics() {
+        return ResponseEntity.ok(patientService.nameCacheStatistics());
+    }
 }
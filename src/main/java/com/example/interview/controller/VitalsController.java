@@ -0,0 +1,31 @@
+package com.example.interview.controller;
+
+import com.example.interview.domain.VitalBucket;
+import com.example.interview.domain.VitalReading;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@RequestMapping("api/patient/vitals")
+public interface VitalsController {
+
+    @PostMapping
+    ResponseEntity<String> recordVitals(@RequestBody List<VitalReading> readings);
+
+    @GetMapping(value = "/{patientId}/latest")
+    ResponseEntity<VitalReading> showLatestVitals(@PathVariable int patientId);
+
+    @GetMapping(value = "/{patientId}")
+    ResponseEntity<List<VitalBucket>> showVitalsHistory(@PathVariable int patientId,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                        @RequestParam(defaultValue = "PT1M") Duration bucket);
+}
@@ -0,0 +1,49 @@
+package com.example.interview.controller;
+
+import com.example.interview.domain.VitalBucket;
+import com.example.interview.domain.VitalReading;
+import com.example.interview.service.VitalsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class VitalsControllerImpl implements VitalsController {
+    private final VitalsService vitalsService;
+
+    @Override
+    public ResponseEntity<String> recordVitals(List<VitalReading> readings) {
+        try {
+            int accepted = vitalsService.recordVitals(readings);
+            if (accepted < readings.size()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(String.format("Accepted %d of %d readings, retry the rest", accepted, readings.size()));
+            }
+            return ResponseEntity.accepted().body("Readings were accepted");
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @Override
+    public ResponseEntity<VitalReading> showLatestVitals(int patientId) {
+        VitalReading latest = vitalsService.latestVitals(patientId);
+        return latest == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(latest);
+    }
+
+    @Override
+    public ResponseEntity<List<VitalBucket>> showVitalsHistory(int patientId, Instant from, Instant to, Duration bucket) {
+        try {
+            return ResponseEntity.ok(vitalsService.vitalsHistory(patientId, from, to, bucket));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.interview.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Cuts a CSV stream into raw records without splitting them into fields, so that the cheap sequential part of
+ * parsing can feed the rest to other threads. A record ends at a line break outside quotes; both {@code \n} and
+ * {@code \r\n} are accepted. Blank lines are skipped.
+ */
+public class CsvRecordReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder record = new StringBuilder(128);
+    private int position;
+    private int limit;
+    private long line;
+    private long recordLine;
+
+    public CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @return the next record without its line break, or {@code null} at the end of the stream
+     */
+    public String next() throws IOException {
+        record.setLength(0);
+        boolean quoted = false;
+        recordLine = line + 1;
+        while (true) {
+            if (position == limit) {
+                limit = reader.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    if (record.isEmpty()) {
+                        return null;
+                    }
+                    line++;
+                    return record.toString();
+                }
+            }
+            char c = buffer[position++];
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == '\n') {
+                line++;
+                if (!quoted) {
+                    if (record.isEmpty()) {
+                        recordLine = line + 1;
+                        continue;
+                    }
+                    return record.toString();
+                }
+            } else if (c == '\r' && !quoted) {
+                continue;
+            }
+            record.append(c);
+        }
+    }
+
+    /**
+     * @return the 1-based line on which the record last returned by {@link #next()} starts
+     */
+    public long line() {
+        return recordLine;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.interview.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Tells whether a data source is PostgreSQL, for the statements that have a PostgreSQL-only and a portable form.
+ * The answer is looked up once per data source and shared by all threads.
+ * <p>
+ * When the database cannot be reached the answer is {@code false}, so callers take their portable path, and it is
+ * not remembered: the next call asks again. Whatever statement follows fails on the same outage anyway.
+ */
+@Slf4j
+public final class DatabaseProduct {
+    private static final String POSTGRES = "PostgreSQL";
+    private static final Cache<DataSource, Boolean> POSTGRES_BY_DATA_SOURCE = Caffeine.newBuilder()
+            .weakKeys()
+            .build();
+
+    private DatabaseProduct() {
+    }
+
+    public static boolean isPostgres(DataSource dataSource) {
+        if (dataSource == null) {
+            return false;
+        }
+        Boolean postgres = POSTGRES_BY_DATA_SOURCE.getIfPresent(dataSource);
+        if (postgres != null) {
+            return postgres;
+        }
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            postgres = POSTGRES.equals(product);
+        } catch (MetaDataAccessException e) {
+            log.warn("Could not tell the database product: {}", e.getMessage());
+            return false;
+        }
+        POSTGRES_BY_DATA_SOURCE.put(dataSource, postgres);
+        return postgres;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.interview.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override of the read routing. A request from a client that has just written is pinned to the primary
+ * so that it reads its own writes even from read-only transactions.
+ */
+public final class ReplicaRouting {
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    public static void clear() {
+        PINNED.remove();
+    }
+
+    /**
+     * Runs {@code read} pinned to the primary, for reads whose result is kept for longer than a replica may lag.
+     * A thread that was already pinned stays pinned afterwards.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (isPinnedToPrimary()) {
+            return read.get();
+        }
+        pinToPrimary();
+        try {
+            return read.get();
+        } finally {
+            clear();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.interview.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections of read-only transactions to the replicas, round-robin over those that passed their last health
+ * check, and everything else to the primary. Reads fall back to the primary when no replica is healthy or when the
+ * current thread is pinned to it by {@link ReplicaRouting}.
+ * <p>
+ * The route is decided when the physical connection is fetched, so this has to sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction manager only
+ * publishes the read-only flag after it has asked for a connection.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    public static final String PRIMARY = "primary";
+    private static final String LAG_QUERY = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() "
+            + "THEN 0 ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routed = new HashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaPools, Duration maxLag,
+                                    MeterRegistry meterRegistry) {
+        this.maxLagMillis = maxLag.toMillis();
+        this.replicas = new ArrayList<>(replicaPools.size());
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        routed.put(PRIMARY, routeCounter(PRIMARY, meterRegistry));
+        for (HikariDataSource pool : replicaPools) {
+            Replica replica = new Replica(pool.getPoolName(), pool);
+            replicas.add(replica);
+            targets.put(replica.name, pool);
+            routed.put(replica.name, routeCounter(replica.name, meterRegistry));
+            Gauge.builder("patient.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("Whether the replica passed its last health check")
+                    .tag("route", replica.name)
+                    .register(meterRegistry);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String route = route();
+        routed.get(route).increment();
+        return route;
+    }
+
+    private String route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || ReplicaRouting.isPinnedToPrimary()) {
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.name;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Takes a replica out of rotation while it is unreachable or, on PostgreSQL, while its replay lags the primary
+     * by more than {@code patient.datasource.replica-max-lag}.
+     */
+    @Scheduled(fixedDelayString = "${patient.datasource.replica-health-interval-millis:5000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy = isHealthy(replica);
+            if (healthy != replica.healthy) {
+                log.warn("Replica {} is now {}", replica.name, healthy ? "healthy" : "out of rotation");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private boolean isHealthy(Replica replica) {
+        try (Connection connection = replica.pool.getConnection()) {
+            if (!connection.isValid(1)) {
+                return false;
+            }
+            if (!"PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())) {
+                return true;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet lag = statement.executeQuery(LAG_QUERY)) {
+                double lagSeconds = lag.next() ? lag.getDouble(1) : 0;
+                if (lagSeconds * 1000 > maxLagMillis) {
+                    log.debug("Replica {} lags by {} s", replica.name, lagSeconds);
+                    return false;
+                }
+                return true;
+            }
+        } catch (SQLException e) {
+            log.debug("Health check of replica {} failed: {}", replica.name, e.getMessage());
+            return false;
+        }
+    }
+
+    private static Counter routeCounter(String route, MeterRegistry meterRegistry) {
+        return Counter.builder("patient.datasource.route")
+                .description("Connections handed out per route")
+                .tag("route", route)
+                .register(meterRegistry);
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final HikariDataSource pool;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, HikariDataSource pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.interview.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class CacheStatistics {
+    private final long hits;
+    private final long misses;
+    private final double hitRate;
+    private final long evictions;
+    private final long size;
+}
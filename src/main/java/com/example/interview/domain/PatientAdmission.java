@@ -0,0 +1,31 @@
+package com.example.interview.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Fate of an admission accepted by the write-behind queue, looked up by its tracking id.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PatientAdmission {
+    public enum State {
+        PENDING, ADDED, REJECTED
+    }
+
+    private final String trackingId;
+    private final String name;
+    private final State state;
+    private final String message;
+
+    public static PatientAdmission pending(String trackingId, String name) {
+        return new PatientAdmission(trackingId, name, State.PENDING, null);
+    }
+
+    public static PatientAdmission of(String trackingId, PatientBulkResult result) {
+        return new PatientAdmission(trackingId, result.getName(),
+                result.isAdded() ? State.ADDED : State.REJECTED, result.isAdded() ? null : result.getMessage());
+    }
+}
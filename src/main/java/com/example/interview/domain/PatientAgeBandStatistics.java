@@ -0,0 +1,17 @@
+package com.example.interview.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PatientAgeBandStatistics {
+    private final String band;
+    private final long patients;
+    private final long withFever;
+    private final double feverPrevalence;
+    private final long pulseBelow60;
+    private final long pulse60To100;
+    private final long pulseAbove100;
+    private final Double averagePulse;
+}
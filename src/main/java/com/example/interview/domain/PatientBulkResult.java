@@ -0,0 +1,21 @@
+package com.example.interview.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PatientBulkResult {
+    private final int index;
+    private final String name;
+    private final boolean added;
+    private final String message;
+
+    public static PatientBulkResult added(int index, String name) {
+        return new PatientBulkResult(index, name, true, "Patient was added");
+    }
+
+    public static PatientBulkResult rejected(int index, String name, String message) {
+        return new PatientBulkResult(index, name, false, message);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.interview.domain;
+
+import com.example.interview.event.PatientChangeType;
+import com.example.interview.event.PatientChangedEvent;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.time.LocalDate;
+
+/**
+ * One entry of the change feed. Only the fields carried by the underlying event are present, so an update
+ * of a single field stays a few dozen bytes on the wire.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PatientChange {
+    private final long sequence;
+    private final PatientChangeType type;
+    private final Integer id;
+    private final String name;
+    private final String previousName;
+    private final Double temperature;
+    private final Double pulse;
+    private final LocalDate dateOfBirth;
+    private final PatientStatus status;
+    private final Integer version;
+
+    public static PatientChange of(long sequence, PatientChangedEvent event) {
+        return new PatientChange(sequence, event.getType(), event.getId(), event.getName(), event.getPreviousName(),
+                event.getTemperature(), event.getPulse(), event.getDateOfBirth(), event.getStatus(),
+                event.getVersion());
+    }
+
+    /**
+     * A marker telling subscribers that changes they cannot be told about one by one happened here, so they should
+     * reload; it carries no type.
+     */
+    public static PatientChange reset(long sequence) {
+        return new PatientChange(sequence, null, null, null, null, null, null, null, null, null);
+    }
+
+    @JsonIgnore
+    public boolean isReset() {
+        return type == null;
+    }
+}
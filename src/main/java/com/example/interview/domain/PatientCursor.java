@@ -0,0 +1,39 @@
+package com.example.interview.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Getter
+@AllArgsConstructor
+public class PatientCursor {
+    private static final char SEPARATOR = ':';
+
+    private final String name;
+    private final Integer id;
+
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static PatientCursor decode(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor " + cursor);
+        }
+        int separator = raw.indexOf(SEPARATOR);
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Malformed cursor " + cursor);
+        }
+        try {
+            Integer id = Integer.valueOf(raw.substring(0, separator));
+            return new PatientCursor(raw.substring(separator + 1), id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor " + cursor);
+        }
+    }
+}
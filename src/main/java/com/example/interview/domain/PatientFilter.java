@@ -0,0 +1,44 @@
+package com.example.interview.domain;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+import java.time.LocalDate;
+
+/**
+ * Optional, inclusive bounds on the vitals and date of birth of patients. With {@code pulseOutside} set the pulse
+ * bounds select the patients outside of the range instead of inside it.
+ */
+@Getter
+@Setter
+public class PatientFilter {
+    private PatientStatus status;
+    private Double minTemperature;
+    private Double maxTemperature;
+    private Double minPulse;
+    private Double maxPulse;
+    private boolean pulseOutside;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate bornAfter;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate bornBefore;
+
+    /**
+     * @return the rejection message, or {@code null} when the bounds are consistent
+     */
+    public String validate() {
+        if (minTemperature != null && maxTemperature != null && minTemperature > maxTemperature) {
+            return "minTemperature is greater than maxTemperature";
+        }
+        if (minPulse != null && maxPulse != null && minPulse > maxPulse) {
+            return "minPulse is greater than maxPulse";
+        }
+        if (pulseOutside && minPulse == null && maxPulse == null) {
+            return "pulseOutside needs minPulse or maxPulse";
+        }
+        if (bornAfter != null && bornBefore != null && bornAfter.isAfter(bornBefore)) {
+            return "bornAfter is later than bornBefore";
+        }
+        return null;
+    }
+}
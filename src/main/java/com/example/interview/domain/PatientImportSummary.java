@@ -0,0 +1,12 @@
+package com.example.interview.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PatientImportSummary {
+    private final long rows;
+    private final long added;
+    private final long rejected;
+}
@@ -0,0 +1,23 @@
+package com.example.interview.domain;
+
+import com.example.interview.entity.PatientEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PatientKey {
+    public static final PatientKey ABSENT = new PatientKey(null, null, null);
+
+    private final Integer id;
+    private final PatientStatus status;
+    private final Integer version;
+
+    public boolean exists() {
+        return this != ABSENT;
+    }
+
+    public static PatientKey of(PatientEntity patient) {
+        return patient == null ? ABSENT : new PatientKey(patient.getId(), patient.getStatus(), patient.getVersion());
+    }
+}
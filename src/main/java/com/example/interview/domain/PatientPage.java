@@ -0,0 +1,13 @@
+package com.example.interview.domain;
+
+import com.example.interview.entity.PatientEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class PatientPage {
+    private final List<PatientEntity> items;
+    private final String next;
+}
@@ -11,4 +11,5 @@ public class PatientRequest {
     private Double temperature;
     private Double pulse;
     private LocalDate dateOfBirth;
+    private Integer version;
 }
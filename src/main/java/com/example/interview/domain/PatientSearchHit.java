@@ -0,0 +1,16 @@
+package com.example.interview.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PatientSearchHit {
+    private final Integer id;
+    private final String name;
+    private final PatientStatus status;
+    /**
+     * Edit distance between the query and the closest prefix of the name, {@code 0} for a prefix match.
+     */
+    private final int distance;
+}
@@ -0,0 +1,15 @@
+package com.example.interview.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class PatientSearchPage {
+    private final List<PatientSearchHit> items;
+    /**
+     * Offset of the next page, {@code null} on the last one.
+     */
+    private final Integer next;
+}
@@ -0,0 +1,21 @@
+package com.example.interview.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Counts over the whole patients table as of {@code refreshedAt}. Fever and pulse figures cover active patients
+ * only.
+ */
+@Getter
+@AllArgsConstructor
+public class PatientStatistics {
+    private final Instant refreshedAt;
+    private final long active;
+    private final long deleted;
+    private final long withFever;
+    private final double feverPrevalence;
+    private final List<PatientAgeBandStatistics> ageBands;
+}
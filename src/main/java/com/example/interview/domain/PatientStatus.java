@@ -2,5 +2,9 @@ package com.example.interview.domain;
 
 public enum PatientStatus {
     DELETED,
-    ACTIVE
+    ACTIVE,
+    /**
+     * Moved to {@code patients_archive}, never stored in {@code patients}.
+     */
+    ARCHIVED
 }
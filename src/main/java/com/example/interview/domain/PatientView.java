@@ -0,0 +1,20 @@
+package com.example.interview.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of a patient row, built straight from the query result without a managed entity.
+ */
+@Getter
+@AllArgsConstructor
+public class PatientView {
+    private final Integer id;
+    private final String name;
+    private final Double temperature;
+    private final Double pulse;
+    private final LocalDate dateOfBirth;
+    private final PatientStatus status;
+    private final Integer version;
+}
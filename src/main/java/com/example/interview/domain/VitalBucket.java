@@ -0,0 +1,18 @@
+package com.example.interview.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor
+public class VitalBucket {
+    private final Instant bucketStart;
+    private final long readings;
+    private final Double minTemperature;
+    private final Double maxTemperature;
+    private final Double avgTemperature;
+    private final Double minPulse;
+    private final Double maxPulse;
+    private final Double avgPulse;
+}
@@ -0,0 +1,18 @@
+package com.example.interview.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VitalReading {
+    private Integer patientId;
+    private Instant measuredAt;
+    private Double temperature;
+    private Double pulse;
+}
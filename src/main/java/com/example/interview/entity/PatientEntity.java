@@ -1,6 +1,7 @@
 package com.example.interview.entity;
 
 import com.example.interview.domain.PatientStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
@@ -8,10 +9,13 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.Objects;
 
@@ -21,8 +25,12 @@ import java.util.Objects;
 @NoArgsConstructor
 @Table(name = "patients")
 public class PatientEntity {
+    public static final String ID_SEQUENCE = "patients_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Integer id;
 
     @Column(nullable = false, unique = true)
@@ -41,6 +49,14 @@ public class PatientEntity {
     @Enumerated(EnumType.STRING)
     private PatientStatus status;
 
+    @Version
+    @Column(nullable = false)
+    private Integer version;
+
+    @Column()
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Instant deletedAt;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,8 @@
+package com.example.interview.event;
+
+public enum PatientChangeType {
+    ADDED,
+    UPDATED,
+    DELETED,
+    ARCHIVED
+}
@@ -0,0 +1,47 @@
+package com.example.interview.event;
+
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.entity.PatientEntity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.time.LocalDate;
+
+/**
+ * Published by the patient service for every mutation and delivered to listeners after commit. Added patients
+ * carry every field; updates carry only the fields that changed and leave the rest {@code null}.
+ */
+@Getter
+@AllArgsConstructor
+public class PatientChangedEvent {
+    private final PatientChangeType type;
+    private final Integer id;
+    private final String name;
+    private final String previousName;
+    private final Double temperature;
+    private final Double pulse;
+    private final LocalDate dateOfBirth;
+    private final PatientStatus status;
+    private final Integer version;
+
+    public static PatientChangedEvent added(PatientEntity patient) {
+        return new PatientChangedEvent(PatientChangeType.ADDED, patient.getId(), patient.getName(), null,
+                patient.getTemperature(), patient.getPulse(), patient.getDateOfBirth(), patient.getStatus(),
+                patient.getVersion());
+    }
+
+    public static PatientChangedEvent updated(Integer id, String name, String previousName, Double temperature,
+                                              Double pulse, LocalDate dateOfBirth, Integer version) {
+        return new PatientChangedEvent(PatientChangeType.UPDATED, id, name, previousName, temperature, pulse,
+                dateOfBirth, null, version);
+    }
+
+    public static PatientChangedEvent deleted(Integer id, String name) {
+        return new PatientChangedEvent(PatientChangeType.DELETED, id, name, null, null, null, null,
+                PatientStatus.DELETED, null);
+    }
+
+    public static PatientChangedEvent archived(Integer id, String name) {
+        return new PatientChangedEvent(PatientChangeType.ARCHIVED, id, name, null, null, null, null,
+                PatientStatus.ARCHIVED, null);
+    }
+}
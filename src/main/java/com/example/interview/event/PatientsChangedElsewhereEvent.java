@@ -0,0 +1,20 @@
+package com.example.interview.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.List;
+
+/**
+ * Published when another instance reports committed changes over the cache invalidation channel, so that what is
+ * kept in memory besides the caches can catch up. It names the changed patients, or none when anything may have
+ * changed: after a bulk import elsewhere, or after the channel was down and notifications may have been lost.
+ */
+@Getter
+@AllArgsConstructor
+public class PatientsChangedElsewhereEvent {
+    private final List<String> names;
+
+    public boolean isEverything() {
+        return names.isEmpty();
+    }
+}
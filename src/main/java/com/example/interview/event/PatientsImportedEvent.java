@@ -0,0 +1,14 @@
+package com.example.interview.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published once per committed bulk import in place of a {@link PatientChangedEvent} per added patient, which at
+ * millions of rows would cost more than reloading whatever is kept in memory.
+ */
+@Getter
+@AllArgsConstructor
+public class PatientsImportedEvent {
+    private final long added;
+}
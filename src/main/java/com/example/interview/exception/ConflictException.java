@@ -0,0 +1,12 @@
+package com.example.interview.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+
+    public static ConflictException concurrentUpdate(String name) {
+        String message = String.format("Patient %s was modified concurrently, reload it and retry", name);
+        return new ConflictException(message);
+    }
+}
@@ -1,21 +1,70 @@
 package com.example.interview.exception;
 
+/**
+ * Expected business rejection. Rejections are a large share of traffic, so the exception carries no stack trace
+ * and its message is only formatted when someone reads it.
+ */
 public class ForbiddenException extends RuntimeException {
+    public enum Reason {
+        NOT_UNIQ_NAME("Patient with name ", " already exists"),
+        PATIENT_NOT_FOUND("Patient with name ", " doesn't exist"),
+        ALREADY_DELETED("Patient ", " has already been deleted ");
+
+        private final String prefix;
+        private final String suffix;
+
+        Reason(String prefix, String suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        String format(String name) {
+            return prefix + name + suffix;
+        }
+    }
+
+    private final Reason reason;
+    private final String name;
+    private String message;
+
     public ForbiddenException(String message) {
-        super(message);
+        super(message, null, false, false);
+        this.reason = null;
+        this.name = null;
+        this.message = message;
+    }
+
+    private ForbiddenException(Reason reason, String name) {
+        super(null, null, false, false);
+        this.reason = reason;
+        this.name = name;
     }
 
     public static ForbiddenException notUniqName(String name) {
-        String message = String.format("Patient with name %s already exists", name);
-        return new ForbiddenException(message);
+        return new ForbiddenException(Reason.NOT_UNIQ_NAME, name);
     }
 
     public static ForbiddenException patientNotFound(String name) {
-        String message = String.format("Patient with name %s doesn't exist", name);
-        return new ForbiddenException(message);
+        return new ForbiddenException(Reason.PATIENT_NOT_FOUND, name);
     }
 
     public static ForbiddenException alreadyDeleted(String name) {
-        String message = String.format("Patient %s has already been deleted ", name);
-        return new ForbiddenException(message);
-    }}
+        return new ForbiddenException(Reason.ALREADY_DELETED, name);
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getMessage() {
+        if (message == null && reason != null) {
+            message = reason.format(name);
+        }
+        return message;
+    }
+}
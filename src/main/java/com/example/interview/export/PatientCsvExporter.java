@@ -0,0 +1,105 @@
+package com.example.interview.export;
+
+import com.example.interview.csv.CsvFields;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.repository.PatientJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the patients table as CSV straight from a server-side cursor. Every column is copied as the text the
+ * driver already holds, so no entity or boxed value is built per row, and memory stays at one fetch of rows plus
+ * fixed-size write buffers however large the table is. Gzip runs at the fastest level so that compression does not
+ * become the bottleneck ahead of the disk or network.
+ */
+@Slf4j
+@Component
+public class PatientCsvExporter {
+    public static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    public static final MediaType APPLICATION_GZIP = new MediaType("application", "gzip");
+    static final String HEADER = "id,name,temperature,pulse,date_of_birth,status,version,deleted_at\n";
+    private static final int COLUMNS = 8;
+
+    private final PatientJdbcRepository patientJdbcRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int bufferSize;
+
+    public PatientCsvExporter(PatientJdbcRepository patientJdbcRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${patient.export.buffer-size:64KB}") DataSize bufferSize) {
+        this.patientJdbcRepository = patientJdbcRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.bufferSize = (int) bufferSize.toBytes();
+    }
+
+    /**
+     * Exports the patients with the given statuses, or all of them when none are given. The stream is flushed but
+     * left open.
+     *
+     * @return the number of exported patients
+     */
+    public long export(Collection<PatientStatus> statuses, OutputStream out, boolean gzip) throws IOException {
+        long started = System.nanoTime();
+        GZIPOutputStream compressed = gzip ? new FastGzipOutputStream(out, bufferSize) : null;
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(gzip ? compressed : out, StandardCharsets.UTF_8), bufferSize);
+        AtomicLong rows = new AtomicLong();
+        writer.write(HEADER);
+        try {
+            readOnlyTransaction.executeWithoutResult(transaction ->
+                    patientJdbcRepository.exportRows(statuses, resultSet -> {
+                        writeRow(writer, resultSet);
+                        rows.incrementAndGet();
+                    }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        if (gzip) {
+            compressed.finish();
+        }
+        out.flush();
+        log.info("Exported {} patients in {} ms", rows.get(), (System.nanoTime() - started) / 1_000_000);
+        return rows.get();
+    }
+
+    private static void writeRow(Writer writer, ResultSet resultSet) throws SQLException {
+        try {
+            for (int column = 1; column <= COLUMNS; column++) {
+                if (column > 1) {
+                    writer.write(',');
+                }
+                CsvFields.write(writer, resultSet.getString(column));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static final class FastGzipOutputStream extends GZIPOutputStream {
+        private FastGzipOutputStream(OutputStream out, int size) throws IOException {
+            super(out, size);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.interview.export;
+
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.repository.PatientJdbcRepository;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exports the patients table as CSV and exits, e.g.
+ * {@code java -jar interview.jar export --patient.export.output=patients.csv.gz --patient.export.statuses=ACTIVE}.
+ * The file is gzipped when its name ends in {@code .gz} unless {@code patient.export.gzip} says otherwise, and an
+ * output of {@code -} writes to standard output with console logging switched off. Point
+ * {@code spring.datasource.url} at a replica to keep the export off the primary.
+ * <p>
+ * Like the {@code migrate} command, the context holds only JDBC and is not AOT-processed.
+ */
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, JdbcTemplateAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class})
+@Import({PatientJdbcRepository.class, PatientCsvExporter.class})
+public class PatientExport {
+    public static final String COMMAND = "export";
+    private static final String TO_STANDARD_OUTPUT = "--patient.export.output=-";
+
+    public static void main(String[] args) throws IOException {
+        String[] arguments = args;
+        if (Arrays.asList(args).contains(TO_STANDARD_OUTPUT)) {
+            arguments = Arrays.copyOf(args, args.length + 1);
+            arguments[args.length] = "--logging.threshold.console=OFF";
+        }
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PatientExport.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(arguments)) {
+            Environment environment = context.getEnvironment();
+            String output = environment.getRequiredProperty("patient.export.output");
+            List<PatientStatus> statuses = Arrays.asList(environment.getProperty("patient.export.statuses",
+                    PatientStatus[].class, new PatientStatus[0]));
+            boolean gzip = environment.getProperty("patient.export.gzip", Boolean.class, output.endsWith(".gz"));
+            PatientCsvExporter exporter = context.getBean(PatientCsvExporter.class);
+            if ("-".equals(output)) {
+                exporter.export(statuses, System.out, gzip);
+                return;
+            }
+            try (OutputStream out = Files.newOutputStream(Path.of(output))) {
+                exporter.export(statuses, out, gzip);
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.example.interview.feed;
+
+import com.example.interview.domain.PatientChange;
+import com.example.interview.event.PatientChangedEvent;
+import com.example.interview.event.PatientsChangedElsewhereEvent;
+import com.example.interview.event.PatientsImportedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-sent event stream of committed patient changes. Every subscriber is drained from the shared
+ * {@link PatientChangeLog} by a dispatcher pool, at most one task per subscriber at a time, so writers never
+ * block on a slow client. A send blocks while the client's socket buffer is full, so the pool grows past its core
+ * threads instead of queueing, and a slow client only ties up its own thread. A subscriber whose send has been
+ * blocked for longer than {@code patient.changes.send-timeout} is dropped; it resumes from its last event id when
+ * it reconnects.
+ * <p>
+ * A subscriber without a usable {@code Last-Event-ID}, or one that fell further behind than the ring holds,
+ * receives a {@value #RESET_EVENT} event carrying the current resume token: it should reload the active list
+ * and apply the changes that follow. A bulk import is announced the same way, in order with the changes around it.
+ * <p>
+ * Changes committed on other instances are not in this instance's log. When the cache invalidation channel reports
+ * some, a reset is appended to the log within {@code patient.changes.remote-reset-millis}, one per interval however
+ * many arrive, and every subscriber receives it in order with the changes around it.
+ */
+@Slf4j
+@Component
+public class PatientChangeFeed implements MeterBinder {
+    static final String RESET_EVENT = "reset";
+    private static final int DRAIN_BATCH = 256;
+
+    private final PatientChangeLog changeLog;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final long sendTimeoutNanos;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService dispatcher;
+    private final AtomicBoolean changedElsewhere = new AtomicBoolean();
+
+    public PatientChangeFeed(PatientChangeLog changeLog,
+                             @Value("${patient.changes.max-subscribers:1000}") int maxSubscribers,
+                             @Value("${patient.changes.timeout:30m}") Duration timeout,
+                             @Value("${patient.changes.dispatch-threads:4}") int dispatchThreads,
+                             @Value("${patient.changes.send-timeout:5s}") Duration sendTimeout) {
+        this.changeLog = changeLog;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("patient-changes-");
+        threadFactory.setDaemon(true);
+        this.dispatcher = new ThreadPoolExecutor(dispatchThreads, Math.max(dispatchThreads, maxSubscribers),
+                60, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+    }
+
+    /**
+     * @return the emitter streaming changes after {@code lastEventId}, or {@code null} when the subscriber limit
+     * is reached
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        long after = changeLog.parseToken(lastEventId);
+        Subscriber subscriber = new Subscriber(emitter, after > changeLog.currentSequence() ? -1 : after);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        changeLog.append(event);
+        subscribers.forEach(this::schedule);
+    }
+
+    /**
+     * An import is not followed change by change, so subscribers are told to reload right where it committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientsImported(PatientsImportedEvent event) {
+        if (event.getAdded() > 0) {
+            changeLog.appendReset();
+            subscribers.forEach(this::schedule);
+        }
+    }
+
+    @EventListener
+    public void onPatientsChangedElsewhere(PatientsChangedElsewhereEvent event) {
+        changedElsewhere.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${patient.changes.remote-reset-millis:1000}")
+    public void resetChangedElsewhere() {
+        if (changedElsewhere.getAndSet(false)) {
+            changeLog.appendReset();
+            subscribers.forEach(this::schedule);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${patient.changes.heartbeat-millis:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    /**
+     * Drops subscribers stuck in a send so they get no further work. The emitter cannot be completed from here,
+     * since that waits for the blocked send; the send either fails on the container's write timeout or, should the
+     * client catch up, finds its subscriber dropped, and the stream is closed then.
+     */
+    @Scheduled(fixedDelayString = "${patient.changes.stall-check-millis:1000}")
+    public void dropStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long since = subscriber.sendingSince;
+            if (since != 0 && now - since > sendTimeoutNanos && subscribers.remove(subscriber)) {
+                log.debug("Dropping change feed subscriber blocked in a send for over {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("patient.changes.subscribers", subscribers, Set::size).register(registry);
+        Gauge.builder("patient.changes.sequence", changeLog, PatientChangeLog::currentSequence).register(registry);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            do {
+                send(subscriber);
+                subscriber.scheduled.set(false);
+            } while (subscriber.hasPending(changeLog.currentSequence())
+                    && subscriber.scheduled.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping change feed subscriber: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private void send(Subscriber subscriber) throws IOException {
+        while (subscriber.lastSent < changeLog.currentSequence()) {
+            List<PatientChange> changes = changeLog.changesAfter(subscriber.lastSent, DRAIN_BATCH);
+            if (changes == null) {
+                long current = changeLog.currentSequence();
+                sendReset(subscriber, current);
+                subscriber.lastSent = current;
+                continue;
+            }
+            for (PatientChange change : changes) {
+                if (change.isReset()) {
+                    sendReset(subscriber, change.getSequence());
+                } else {
+                    send(subscriber, SseEmitter.event().id(changeLog.token(change.getSequence()))
+                            .data(change, MediaType.APPLICATION_JSON));
+                }
+                subscriber.lastSent = change.getSequence();
+            }
+        }
+        if (subscriber.heartbeatDue) {
+            subscriber.heartbeatDue = false;
+            send(subscriber, SseEmitter.event().comment("heartbeat"));
+        }
+    }
+
+    private void sendReset(Subscriber subscriber, long sequence) throws IOException {
+        send(subscriber, SseEmitter.event().name(RESET_EVENT).id(changeLog.token(sequence))
+                .data(Map.of("sequence", sequence), MediaType.APPLICATION_JSON));
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        if (!subscribers.contains(subscriber)) {
+            throw new IllegalStateException("Subscriber was dropped after a stalled send");
+        }
+        subscriber.sendingSince = System.nanoTime();
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            subscriber.sendingSince = 0;
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private volatile long sendingSince;
+        private long lastSent;
+
+        private Subscriber(SseEmitter emitter, long lastSent) {
+            this.emitter = emitter;
+            this.lastSent = lastSent;
+        }
+
+        private boolean hasPending(long currentSequence) {
+            return lastSent < currentSequence || heartbeatDue;
+        }
+    }
+}
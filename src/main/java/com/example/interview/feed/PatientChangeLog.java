@@ -0,0 +1,77 @@
+package com.example.interview.feed;
+
+import com.example.interview.domain.PatientChange;
+import com.example.interview.event.PatientChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Numbers committed patient changes and keeps the most recent ones in a fixed-size ring for catch-up.
+ * Sequences restart with the process, so resume tokens are prefixed with an epoch and tokens of an earlier
+ * process are treated as unknown.
+ */
+@Component
+public class PatientChangeLog {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final PatientChange[] ring;
+    private long sequence;
+
+    public PatientChangeLog(@Value("${patient.changes.buffer-size:10000}") int capacity) {
+        this.ring = new PatientChange[capacity];
+    }
+
+    public synchronized PatientChange append(PatientChangedEvent event) {
+        PatientChange change = PatientChange.of(++sequence, event);
+        ring[(int) (sequence % ring.length)] = change;
+        return change;
+    }
+
+    /**
+     * Appends a {@link PatientChange#reset(long)} marker in place of changes that are not known one by one.
+     */
+    public synchronized PatientChange appendReset() {
+        PatientChange change = PatientChange.reset(++sequence);
+        ring[(int) (sequence % ring.length)] = change;
+        return change;
+    }
+
+    public synchronized long currentSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return up to {@code max} changes following {@code after}, or {@code null} when the caller cannot catch up
+     * from the ring because {@code after} is unknown or some of the following changes were already overwritten
+     */
+    public synchronized List<PatientChange> changesAfter(long after, int max) {
+        if (after < 0 || after > sequence || after < sequence - ring.length) {
+            return null;
+        }
+        long last = Math.min(sequence, after + max);
+        List<PatientChange> changes = new ArrayList<>((int) (last - after));
+        for (long s = after + 1; s <= last; s++) {
+            changes.add(ring[(int) (s % ring.length)]);
+        }
+        return changes;
+    }
+
+    public String token(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    /**
+     * @return the sequence encoded in a token of this process, or {@code -1} for a missing, malformed or stale one
+     */
+    public long parseToken(String token) {
+        if (token == null || !token.startsWith(epoch + "-")) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(token.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.interview.filter;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrency limit that finds its own level by additive increase and multiplicative decrease. Every
+ * {@code limit} requests that finish within the latency threshold while the limit was in use raise it by one;
+ * a request that is slower or fails cuts it by the backoff ratio. Only requests started after the last cut can
+ * cut it again, so a batch of slow requests that were in flight together counts once.
+ * <p>
+ * All state is in atomics; acquiring and releasing are a few compare-and-sets and never block.
+ */
+public class AdaptiveConcurrencyLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger limit;
+    private final AtomicInteger successes = new AtomicInteger();
+    private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime());
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold,
+                                    double backoffRatio) {
+        if (minLimit < 1 || maxLimit < minLimit || backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max and the backoff be in (0, 1)");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.limit = new AtomicInteger(Math.max(minLimit, Math.min(maxLimit, initialLimit)));
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a permit and adjusts the limit by how the request went.
+     *
+     * @param startNanos {@link System#nanoTime()} when the request was admitted
+     * @param failed     whether the request failed in a way that suggests overload
+     */
+    public void release(long startNanos, boolean failed) {
+        int wasInFlight = inFlight.getAndDecrement();
+        long now = System.nanoTime();
+        int current = limit.get();
+        if (failed || now - startNanos > latencyThresholdNanos) {
+            long last = lastDecrease.get();
+            if (startNanos - last > 0 && lastDecrease.compareAndSet(last, now)) {
+                limit.set(Math.max(minLimit, (int) (current * backoffRatio)));
+                successes.set(0);
+            }
+        } else if (wasInFlight * 2 >= current && successes.incrementAndGet() >= current) {
+            successes.set(0);
+            limit.compareAndSet(current, Math.min(maxLimit, current + 1));
+        }
+    }
+
+    /**
+     * Releases a permit without a sample, for requests whose duration says nothing about load.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit.get();
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
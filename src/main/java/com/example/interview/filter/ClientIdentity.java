@@ -0,0 +1,60 @@
+package com.example.interview.filter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.security.Principal;
+import java.util.regex.Pattern;
+
+/**
+ * Tells API clients apart for rate limiting and read-your-writes pinning. An authenticated client is known by its
+ * principal and any other client by its address, which a client cannot choose the way it chooses a header.
+ * <p>
+ * Behind a proxy every request comes from the proxy's address. Either set {@code server.forward-headers-strategy}
+ * so that the container resolves the client's address, or list the proxies in {@code trustedProxies}: requests
+ * from them are told apart by the {@value #HEADER} header when it is set, and otherwise by the last address in
+ * {@code X-Forwarded-For} that is not itself a trusted proxy. Requests from anywhere else have both headers ignored.
+ */
+public final class ClientIdentity {
+    public static final String HEADER = "X-Client-Id";
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+
+    private final Pattern trustedProxies;
+
+    /**
+     * @param trustedProxies regular expression matching the addresses of trusted proxies, or blank for none
+     */
+    public ClientIdentity(String trustedProxies) {
+        this.trustedProxies = trustedProxies == null || trustedProxies.isBlank()
+                ? null
+                : Pattern.compile(trustedProxies);
+    }
+
+    public String of(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        String address = request.getRemoteAddr();
+        if (!isTrustedProxy(address)) {
+            return address;
+        }
+        String clientId = request.getHeader(HEADER);
+        if (clientId != null && !clientId.isBlank()) {
+            return "client:" + clientId;
+        }
+        String forwardedFor = request.getHeader(FORWARDED_FOR);
+        if (forwardedFor != null) {
+            String[] hops = forwardedFor.split(",");
+            for (int i = hops.length - 1; i >= 0; i--) {
+                String hop = hops[i].trim();
+                if (!hop.isEmpty() && !isTrustedProxy(hop)) {
+                    return hop;
+                }
+            }
+        }
+        return address;
+    }
+
+    private boolean isTrustedProxy(String address) {
+        return trustedProxies != null && address != null && trustedProxies.matcher(address).matches();
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.interview.filter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Caps the patient requests in flight with separate {@link AdaptiveConcurrencyLimit}s for reads and writes, so a
+ * flood of writes only uses up the write limit and never the connections that reads need. The limits of the pools
+ * whose requests use a connection add up to at most the connection pool, which {@code FilterConfig} checks at
+ * startup, so excess requests wait here cheaply, or not at all, instead of inside Hikari.
+ * <p>
+ * Long-lived responses, such as exports and the change feed, can be routed by path to pools of their own, so that
+ * they never take the permits of short reads. A request over its limit is rejected with 503 and
+ * {@code Retry-After} at once, or once the acquire timeout passes when one is set. Requests that go asynchronous
+ * hold their permit until the response completes, but give it back without adjusting the limit, since a stream's
+ * duration says nothing about load.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter implements MeterBinder {
+    private static final long RETRY_NANOS = 100_000;
+
+    private final Pool reads;
+    private final Pool writes;
+    private final long acquireTimeoutNanos;
+    private final List<Pool> pools = new ArrayList<>();
+    private final Map<String, Pool> routes = new HashMap<>();
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimit reads, AdaptiveConcurrencyLimit writes,
+                                  Duration acquireTimeout) {
+        this.reads = addPool("read", reads);
+        this.writes = addPool("write", writes);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+
+    /**
+     * Sends requests for the given paths, relative to the context path, to a pool of their own instead of the read
+     * or write pool. Meant to be called while the filter is set up, before it serves requests.
+     */
+    public ConcurrencyLimitFilter route(String pool, AdaptiveConcurrencyLimit limit, String... paths) {
+        Pool routed = addPool(pool, limit);
+        for (String path : paths) {
+            routes.put(path, routed);
+        }
+        return this;
+    }
+
+    private Pool addPool(String name, AdaptiveConcurrencyLimit limit) {
+        Pool pool = new Pool(name, limit);
+        pools.add(pool);
+        return pool;
+    }
+
+    static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        return "GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Pool pool = poolOf(request);
+        AdaptiveConcurrencyLimit limit = pool.limit;
+        if (!acquire(limit)) {
+            pool.rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+        long start = System.nanoTime();
+        boolean failed = true;
+        boolean released = false;
+        try {
+            filterChain.doFilter(request, response);
+            failed = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(limit));
+                released = true;
+            }
+        } finally {
+            if (!released) {
+                limit.release(start, failed);
+            }
+        }
+    }
+
+    private Pool poolOf(HttpServletRequest request) {
+        if (!routes.isEmpty()) {
+            Pool routed = routes.get(request.getRequestURI().substring(request.getContextPath().length()));
+            if (routed != null) {
+                return routed;
+            }
+        }
+        return isRead(request) ? reads : writes;
+    }
+
+    private boolean acquire(AdaptiveConcurrencyLimit limit) {
+        if (limit.tryAcquire()) {
+            return true;
+        }
+        if (acquireTimeoutNanos <= 0) {
+            return false;
+        }
+        long deadline = System.nanoTime() + acquireTimeoutNanos;
+        while (deadline - System.nanoTime() > 0) {
+            LockSupport.parkNanos(this, RETRY_NANOS);
+            if (limit.tryAcquire()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Pool pool : pools) {
+            Gauge.builder("patient.concurrency.limit", pool.limit, AdaptiveConcurrencyLimit::getLimit)
+                    .tag("pool", pool.name)
+                    .register(registry);
+            Gauge.builder("patient.concurrency.in-flight", pool.limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .tag("pool", pool.name)
+                    .register(registry);
+            FunctionCounter.builder("patient.concurrency.rejected", pool.rejected, LongAdder::sum)
+                    .tag("pool", pool.name)
+                    .description("Requests rejected with 503 because their pool was at its limit")
+                    .register(registry);
+        }
+    }
+
+    private static final class Pool {
+        private final String name;
+        private final AdaptiveConcurrencyLimit limit;
+        private final LongAdder rejected = new LongAdder();
+
+        private Pool(String name, AdaptiveConcurrencyLimit limit) {
+            this.name = name;
+            this.limit = limit;
+        }
+    }
+
+    /**
+     * Gives the permit of an asynchronous request back once, whichever of completion, error or timeout comes
+     * first, and follows the request into any later async cycle.
+     */
+    private static final class ReleaseOnCompletion implements AsyncListener {
+        private final AdaptiveConcurrencyLimit limit;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleaseOnCompletion(AdaptiveConcurrencyLimit limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.release();
+            }
+        }
+    }
+}
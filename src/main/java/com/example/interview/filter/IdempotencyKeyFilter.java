@@ -0,0 +1,311 @@
+package com.example.interview.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Makes retried writes safe. The first POST carrying an {@code Idempotency-Key} runs normally and its response,
+ * headers included, is kept in a bounded cache together with a hash of the request body. A retry with the same
+ * key, URL and body gets that response replayed without touching the service, a retry with a different body gets
+ * 422, and a retry that arrives while the first attempt is still running gets 409. Server errors are not kept, so
+ * a failed attempt can be retried for real. Asynchronous responses are kept once their async dispatch completes.
+ */
+@Slf4j
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String REPLAYED = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String ATTEMPT = IdempotencyKeyFilter.class.getName() + ".attempt";
+    private static final StoredResponse IN_FLIGHT = new StoredResponse(new byte[0], 0, null, Map.of(), new byte[0]);
+
+    private final Cache<String, StoredResponse> responses;
+
+    public IdempotencyKeyFilter(long maximumBytes, Duration ttl) {
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String key, StoredResponse response) -> key.length() + response.weight())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY) == null;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            Attempt attempt = (Attempt) request.getAttribute(ATTEMPT);
+            if (attempt == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            proceed(attempt, request, response, filterChain);
+            return;
+        }
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid " + IDEMPOTENCY_KEY);
+            return;
+        }
+        String key = cacheKey(request, idempotencyKey);
+        StoredResponse previous = responses.getIfPresent(key);
+        if (previous == null) {
+            previous = responses.asMap().putIfAbsent(key, IN_FLIGHT);
+        }
+        if (previous == IN_FLIGHT) {
+            log.debug("Request with idempotency key {} is still in flight", idempotencyKey);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.CONFLICT.value());
+            return;
+        }
+        if (previous != null) {
+            if (!MessageDigest.isEqual(previous.requestHash, HashingRequestWrapper.hash(request.getInputStream()))) {
+                log.debug("Idempotency key {} was reused with a different request body", idempotencyKey);
+                response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                        IDEMPOTENCY_KEY + " was already used with a different request body");
+                return;
+            }
+            previous.replay(response);
+            return;
+        }
+
+        Attempt attempt = new Attempt(key, new HashingRequestWrapper(request),
+                new ContentCachingResponseWrapper(response));
+        proceed(attempt, attempt.request, attempt.response, filterChain);
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, responses, "idempotency");
+    }
+
+    /**
+     * Runs the chain and keeps the response once it is complete; when the request went async, that happens on
+     * the async dispatch instead.
+     */
+    private void proceed(Attempt attempt, HttpServletRequest request, HttpServletResponse response,
+                         FilterChain filterChain) throws ServletException, IOException {
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            if (isAsyncStarted(request)) {
+                request.setAttribute(ATTEMPT, attempt);
+            } else {
+                request.removeAttribute(ATTEMPT);
+                finish(attempt, completed);
+            }
+        }
+    }
+
+    private void finish(Attempt attempt, boolean completed) throws IOException {
+        ContentCachingResponseWrapper wrapper = attempt.response;
+        if (completed && wrapper.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            responses.put(attempt.key, new StoredResponse(attempt.request.finish(), wrapper.getStatus(),
+                    wrapper.getContentType(), headersOf(wrapper), wrapper.getContentAsByteArray()));
+        } else {
+            responses.asMap().remove(attempt.key, IN_FLIGHT);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static Map<String, List<String>> headersOf(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (!HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name) && !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                headers.put(name, List.copyOf(response.getHeaders(name)));
+            }
+        }
+        return headers;
+    }
+
+    private static String cacheKey(HttpServletRequest request, String idempotencyKey) {
+        String query = request.getQueryString();
+        return idempotencyKey + ' ' + request.getRequestURI() + (query == null ? "" : '?' + query);
+    }
+
+    private static final class Attempt {
+        private final String key;
+        private final HashingRequestWrapper request;
+        private final ContentCachingResponseWrapper response;
+
+        private Attempt(String key, HashingRequestWrapper request, ContentCachingResponseWrapper response) {
+            this.key = key;
+            this.request = request;
+            this.response = response;
+        }
+    }
+
+    private static final class StoredResponse {
+        private final byte[] requestHash;
+        private final int status;
+        private final String contentType;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+
+        private StoredResponse(byte[] requestHash, int status, String contentType, Map<String, List<String>> headers,
+                               byte[] body) {
+            this.requestHash = requestHash;
+            this.status = status;
+            this.contentType = contentType;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        int weight() {
+            int weight = requestHash.length + body.length;
+            for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+                weight += header.getKey().length();
+                for (String value : header.getValue()) {
+                    weight += value.length();
+                }
+            }
+            return weight;
+        }
+
+        void replay(HttpServletResponse response) throws IOException {
+            response.setStatus(status);
+            headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            if (contentType != null) {
+                response.setContentType(contentType);
+            }
+            response.setHeader(REPLAYED, "true");
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    /**
+     * Hashes the request body as the handler reads it. {@link #finish} reads whatever the handler left unread,
+     * so the hash always covers the whole body.
+     */
+    private static final class HashingRequestWrapper extends HttpServletRequestWrapper {
+        private final MessageDigest digest = newDigest();
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        private HashingRequestWrapper(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new HashingInputStream(super.getInputStream(), digest);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String encoding = getCharacterEncoding();
+                reader = new BufferedReader(new InputStreamReader(getInputStream(),
+                        encoding == null ? StandardCharsets.ISO_8859_1 : Charset.forName(encoding)));
+            }
+            return reader;
+        }
+
+        byte[] finish() throws IOException {
+            getInputStream().transferTo(OutputStream.nullOutputStream());
+            return digest.digest();
+        }
+
+        static byte[] hash(InputStream body) throws IOException {
+            MessageDigest digest = newDigest();
+            byte[] buffer = new byte[8192];
+            for (int read = body.read(buffer); read != -1; read = body.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+            return digest.digest();
+        }
+
+        private static MessageDigest newDigest() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static final class HashingInputStream extends ServletInputStream {
+        private final ServletInputStream delegate;
+        private final MessageDigest digest;
+
+        private HashingInputStream(ServletInputStream delegate, MessageDigest digest) {
+            this.delegate = delegate;
+            this.digest = digest;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = delegate.read();
+            if (read != -1) {
+                digest.update((byte) read);
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = delegate.read(buffer, offset, length);
+            if (read > 0) {
+                digest.update(buffer, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+    }
+}
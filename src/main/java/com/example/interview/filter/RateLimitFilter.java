@@ -0,0 +1,56 @@
+package com.example.interview.filter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gives every client, as told apart by {@link ClientIdentity}, a token bucket for writes and rejects writes beyond
+ * it with 429 and a {@code Retry-After} telling when the next one would be admitted. Reads are not rate limited;
+ * {@link ConcurrencyLimitFilter} keeps them apart from writes instead.
+ */
+public class RateLimitFilter extends OncePerRequestFilter implements MeterBinder {
+    private final StripedTokenBuckets buckets;
+    private final ClientIdentity clientIdentity;
+    private final LongAdder rejected = new LongAdder();
+
+    public RateLimitFilter(StripedTokenBuckets buckets, ClientIdentity clientIdentity) {
+        this.buckets = buckets;
+        this.clientIdentity = clientIdentity;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (ConcurrencyLimitFilter.isRead(request)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long waitNanos = buckets.tryAcquire(clientIdentity.of(request));
+        if (waitNanos > 0) {
+            rejected.increment();
+            long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("patient.rate-limit.rejected", rejected, LongAdder::sum)
+                .description("Writes rejected with 429 because the client ran out of tokens")
+                .register(registry);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.interview.filter;
+
+import com.example.interview.datasource.ReplicaRouting;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Pins the reads of a client that has just changed something to the primary, so that replica lag never hides the
+ * client's own write. Clients are told apart by {@link ClientIdentity}.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String CLIENT_ID_HEADER = ClientIdentity.HEADER;
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ClientIdentity clientIdentity;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(ClientIdentity clientIdentity, Duration stickiness, long maxClients) {
+        this.clientIdentity = clientIdentity;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickiness)
+                .maximumSize(maxClients)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = clientIdentity.of(request);
+        if (recentWriters.getIfPresent(client) != null) {
+            ReplicaRouting.pinToPrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRouting.clear();
+        }
+        if (!READ_METHODS.contains(request.getMethod()) && response.getStatus() < 400) {
+            recentWriters.put(client, Boolean.TRUE);
+        }
+    }
+}
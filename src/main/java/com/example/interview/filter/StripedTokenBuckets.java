@@ -0,0 +1,72 @@
+package com.example.interview.filter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client token buckets in a fixed array of atomic slots, so that checking a request costs one hash and one
+ * compare-and-set and allocates nothing. A bucket is kept as the theoretical arrival time of the generic cell rate
+ * algorithm: a request conforms while that time is at most the burst ahead of now, and moves it on by one
+ * emission interval.
+ * <p>
+ * Clients are hashed to slots with a multiplier chosen per process, so colliding ids cannot be crafted in advance.
+ * Clients sharing a slot share a budget, which needs far more active clients than slots to matter. Slots are a
+ * cache line apart so that busy clients do not contend on the same line.
+ */
+public class StripedTokenBuckets {
+    private static final int SLOT_STRIDE = 8;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private final int multiplier = ThreadLocalRandom.current().nextInt() | 1;
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier clock;
+    private final long origin;
+
+    public StripedTokenBuckets(double permitsPerSecond, int burst, int stripes) {
+        this(permitsPerSecond, burst, stripes, System::nanoTime);
+    }
+
+    StripedTokenBuckets(double permitsPerSecond, int burst, int stripes, LongSupplier clock) {
+        if (permitsPerSecond <= 0 || burst < 1 || Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive and stripes a power of two");
+        }
+        this.slots = new AtomicLongArray(stripes * SLOT_STRIDE);
+        this.mask = stripes - 1;
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.clock = clock;
+        this.origin = clock.getAsLong() - 1;
+    }
+
+    /**
+     * Takes one token from the client's bucket.
+     *
+     * @return {@code 0} when the request may proceed, otherwise the nanoseconds until the next token
+     */
+    public long tryAcquire(String client) {
+        int slot = slot(client);
+        long now = clock.getAsLong() - origin;
+        while (true) {
+            long arrival = slots.get(slot);
+            long ahead = arrival - now;
+            if (ahead > burstToleranceNanos) {
+                return ahead - burstToleranceNanos;
+            }
+            if (slots.compareAndSet(slot, arrival, Math.max(arrival, now) + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    private int slot(String client) {
+        int hash = 0;
+        for (int i = 0; i < client.length(); i++) {
+            hash = (hash + client.charAt(i)) * multiplier;
+        }
+        hash ^= hash >>> 16;
+        return (hash & mask) * SLOT_STRIDE;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.interview.importer;
+
+import com.example.interview.domain.PatientImportSummary;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.Environment;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Imports patients from a CSV and exits, e.g.
+ * {@code java -jar interview.jar import --patient.import.input=patients.csv.gz --patient.import.rejects=rejects.csv}.
+ * An input ending in {@code .gz} is gunzipped, and {@code -} reads standard input or, for the rejects, writes to
+ * standard output with console logging switched off. Exits with status 2 when any row was rejected.
+ * <p>
+ * Like the {@code export} command, the context holds only JDBC and is not AOT-processed.
+ */
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, JdbcTemplateAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class})
+@Import(PatientImporter.class)
+public class PatientImport {
+    public static final String COMMAND = "import";
+    private static final String TO_STANDARD_OUTPUT = "--patient.import.rejects=-";
+
+    public static void main(String[] args) throws IOException {
+        String[] arguments = args;
+        if (Arrays.asList(args).contains(TO_STANDARD_OUTPUT)) {
+            arguments = Arrays.copyOf(args, args.length + 1);
+            arguments[args.length] = "--logging.threshold.console=OFF";
+        }
+        PatientImportSummary summary;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(PatientImport.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(arguments)) {
+            Environment environment = context.getEnvironment();
+            String input = environment.getRequiredProperty("patient.import.input");
+            String rejects = environment.getRequiredProperty("patient.import.rejects");
+            PatientImporter importer = context.getBean(PatientImporter.class);
+            if (!importer.isSupported()) {
+                throw new IllegalStateException("Importing needs PostgreSQL");
+            }
+            try (Reader csv = open(input);
+                 Writer out = "-".equals(rejects)
+                         ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                         : Files.newBufferedWriter(Path.of(rejects))) {
+                summary = importer.importCsv(csv, out);
+            }
+        }
+        System.err.printf("Imported %d of %d patients, %d rejected%n",
+                summary.getAdded(), summary.getRows(), summary.getRejected());
+        if (summary.getRejected() > 0) {
+            System.exit(2);
+        }
+    }
+
+    private static Reader open(String input) throws IOException {
+        InputStream in = "-".equals(input) ? System.in : Files.newInputStream(Path.of(input));
+        if (input.endsWith(".gz")) {
+            in = new GZIPInputStream(in, 1 << 16);
+        }
+        return new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+}
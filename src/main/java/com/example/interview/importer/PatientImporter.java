@@ -0,0 +1,381 @@
+package com.example.interview.importer;
+
+import com.example.interview.cache.PatientCacheInvalidator;
+import com.example.interview.csv.CsvFields;
+import com.example.interview.csv.CsvRecordReader;
+import com.example.interview.datasource.DatabaseProduct;
+import com.example.interview.domain.PatientImportSummary;
+import com.example.interview.domain.PatientRequest;
+import com.example.interview.entity.PatientEntity;
+import com.example.interview.event.PatientsImportedEvent;
+import com.example.interview.exception.ForbiddenException;
+import com.example.interview.service.PatientValidation;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk CSV import in three stages. The calling thread cuts the input into chunks of raw records. A pool of
+ * {@code patient.import.parallelism} threads parses each chunk, validates it with the rules of
+ * {@code addPatient} and encodes it for {@code COPY}. The calling thread then streams the encoded chunks, in input
+ * order, into a temporary staging table. A single statement finally merges the staging table into
+ * {@code patients}: the first valid row of every name not taken yet is added, and every other row comes back as a
+ * reject.
+ * <p>
+ * At most two chunks per worker are in flight, so memory stays flat whatever the size of the input. The whole
+ * import is one transaction, so it is added completely or not at all.
+ */
+@Slf4j
+@Component
+public class PatientImporter {
+    static final String REJECTS_HEADER = "line,name,reason\n";
+    private static final String CREATE_STAGING = "create temporary table patients_import (line bigint, name text, "
+            + "temperature numeric, pulse numeric, date_of_birth date, rejection text) on commit drop";
+    private static final String COPY_STAGING = "copy patients_import from stdin (format csv)";
+    private static final int BLOCK = PatientEntity.ID_ALLOCATION_SIZE;
+
+    /**
+     * Ids are taken one {@code nextval} per block of {@link PatientEntity#ID_ALLOCATION_SIZE} rows, the same
+     * pooled-lo blocks Hibernate takes, so imported and regular ids never collide. {@code on conflict} only matters
+     * for a name added concurrently after the {@code not exists} check. The rejects are found with outer joins
+     * rather than {@code or exists} so that every step stays a hash join.
+     */
+    private static final String MERGE = "with valid as ("
+            + "select line, name, temperature, pulse, date_of_birth, "
+            + "row_number() over (partition by name order by line) as occurrence "
+            + "from patients_import where rejection is null), "
+            + "candidates as ("
+            + "select name, temperature, pulse, date_of_birth, row_number() over (order by line) - 1 as n "
+            + "from valid where occurrence = 1 "
+            + "and not exists (select 1 from patients p where p.name = valid.name)), "
+            + "blocks as ("
+            + "select block, nextval('" + PatientEntity.ID_SEQUENCE + "') as first_id "
+            + "from generate_series(0, ((select count(*) from candidates) - 1) / " + BLOCK + ") as block), "
+            + "inserted as ("
+            + "insert into patients (id, name, temperature, pulse, date_of_birth, status, version) "
+            + "select b.first_id + c.n % " + BLOCK + ", c.name, c.temperature, c.pulse, c.date_of_birth, 'ACTIVE', 0 "
+            + "from candidates c join blocks b on b.block = c.n / " + BLOCK + " "
+            + "on conflict (name) do nothing returning name) "
+            + "select s.line, s.name, s.rejection from patients_import s "
+            + "left join valid v on v.line = s.line "
+            + "left join inserted i on i.name = s.name and v.occurrence = 1 "
+            + "where i.name is null "
+            + "order by s.line";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int parallelism;
+    private final int chunkSize;
+    private final int rejectsFetchSize;
+    private final PatientCacheInvalidator patientCacheInvalidator;
+
+    public PatientImporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           ApplicationEventPublisher eventPublisher,
+                           @Nullable PatientCacheInvalidator patientCacheInvalidator,
+                           @Value("${patient.import.parallelism:0}") int parallelism,
+                           @Value("${patient.import.chunk-size:10000}") int chunkSize,
+                           @Value("${patient.export.fetch-size:5000}") int rejectsFetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.chunkSize = chunkSize;
+        this.rejectsFetchSize = rejectsFetchSize;
+        this.patientCacheInvalidator = patientCacheInvalidator;
+    }
+
+    /**
+     * The staging load needs {@code COPY}, so imports are only available on PostgreSQL.
+     */
+    public boolean isSupported() {
+        return DatabaseProduct.isPostgres(jdbcTemplate.getDataSource());
+    }
+
+    /**
+     * Imports a CSV with a header row naming at least the {@code name} and {@code date_of_birth} columns, and
+     * optionally {@code temperature} and {@code pulse}, in any order. Every row that is not added is written to the
+     * rejects report as {@code line,name,reason}, in input order.
+     *
+     * @throws IllegalArgumentException when the header lacks a required column
+     */
+    public PatientImportSummary importCsv(Reader csv, Writer rejects) throws IOException {
+        long started = System.nanoTime();
+        CsvRecordReader records = new CsvRecordReader(csv);
+        String header = records.next();
+        if (header == null) {
+            throw new IllegalArgumentException("The CSV has no header");
+        }
+        Columns columns = Columns.of(CsvFields.split(header));
+        rejects.write(REJECTS_HEADER);
+        PatientImportSummary summary;
+        try {
+            summary = transactionTemplate.execute(transaction -> {
+                jdbcTemplate.execute(CREATE_STAGING);
+                long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection ->
+                        stage(connection, records, columns));
+                jdbcTemplate.execute("analyze patients_import");
+                long rejected = merge(rejects);
+                if (patientCacheInvalidator != null) {
+                    patientCacheInvalidator.notifyEvictAll(jdbcTemplate);
+                }
+                return new PatientImportSummary(rows, rows - rejected, rejected);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        eventPublisher.publishEvent(new PatientsImportedEvent(summary.getAdded()));
+        rejects.flush();
+        long millis = Math.max((System.nanoTime() - started) / 1_000_000, 1);
+        log.info("Imported {} of {} patients in {} ms, {} rows/s", summary.getAdded(), summary.getRows(), millis,
+                summary.getRows() * 1000 / millis);
+        return summary;
+    }
+
+    private long stage(Connection connection, CsvRecordReader records, Columns columns) throws SQLException {
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "patient-import-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Deque<Future<byte[]>> inFlight = new ArrayDeque<>();
+        long rows = 0;
+        try {
+            Chunk chunk;
+            while ((chunk = readChunk(records)) != null) {
+                rows += chunk.size;
+                Chunk submitted = chunk;
+                inFlight.add(workers.submit(() -> encode(submitted, columns)));
+                if (inFlight.size() >= 2 * parallelism) {
+                    write(copy, inFlight.poll());
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                write(copy, inFlight.poll());
+            }
+            copy.endCopy();
+            return rows;
+        } finally {
+            workers.shutdownNow();
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    private Chunk readChunk(CsvRecordReader records) {
+        try {
+            Chunk chunk = new Chunk(chunkSize);
+            String record;
+            while (chunk.size < chunkSize && (record = records.next()) != null) {
+                chunk.add(records.line(), record);
+            }
+            return chunk.size == 0 ? null : chunk;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(CopyIn copy, Future<byte[]> encoded) throws SQLException {
+        try {
+            byte[] bytes = encoded.get();
+            copy.writeToCopy(bytes, 0, bytes.length);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while importing patients", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Parses and validates one chunk and encodes it as staging rows, rejected ones carrying their reason.
+     */
+    static byte[] encode(Chunk chunk, Columns columns) {
+        StringBuilder out = new StringBuilder(chunk.size * 64);
+        try {
+            for (int i = 0; i < chunk.size; i++) {
+                List<String> fields = CsvFields.split(chunk.records[i]);
+                PatientRequest request = new PatientRequest();
+                request.setName(columns.field(fields, columns.name));
+                String rejection;
+                try {
+                    request.setTemperature(parseNumber("temperature", columns.field(fields, columns.temperature)));
+                    request.setPulse(parseNumber("pulse", columns.field(fields, columns.pulse)));
+                    request.setDateOfBirth(parseDate(columns.field(fields, columns.dateOfBirth)));
+                    rejection = request.getName() != null && request.getName().indexOf('\0') >= 0
+                            ? "Patient name has invalid characters"
+                            : PatientValidation.validateImportedPatient(request);
+                } catch (IllegalArgumentException e) {
+                    rejection = e.getMessage();
+                }
+                out.append(chunk.lines[i]).append(',');
+                CsvFields.write(out, rejection == null ? request.getName() : sanitize(request.getName()));
+                out.append(',');
+                if (rejection == null) {
+                    out.append(toText(request.getTemperature())).append(',')
+                            .append(toText(request.getPulse())).append(',')
+                            .append(request.getDateOfBirth().toString()).append(",\n");
+                } else {
+                    out.append(",,,");
+                    CsvFields.write(out, rejection);
+                    out.append('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private long merge(Writer rejects) {
+        AtomicLong rejected = new AtomicLong();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(MERGE,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(rejectsFetchSize);
+            return statement;
+        }, resultSet -> {
+            String name = resultSet.getString(2);
+            String rejection = resultSet.getString(3);
+            try {
+                rejects.append(Long.toString(resultSet.getLong(1))).append(',');
+                CsvFields.write(rejects, name);
+                rejects.append(',');
+                CsvFields.write(rejects, rejection != null ? rejection : ForbiddenException.notUniqName(name).getMessage());
+                rejects.append('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rejected.incrementAndGet();
+        });
+        return rejected.get();
+    }
+
+    private static Double parseNumber(String column, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            LocalDate date = LocalDate.parse(value.trim());
+            if (date.getYear() < 1 || date.getYear() > 9999) {
+                throw new IllegalArgumentException("Invalid date_of_birth: " + value);
+            }
+            return date;
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date_of_birth: " + value);
+        }
+    }
+
+    private static String toText(Double value) {
+        return value == null ? "" : value.toString();
+    }
+
+    /**
+     * A rejected name only goes to the report, but still has to be valid text for the staging table.
+     */
+    private static String sanitize(String name) {
+        return name == null ? null : name.replace('\0', ' ');
+    }
+
+    static final class Chunk {
+        private final long[] lines;
+        private final String[] records;
+        private int size;
+
+        Chunk(int capacity) {
+            this.lines = new long[capacity];
+            this.records = new String[capacity];
+        }
+
+        void add(long line, String record) {
+            lines[size] = line;
+            records[size++] = record;
+        }
+    }
+
+    static final class Columns {
+        private final int name;
+        private final int temperature;
+        private final int pulse;
+        private final int dateOfBirth;
+
+        private Columns(int name, int temperature, int pulse, int dateOfBirth) {
+            this.name = name;
+            this.temperature = temperature;
+            this.pulse = pulse;
+            this.dateOfBirth = dateOfBirth;
+        }
+
+        static Columns of(List<String> header) {
+            int name = -1;
+            int temperature = -1;
+            int pulse = -1;
+            int dateOfBirth = -1;
+            for (int i = 0; i < header.size(); i++) {
+                String column = header.get(i) == null ? "" : header.get(i).trim().toLowerCase(Locale.ROOT);
+                switch (column) {
+                    case "name" -> name = i;
+                    case "temperature" -> temperature = i;
+                    case "pulse" -> pulse = i;
+                    case "date_of_birth", "dateofbirth" -> dateOfBirth = i;
+                    default -> {
+                    }
+                }
+            }
+            if (name < 0 || dateOfBirth < 0) {
+                throw new IllegalArgumentException("The CSV header needs name and date_of_birth columns");
+            }
+            return new Columns(name, temperature, pulse, dateOfBirth);
+        }
+
+        String field(List<String> fields, int column) {
+            return column >= 0 && column < fields.size() ? fields.get(column) : null;
+        }
+    }
+}
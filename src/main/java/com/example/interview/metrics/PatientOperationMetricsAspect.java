@@ -0,0 +1,92 @@
+package com.example.interview.metrics;
+
+import com.example.interview.domain.PatientPage;
+import com.example.interview.exception.ConflictException;
+import com.example.interview.exception.ForbiddenException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every {@code PatientService} call as {@code patient.operation}, tagged with the method and its outcome:
+ * {@code success}, {@code duplicate}, {@code not-found}, {@code already-deleted}, {@code conflict} or
+ * {@code error}. Dashboards match on these values, so they do not follow renames of the exception reasons. Records the size of returned lists as {@code patient.result.size}. Meters are cached per tag combination
+ * so the hot path does not rebuild them.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class PatientOperationMetricsAspect {
+    static final String OPERATION_TIMER = "patient.operation";
+    static final String RESULT_SIZE = "patient.result.size";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> resultSizes = new ConcurrentHashMap<>();
+
+    @Around("execution(* com.example.interview.service.PatientService.*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            Object result = joinPoint.proceed();
+            recordResultSize(operation, result);
+            return result;
+        } catch (ForbiddenException e) {
+            outcome = outcome(e.getReason());
+            throw e;
+        } catch (ConflictException e) {
+            outcome = "conflict";
+            throw e;
+        } catch (Throwable e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            timer(operation, outcome).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String outcome(ForbiddenException.Reason reason) {
+        if (reason == null) {
+            return "forbidden";
+        }
+        return switch (reason) {
+            case NOT_UNIQ_NAME -> "duplicate";
+            case PATIENT_NOT_FOUND -> "not-found";
+            case ALREADY_DELETED -> "already-deleted";
+        };
+    }
+
+    private void recordResultSize(String operation, Object result) {
+        int size;
+        if (result instanceof Collection<?> collection) {
+            size = collection.size();
+        } else if (result instanceof PatientPage page) {
+            size = page.getItems().size();
+        } else {
+            return;
+        }
+        resultSizes.computeIfAbsent(operation, op -> DistributionSummary.builder(RESULT_SIZE)
+                .tag("operation", op)
+                .publishPercentileHistogram()
+                .register(meterRegistry)).record(size);
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return timers.computeIfAbsent(operation + ':' + outcome, key -> Timer.builder(OPERATION_TIMER)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.interview.migration;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import java.util.Arrays;
+
+/**
+ * Applies the Liquibase changelog and exits. Serving instances started with the {@code production} profile skip
+ * Liquibase, so this runs once per deployment instead, e.g. {@code java -jar interview.jar migrate}.
+ * <p>
+ * The context holds nothing but the data source and Liquibase and is not AOT-processed, so it has to run without
+ * {@code -Dspring.aot.enabled=true}.
+ */
+@ImportAutoConfiguration({DataSourceAutoConfiguration.class, LiquibaseAutoConfiguration.class})
+public class DatabaseMigration {
+    public static final String COMMAND = "migrate";
+
+    public static void main(String[] args) {
+        String[] arguments = Arrays.copyOf(args, args.length + 1);
+        arguments[args.length] = "--spring.liquibase.enabled=true";
+        new SpringApplicationBuilder(DatabaseMigration.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments)
+                .close();
+    }
+}
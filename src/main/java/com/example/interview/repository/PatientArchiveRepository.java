@@ -0,0 +1,85 @@
+package com.example.interview.repository;
+
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.domain.PatientView;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+@Timed(value = "patient.jdbc.query", histogram = true)
+public class PatientArchiveRepository {
+    private static final String ARCHIVE_COLUMNS = "id, name, temperature, pulse, date_of_birth, version, deleted_at";
+
+    private static final String MOVE_BATCH = "WITH moved AS (DELETE FROM patients WHERE id IN ("
+            + "SELECT id FROM patients WHERE status = 'DELETED' AND deleted_at < ? "
+            + "ORDER BY deleted_at LIMIT ? FOR UPDATE SKIP LOCKED) "
+            + "RETURNING " + ARCHIVE_COLUMNS + ") "
+            + "INSERT INTO patients_archive (" + ARCHIVE_COLUMNS + ", archived_at) "
+            + "SELECT " + ARCHIVE_COLUMNS + ", now() FROM moved RETURNING id, name";
+
+    private static final String SELECT_BATCH = "SELECT id, name FROM patients WHERE status = 'DELETED' "
+            + "AND deleted_at < ? ORDER BY deleted_at LIMIT ? FOR UPDATE";
+    private static final String COPY_BATCH = "INSERT INTO patients_archive (" + ARCHIVE_COLUMNS + ", archived_at) "
+            + "SELECT " + ARCHIVE_COLUMNS + ", CURRENT_TIMESTAMP FROM patients WHERE id IN (:ids)";
+    private static final String DELETE_BATCH = "DELETE FROM patients WHERE id IN (:ids)";
+
+    private static final String SELECT_LATEST_BY_NAME = "SELECT " + ARCHIVE_COLUMNS + " FROM patients_archive "
+            + "WHERE name = ? ORDER BY deleted_at DESC NULLS LAST, id DESC LIMIT 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Moves up to {@code limit} patients deleted before the cutoff into {@code patients_archive} with one
+     * statement. Rows locked by a concurrent transaction are skipped rather than waited for.
+     * Must run in a transaction.
+     *
+     * @return names of the archived patients by id
+     */
+    public Map<Integer, String> archiveDeletedBefore(Instant cutoff, int limit) {
+        Map<Integer, String> archived = new LinkedHashMap<>();
+        jdbcTemplate.query(MOVE_BATCH, resultSet -> {
+            archived.put(resultSet.getInt("id"), resultSet.getString("name"));
+        }, Timestamp.from(cutoff), limit);
+        return archived;
+    }
+
+    /**
+     * Portable equivalent of {@link #archiveDeletedBefore} for databases without data-modifying CTEs:
+     * lock the batch, copy it and delete it in three statements. Must run in a transaction.
+     */
+    public Map<Integer, String> archiveDeletedBeforePortable(Instant cutoff, int limit) {
+        Map<Integer, String> archived = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_BATCH, resultSet -> {
+            archived.put(resultSet.getInt("id"), resultSet.getString("name"));
+        }, Timestamp.from(cutoff), limit);
+        if (!archived.isEmpty()) {
+            Map<String, Object> ids = Map.of("ids", archived.keySet());
+            namedParameterJdbcTemplate.update(COPY_BATCH, ids);
+            namedParameterJdbcTemplate.update(DELETE_BATCH, ids);
+        }
+        return archived;
+    }
+
+    public PatientView findLatestByName(String name) {
+        List<PatientView> patients = jdbcTemplate.query(SELECT_LATEST_BY_NAME, (resultSet, rowNum) -> {
+            Date dateOfBirth = resultSet.getDate("date_of_birth");
+            return new PatientView(resultSet.getInt("id"), resultSet.getString("name"),
+                    resultSet.getObject("temperature") == null ? null : resultSet.getDouble("temperature"),
+                    resultSet.getObject("pulse") == null ? null : resultSet.getDouble("pulse"),
+                    dateOfBirth == null ? null : dateOfBirth.toLocalDate(), PatientStatus.ARCHIVED,
+                    resultSet.getInt("version"));
+        }, name);
+        return patients.isEmpty() ? null : patients.get(0);
+    }
+}
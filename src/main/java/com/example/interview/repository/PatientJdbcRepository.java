@@ -0,0 +1,233 @@
+package com.example.interview.repository;
+
+import com.example.interview.datasource.DatabaseProduct;
+import com.example.interview.domain.PatientRequest;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.entity.PatientEntity;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+@Timed(value = "patient.jdbc.query", histogram = true)
+public class PatientJdbcRepository {
+    private static final String SELECT_BY_STATUS = "select id, name, temperature, pulse, date_of_birth, status, version "
+            + "from patients where status = ? order by name, id";
+
+    private static final String SELECT_FOR_EXPORT =
+            "select id, name, temperature, pulse, date_of_birth, status, version, deleted_at from patients";
+
+    private static final String SELECT_BY_NAMES = "select id, name, temperature, pulse, date_of_birth, status, version "
+            + "from patients where name in (:names)";
+    private static final String SELECT_EXISTING_NAMES = "select name from patients where name in (:names)";
+    private static final String NEXT_ID_BLOCK = "select nextval('" + PatientEntity.ID_SEQUENCE + "')";
+    private static final String SELECT_EXISTING_IDS = "select id from patients where id in (:ids)";
+    private static final String INSERT_PATIENT = "insert into patients (id, name, temperature, pulse, date_of_birth, "
+            + "status) values (?, ?, ?, ?, ?, ?) on conflict do nothing";
+
+    private static final String UPDATE_IF_CURRENT = "update patients set name = coalesce(?, name), "
+            + "temperature = coalesce(?, temperature), pulse = coalesce(?, pulse), "
+            + "date_of_birth = coalesce(?, date_of_birth), version = version + 1 "
+            + "where name = ? and status = 'ACTIVE' and version = coalesce(?, version)";
+    private static final String UPDATE_IF_CURRENT_RETURNING = UPDATE_IF_CURRENT + " returning version";
+    private static final String UPDATE_IF_CURRENT_FINAL_TABLE = "select version from final table ("
+            + UPDATE_IF_CURRENT + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${patient.stream.fetch-size:500}")
+    private int fetchSize;
+
+    @Value("${patient.export.fetch-size:5000}")
+    private int exportFetchSize;
+
+    @Value("${patient.bulk.batch-size:500}")
+    private int batchSize;
+
+
+    /**
+     * Reads patients with the given status through a forward-only cursor, handing every row to the consumer
+     * as soon as it is fetched. Postgres only honours the fetch size inside a transaction, so callers must
+     * run this in one.
+     */
+    public void streamByStatus(PatientStatus status, Consumer<PatientEntity> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_BY_STATUS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setString(1, status.name());
+            return statement;
+        }, resultSet -> {
+            consumer.accept(mapPatient(resultSet));
+        });
+    }
+
+    /**
+     * Hands the raw rows of every patient with one of the given statuses, or of all patients when none are given, to
+     * the handler in table order. The columns are those of {@link #SELECT_FOR_EXPORT}. Like
+     * {@link #streamByStatus}, this only streams inside a transaction.
+     */
+    public void exportRows(Collection<PatientStatus> statuses, RowCallbackHandler rowHandler) {
+        String sql = statuses.isEmpty() ? SELECT_FOR_EXPORT : SELECT_FOR_EXPORT
+                + " where status in (" + String.join(", ", Collections.nCopies(statuses.size(), "?")) + ")";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(exportFetchSize);
+            int index = 1;
+            for (PatientStatus status : statuses) {
+                statement.setString(index++, status.name());
+            }
+            return statement;
+        }, rowHandler);
+    }
+
+    /**
+     * Returns which of the given names are already taken, issuing one {@code IN} query per batch of names.
+     */
+    public Set<String> findExistingNames(Collection<String> names) {
+        Set<String> existing = new HashSet<>();
+        List<String> all = new ArrayList<>(names);
+        for (int from = 0; from < all.size(); from += batchSize) {
+            List<String> chunk = all.subList(from, Math.min(from + batchSize, all.size()));
+            existing.addAll(namedParameterJdbcTemplate.queryForList(SELECT_EXISTING_NAMES,
+                    Map.of("names", chunk), String.class));
+        }
+        return existing;
+    }
+
+    /**
+     * Reads the patients with the given names, issuing one {@code IN} query per batch of names.
+     */
+    public List<PatientEntity> findByNames(Collection<String> names) {
+        List<PatientEntity> patients = new ArrayList<>();
+        List<String> all = new ArrayList<>(names);
+        for (int from = 0; from < all.size(); from += batchSize) {
+            List<String> chunk = all.subList(from, Math.min(from + batchSize, all.size()));
+            patients.addAll(namedParameterJdbcTemplate.query(SELECT_BY_NAMES, Map.of("names", chunk),
+                    (resultSet, rowNum) -> mapPatient(resultSet)));
+        }
+        return patients;
+    }
+
+    /**
+     * Inserts the patients in JDBC batches of {@code patient.bulk.batch-size}. Ids are reserved from the
+     * pooled-lo sequence shared with Hibernate, one sequence call per {@link PatientEntity#ID_ALLOCATION_SIZE} rows,
+     * and written back to the given entities. A patient whose name was taken concurrently, after the caller checked
+     * it, is skipped instead of failing the whole batch.
+     *
+     * @return the patients that were skipped
+     */
+    public List<PatientEntity> insertAll(List<PatientEntity> patients) {
+        int nextId = 0;
+        int blockEnd = 0;
+        for (PatientEntity patient : patients) {
+            if (nextId == blockEnd) {
+                nextId = jdbcTemplate.queryForObject(NEXT_ID_BLOCK, Integer.class);
+                blockEnd = nextId + PatientEntity.ID_ALLOCATION_SIZE;
+            }
+            patient.setId(nextId++);
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_PATIENT, patients, batchSize, (statement, patient) -> {
+            statement.setInt(1, patient.getId());
+            statement.setString(2, patient.getName());
+            statement.setObject(3, patient.getTemperature(), Types.NUMERIC);
+            statement.setObject(4, patient.getPulse(), Types.NUMERIC);
+            statement.setDate(5, Date.valueOf(patient.getDateOfBirth()));
+            statement.setString(6, patient.getStatus().name());
+        });
+        return skipped(patients, counts);
+    }
+
+    /**
+     * Reads the skipped rows off the update counts. A driver that rewrites batches into multi-row inserts reports
+     * no per-row counts, in which case the freshly assigned ids are looked up instead.
+     */
+    private List<PatientEntity> skipped(List<PatientEntity> patients, int[][] counts) {
+        List<PatientEntity> skipped = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    skipped.add(patients.get(index));
+                } else if (count != 1) {
+                    return skippedById(patients);
+                }
+                index++;
+            }
+        }
+        return skipped;
+    }
+
+    private List<PatientEntity> skippedById(List<PatientEntity> patients) {
+        Set<Integer> inserted = new HashSet<>();
+        for (int from = 0; from < patients.size(); from += batchSize) {
+            List<Integer> ids = patients.subList(from, Math.min(from + batchSize, patients.size())).stream()
+                    .map(PatientEntity::getId)
+                    .toList();
+            inserted.addAll(namedParameterJdbcTemplate.queryForList(SELECT_EXISTING_IDS, Map.of("ids", ids),
+                    Integer.class));
+        }
+        return patients.stream().filter(patient -> !inserted.contains(patient.getId())).toList();
+    }
+
+    /**
+     * Applies the non-null fields of the request in a single conditional statement that only matches an active
+     * patient, and only at the expected version when one is given. The statement also reads back the version it
+     * wrote. A name clash surfaces as {@link org.springframework.dao.DuplicateKeyException} from the unique index.
+     *
+     * @return the new version, or {@code null} when the patient is missing, deleted or at another version
+     */
+    public Integer updateIfCurrent(String name, PatientRequest patientRequest, Integer expectedVersion) {
+        String sql = isPostgres() ? UPDATE_IF_CURRENT_RETURNING : UPDATE_IF_CURRENT_FINAL_TABLE;
+        return jdbcTemplate.query(sql, statement -> {
+            statement.setObject(1, patientRequest.getName(), Types.VARCHAR);
+            statement.setObject(2, patientRequest.getTemperature(), Types.NUMERIC);
+            statement.setObject(3, patientRequest.getPulse(), Types.NUMERIC);
+            statement.setObject(4, patientRequest.getDateOfBirth() == null
+                    ? null : Date.valueOf(patientRequest.getDateOfBirth()), Types.DATE);
+            statement.setString(5, name);
+            statement.setObject(6, expectedVersion, Types.INTEGER);
+        }, resultSet -> resultSet.next() ? resultSet.getInt(1) : null);
+    }
+
+    /**
+     * {@code update ... returning} is PostgreSQL syntax; the in-memory database of the benchmarks reads the
+     * updated row through a data change delta table instead.
+     */
+    private boolean isPostgres() {
+        return DatabaseProduct.isPostgres(jdbcTemplate.getDataSource());
+    }
+
+    private static PatientEntity mapPatient(ResultSet resultSet) throws SQLException {
+        PatientEntity patient = new PatientEntity();
+        patient.setId(resultSet.getInt("id"));
+        patient.setName(resultSet.getString("name"));
+        patient.setTemperature(resultSet.getObject("temperature") == null ? null : resultSet.getDouble("temperature"));
+        patient.setPulse(resultSet.getObject("pulse") == null ? null : resultSet.getDouble("pulse"));
+        Date dateOfBirth = resultSet.getDate("date_of_birth");
+        patient.setDateOfBirth(dateOfBirth == null ? null : dateOfBirth.toLocalDate());
+        patient.setStatus(PatientStatus.valueOf(resultSet.getString("status")));
+        patient.setVersion(resultSet.getInt("version"));
+        return patient;
+    }
+}
@@ -1,16 +1,39 @@
 package com.example.interview.repository;
 
 import com.example.interview.domain.PatientStatus;
+import com.example.interview.domain.PatientView;
 import com.example.interview.entity.PatientEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface PatientRepository extends JpaRepository<PatientEntity, Integer> {
+public interface PatientRepository extends JpaRepository<PatientEntity, Integer>,
+        JpaSpecificationExecutor<PatientEntity> {
     Boolean existsByName(String name);
 
     PatientEntity findByName(String name);
 
     List<PatientEntity> findAllByStatusOrderByName(PatientStatus status);
+
+    List<PatientEntity> findAllByStatusOrderByNameAscIdAsc(PatientStatus status, Limit limit);
+
+    @Query("select p from PatientEntity p where p.status = :status " +
+            "and (p.name > :name or (p.name = :name and p.id > :id)) order by p.name, p.id")
+    List<PatientEntity> findAllByStatusAfter(@Param("status") PatientStatus status, @Param("name") String name,
+                                             @Param("id") Integer id, Limit limit);
+
+    @Query("select new com.example.interview.domain.PatientView(p.id, p.name, p.temperature, p.pulse, " +
+            "p.dateOfBirth, p.status, p.version) from PatientEntity p where p.status = :status order by p.name")
+    List<PatientView> findViewsByStatusOrderByName(@Param("status") PatientStatus status);
+
+    @Query("select new com.example.interview.domain.PatientView(p.id, p.name, p.temperature, p.pulse, " +
+            "p.dateOfBirth, p.status, p.version) from PatientEntity p where p.status = :status and p.name in :names")
+    List<PatientView> findViewsByStatusAndNameIn(@Param("status") PatientStatus status,
+                                                 @Param("names") Collection<String> names);
 }
@@ -0,0 +1,63 @@
+package com.example.interview.repository;
+
+import com.example.interview.domain.PatientCursor;
+import com.example.interview.domain.PatientFilter;
+import com.example.interview.entity.PatientEntity;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the where clause of the filter API. Only the bounds that are set become predicates, so every
+ * combination keeps a plain conjunction of range conditions the planner can match against the
+ * {@code patients_status_*} indexes.
+ */
+public final class PatientSpecifications {
+
+    private PatientSpecifications() {
+    }
+
+    public static Specification<PatientEntity> matching(PatientFilter filter, PatientCursor after) {
+        return (root, query, builder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getStatus() != null) {
+                predicates.add(builder.equal(root.get("status"), filter.getStatus()));
+            }
+            addRange(predicates, builder, root, "temperature", filter.getMinTemperature(), filter.getMaxTemperature());
+            if (filter.isPulseOutside()) {
+                List<Predicate> outside = new ArrayList<>(2);
+                if (filter.getMinPulse() != null) {
+                    outside.add(builder.lessThan(root.get("pulse"), filter.getMinPulse()));
+                }
+                if (filter.getMaxPulse() != null) {
+                    outside.add(builder.greaterThan(root.get("pulse"), filter.getMaxPulse()));
+                }
+                predicates.add(builder.or(outside.toArray(Predicate[]::new)));
+            } else {
+                addRange(predicates, builder, root, "pulse", filter.getMinPulse(), filter.getMaxPulse());
+            }
+            addRange(predicates, builder, root, "dateOfBirth", filter.getBornAfter(), filter.getBornBefore());
+            if (after != null) {
+                predicates.add(builder.or(
+                        builder.greaterThan(root.get("name"), after.getName()),
+                        builder.and(builder.equal(root.get("name"), after.getName()),
+                                builder.greaterThan(root.get("id"), after.getId()))));
+            }
+            return builder.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private static <T extends Comparable<? super T>> void addRange(List<Predicate> predicates, CriteriaBuilder builder,
+                                                                   Root<PatientEntity> root, String attribute,
+                                                                   T min, T max) {
+        if (min != null) {
+            predicates.add(builder.greaterThanOrEqualTo(root.get(attribute), min));
+        }
+        if (max != null) {
+            predicates.add(builder.lessThanOrEqualTo(root.get(attribute), max));
+        }
+    }
+}
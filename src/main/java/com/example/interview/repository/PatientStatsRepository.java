@@ -0,0 +1,89 @@
+package com.example.interview.repository;
+
+import com.example.interview.domain.PatientAgeBandStatistics;
+import com.example.interview.domain.PatientStatistics;
+import com.example.interview.domain.PatientStatus;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads {@code patient_stats}: one row per status and age band. On Postgres it is a materialized view refreshed by
+ * {@link #refresh}; elsewhere it is a plain view computed on every read.
+ */
+@Repository
+@RequiredArgsConstructor
+@Timed(value = "patient.jdbc.query", histogram = true)
+public class PatientStatsRepository {
+    public static final List<String> AGE_BANDS = List.of("0-17", "18-39", "40-64", "65+", "unknown");
+
+    private static final String SELECT_STATS = "SELECT status, age_band, patients, with_fever, pulse_below_60, "
+            + "pulse_60_to_100, pulse_above_100, pulse_sum, refreshed_at FROM patient_stats";
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_xact_lock(hashtext('patient_stats'))";
+    private static final String REFRESH = "REFRESH MATERIALIZED VIEW CONCURRENTLY patient_stats";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Rebuilds the materialized view without blocking its readers, unless another instance is refreshing it right
+     * now. Postgres only; must run in a transaction, which holds the lock until it ends.
+     *
+     * @return whether this call refreshed the view
+     */
+    public boolean refresh() {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class))) {
+            return false;
+        }
+        jdbcTemplate.execute(REFRESH);
+        return true;
+    }
+
+    public PatientStatistics load() {
+        Map<String, long[]> bands = new LinkedHashMap<>();
+        AGE_BANDS.forEach(band -> bands.put(band, new long[6]));
+        long[] totals = new long[2];
+        Instant[] refreshedAt = {null};
+        jdbcTemplate.query(SELECT_STATS, resultSet -> {
+            long patients = resultSet.getLong("patients");
+            Timestamp refreshed = resultSet.getTimestamp("refreshed_at");
+            if (refreshed != null && (refreshedAt[0] == null || refreshed.toInstant().isAfter(refreshedAt[0]))) {
+                refreshedAt[0] = refreshed.toInstant();
+            }
+            PatientStatus status = PatientStatus.valueOf(resultSet.getString("status"));
+            if (status == PatientStatus.DELETED) {
+                totals[1] += patients;
+                return;
+            }
+            totals[0] += patients;
+            long[] band = bands.computeIfAbsent(resultSet.getString("age_band"), key -> new long[6]);
+            band[0] += patients;
+            band[1] += resultSet.getLong("with_fever");
+            band[2] += resultSet.getLong("pulse_below_60");
+            band[3] += resultSet.getLong("pulse_60_to_100");
+            band[4] += resultSet.getLong("pulse_above_100");
+            band[5] += resultSet.getLong("pulse_sum");
+        });
+        List<PatientAgeBandStatistics> ageBands = new ArrayList<>(bands.size());
+        long withFever = 0;
+        for (Map.Entry<String, long[]> entry : bands.entrySet()) {
+            long[] band = entry.getValue();
+            long measured = band[2] + band[3] + band[4];
+            withFever += band[1];
+            ageBands.add(new PatientAgeBandStatistics(entry.getKey(), band[0], band[1], share(band[1], band[0]),
+                    band[2], band[3], band[4], measured == 0 ? null : Math.round(band[5] * 10.0 / measured) / 10.0));
+        }
+        return new PatientStatistics(refreshedAt[0] != null ? refreshedAt[0] : Instant.now(), totals[0], totals[1],
+                withFever, share(withFever, totals[0]), ageBands);
+    }
+
+    private static double share(long part, long whole) {
+        return whole == 0 ? 0 : (double) part / whole;
+    }
+}
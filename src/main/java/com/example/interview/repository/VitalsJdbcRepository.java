@@ -0,0 +1,71 @@
+package com.example.interview.repository;
+
+import com.example.interview.domain.VitalBucket;
+import com.example.interview.domain.VitalReading;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+@Timed(value = "patient.jdbc.query", histogram = true)
+public class VitalsJdbcRepository {
+    private static final String INSERT_READING =
+            "insert into patient_vitals (patient_id, measured_at, temperature, pulse) values (?, ?, ?, ?)";
+    private static final String SELECT_LATEST = "select patient_id, measured_at, temperature, pulse "
+            + "from patient_vitals where patient_id = ? order by measured_at desc limit 1";
+    private static final String SELECT_BUCKETS = "select floor(extract(epoch from measured_at) / ?) * ? as bucket_start, "
+            + "count(*) as readings, min(temperature) as min_temperature, max(temperature) as max_temperature, "
+            + "avg(temperature) as avg_temperature, min(pulse) as min_pulse, max(pulse) as max_pulse, "
+            + "avg(pulse) as avg_pulse "
+            + "from patient_vitals where patient_id = ? and measured_at >= ? and measured_at < ? "
+            + "group by bucket_start order by bucket_start";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<VitalReading> readings) {
+        jdbcTemplate.batchUpdate(INSERT_READING, readings, readings.size(), (statement, reading) -> {
+            statement.setInt(1, reading.getPatientId());
+            statement.setTimestamp(2, Timestamp.from(reading.getMeasuredAt()));
+            statement.setObject(3, reading.getTemperature(), Types.NUMERIC);
+            statement.setObject(4, reading.getPulse(), Types.NUMERIC);
+        });
+    }
+
+    public VitalReading findLatest(int patientId) {
+        List<VitalReading> latest = jdbcTemplate.query(SELECT_LATEST, (resultSet, rowNum) -> new VitalReading(
+                resultSet.getInt("patient_id"),
+                resultSet.getTimestamp("measured_at").toInstant(),
+                getDouble(resultSet, "temperature"),
+                getDouble(resultSet, "pulse")), patientId);
+        return latest.isEmpty() ? null : latest.get(0);
+    }
+
+    /**
+     * Downsamples the readings of one patient into fixed buckets aligned to the epoch, aggregated by the database.
+     */
+    public List<VitalBucket> findBuckets(int patientId, Instant from, Instant to, long bucketSeconds) {
+        return jdbcTemplate.query(SELECT_BUCKETS, (resultSet, rowNum) -> new VitalBucket(
+                Instant.ofEpochSecond(resultSet.getLong("bucket_start")),
+                resultSet.getLong("readings"),
+                getDouble(resultSet, "min_temperature"),
+                getDouble(resultSet, "max_temperature"),
+                getDouble(resultSet, "avg_temperature"),
+                getDouble(resultSet, "min_pulse"),
+                getDouble(resultSet, "max_pulse"),
+                getDouble(resultSet, "avg_pulse")),
+                bucketSeconds, bucketSeconds, patientId, Timestamp.from(from), Timestamp.from(to));
+    }
+
+    private static Double getDouble(ResultSet resultSet, String column) throws SQLException {
+        double value = resultSet.getDouble(column);
+        return resultSet.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.interview.search;
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of patient ids kept in a growable {@code int[]}. Ids are mostly appended in increasing order,
+ * so adds are usually a plain append; removals shift the tail.
+ */
+final class IntPostings {
+    private int[] ids = new int[4];
+    private int size;
+
+    void add(int id) {
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size++] = id;
+            return;
+        }
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        size++;
+    }
+
+    void remove(int id) {
+        int index = Arrays.binarySearch(ids, 0, size, id);
+        if (index >= 0) {
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void copyTo(int[] target, int offset) {
+        System.arraycopy(ids, 0, target, offset, size);
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+    }
+}
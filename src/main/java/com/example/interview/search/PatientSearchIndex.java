@@ -0,0 +1,491 @@
+package com.example.interview.search;
+
+import com.example.interview.datasource.ReplicaRouting;
+import com.example.interview.domain.PatientSearchHit;
+import com.example.interview.domain.PatientSearchPage;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.entity.PatientEntity;
+import com.example.interview.event.PatientChangedEvent;
+import com.example.interview.event.PatientsChangedElsewhereEvent;
+import com.example.interview.event.PatientsImportedEvent;
+import com.example.interview.repository.PatientJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory name index for type-ahead search. Lower-cased names are kept in a sorted map for prefix matches, and
+ * every name is split into trigrams with an {@link IntPostings} list of ids per trigram for typo-tolerant matches:
+ * candidates sharing enough trigrams with the query are confirmed by their edit distance to the query.
+ * <p>
+ * The index is filled by a streaming scan once the application is ready and then follows committed mutations.
+ * An event always wins over a row of the initial scan, so changes made while loading are not lost.
+ * <p>
+ * Changes made on other instances arrive as {@link PatientsChangedElsewhereEvent}s and are re-read from the primary
+ * every {@code patient.search.catch-up-millis}, so searches may miss them for that long. When everything may have
+ * changed, the whole table is rescanned and the index reconciled with it.
+ */
+@Slf4j
+@Component
+public class PatientSearchIndex {
+    private static final String PADDING = "  ";
+    private static final int COMMON_TRIGRAM_MIN_IDS = 1024;
+    private static final int MAX_STALE_NAMES = 1000;
+    private static final Comparator<PatientSearchHit> BY_DISTANCE = Comparator.comparingInt(PatientSearchHit::getDistance)
+            .thenComparing(hit -> hit.getName().toLowerCase(Locale.ROOT))
+            .thenComparing(PatientSearchHit::getId);
+
+    private final PatientJdbcRepository patientJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxResults;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final NavigableMap<String, Entry> byKey = new TreeMap<>();
+    private final Map<String, IntPostings> trigrams = new HashMap<>();
+    private final Set<String> staleNames = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean staleAll = new AtomicBoolean();
+    /**
+     * Ids changed by events while a catch-up reads from the database, whose rows it must then leave alone;
+     * {@code null} when no catch-up is running.
+     */
+    private Set<Integer> touched;
+    private volatile boolean loadStarted;
+    private volatile boolean ready;
+
+    public PatientSearchIndex(PatientJdbcRepository patientJdbcRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${patient.search.max-results:1000}") int maxResults) {
+        this.patientJdbcRepository = patientJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.maxResults = maxResults;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        loadStarted = true;
+        long start = System.nanoTime();
+        for (PatientStatus status : List.of(PatientStatus.ACTIVE, PatientStatus.DELETED)) {
+            scan(status, this::loadPatient);
+        }
+        ready = true;
+        log.info("Indexed {} patient names in {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (touched != null) {
+                touched.add(event.getId());
+            }
+            Entry entry = entries.get(event.getId());
+            switch (event.getType()) {
+                case ADDED -> put(event.getId(), event.getName(), event.getStatus());
+                case UPDATED -> {
+                    if (entry == null || !entry.name.equals(event.getName())) {
+                        put(event.getId(), event.getName(), PatientStatus.ACTIVE);
+                    }
+                }
+                case DELETED -> {
+                    if (entry == null) {
+                        put(event.getId(), event.getName(), PatientStatus.DELETED);
+                    } else {
+                        entry.status = PatientStatus.DELETED;
+                    }
+                }
+                case ARCHIVED -> remove(event.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * An import only adds active patients, so rescanning those picks the new names up and leaves the rest alone.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPatientsImported(PatientsImportedEvent event) {
+        if (event.getAdded() > 0) {
+            scan(PatientStatus.ACTIVE, this::loadPatient);
+        }
+    }
+
+    /**
+     * Only marks the names; they are re-read by {@link #catchUp()} off the invalidation channel's thread. Changes
+     * reported before the initial scan starts are part of it.
+     */
+    @EventListener
+    public void onPatientsChangedElsewhere(PatientsChangedElsewhereEvent event) {
+        if (!loadStarted) {
+            return;
+        }
+        if (event.isEverything() || staleNames.size() > MAX_STALE_NAMES) {
+            staleAll.set(true);
+        } else {
+            staleNames.addAll(event.getNames());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${patient.search.catch-up-millis:500}")
+    public void catchUp() {
+        if (!ready) {
+            return;
+        }
+        boolean everything = staleAll.getAndSet(false);
+        Set<String> names = new HashSet<>();
+        for (Iterator<String> stale = staleNames.iterator(); stale.hasNext(); stale.remove()) {
+            names.add(stale.next());
+        }
+        if (!everything && names.isEmpty()) {
+            return;
+        }
+        setTouched(new HashSet<>());
+        try {
+            if (everything) {
+                resync();
+            } else {
+                refresh(names);
+            }
+        } catch (RuntimeException e) {
+            staleAll.compareAndSet(false, everything);
+            staleNames.addAll(names);
+            throw e;
+        } finally {
+            setTouched(null);
+        }
+    }
+
+    /**
+     * Finds names starting with the query, followed, when {@code fuzzy} is set, by names whose beginning is within
+     * one or two edits of it, closest first. Offsets past {@link #getMaxResults()} are not served.
+     *
+     * @param status only patients with this status, or {@code null} for any
+     */
+    public PatientSearchPage search(String query, PatientStatus status, boolean fuzzy, int offset, int size) {
+        String key = normalize(query);
+        int limit = Math.min(offset + size + 1, maxResults);
+        List<PatientSearchHit> hits = new ArrayList<>(Math.min(limit, 256));
+
+        lock.readLock().lock();
+        try {
+            for (Entry entry : byKey.subMap(key, true, key + Character.MAX_VALUE, false).values()) {
+                if (hits.size() >= limit) {
+                    break;
+                }
+                if (status == null || entry.status == status) {
+                    hits.add(entry.hit(0));
+                }
+            }
+            int maxEdits = maxEdits(key);
+            if (fuzzy && maxEdits > 0 && hits.size() < limit) {
+                hits.addAll(fuzzyHits(key, maxEdits, status));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int from = Math.min(offset, hits.size());
+        int to = Math.min(offset + size, Math.min(hits.size(), maxResults));
+        Integer next = hits.size() > to && to < maxResults ? to : null;
+        return new PatientSearchPage(List.copyOf(hits.subList(from, to)), next);
+    }
+
+    /**
+     * Typo-tolerant matches that are not prefix matches, ordered by distance and name.
+     */
+    private List<PatientSearchHit> fuzzyHits(String key, int maxEdits, PatientStatus status) {
+        Set<String> queryTrigrams = trigramsOf(key);
+        List<IntPostings> postings = new ArrayList<>(queryTrigrams.size());
+        for (String trigram : queryTrigrams) {
+            IntPostings posting = trigrams.get(trigram);
+            if (posting != null) {
+                postings.add(posting);
+            }
+        }
+        // A name within maxEdits of the query keeps all but 3 * maxEdits of its trigrams. Very common trigrams
+        // barely narrow the candidates, so they are skipped and the required overlap lowered to match; a query
+        // made only of common trigrams is too unspecific for typo matching and gets prefix matches only.
+        postings.sort(Comparator.comparingInt(IntPostings::size));
+        int required = queryTrigrams.size() - 3 * maxEdits;
+        int common = Math.max(entries.size() / 4, COMMON_TRIGRAM_MIN_IDS);
+        while (postings.size() > 1 && postings.get(postings.size() - 1).size() > common) {
+            postings.remove(postings.size() - 1);
+            required--;
+        }
+        if (postings.isEmpty() || postings.get(0).size() > common) {
+            return List.of();
+        }
+        required = Math.max(required, 1);
+
+        int total = 0;
+        for (IntPostings posting : postings) {
+            total += posting.size();
+        }
+        int[] ids = new int[total];
+        int offset = 0;
+        for (IntPostings posting : postings) {
+            posting.copyTo(ids, offset);
+            offset += posting.size();
+        }
+        Arrays.sort(ids);
+
+        List<PatientSearchHit> hits = new ArrayList<>();
+        for (int i = 0; i < ids.length; ) {
+            int id = ids[i];
+            int run = i;
+            while (run < ids.length && ids[run] == id) {
+                run++;
+            }
+            if (run - i >= required) {
+                Entry entry = entries.get(id);
+                if (entry != null && (status == null || entry.status == status)) {
+                    int distance = prefixDistance(key, entry.key, maxEdits);
+                    if (distance > 0 && distance <= maxEdits) {
+                        hits.add(entry.hit(distance));
+                    }
+                }
+            }
+            i = run;
+        }
+        hits.sort(BY_DISTANCE);
+        return hits;
+    }
+
+    /**
+     * Replaces whatever is indexed under the names with their current rows.
+     */
+    private void refresh(Set<String> names) {
+        List<PatientEntity> patients = ReplicaRouting.onPrimary(() -> patientJdbcRepository.findByNames(names));
+        lock.writeLock().lock();
+        try {
+            for (String name : names) {
+                String key = normalize(name);
+                for (Entry entry : new ArrayList<>(byKey.subMap(key + '\0', key + '\1').values())) {
+                    if (entry.name.equals(name) && !touched.contains(entry.id)) {
+                        remove(entry.id);
+                    }
+                }
+            }
+            for (PatientEntity patient : patients) {
+                if (!touched.contains(patient.getId())) {
+                    put(patient.getId(), patient.getName(), patient.getStatus());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rescans the table and reconciles the index with it, for when notifications may have been lost.
+     */
+    private void resync() {
+        long start = System.nanoTime();
+        Map<Integer, PatientEntity> patients = new HashMap<>();
+        for (PatientStatus status : List.of(PatientStatus.ACTIVE, PatientStatus.DELETED)) {
+            scan(status, patient -> patients.put(patient.getId(), patient));
+        }
+        lock.writeLock().lock();
+        try {
+            for (Integer id : new ArrayList<>(entries.keySet())) {
+                if (!patients.containsKey(id) && !touched.contains(id)) {
+                    remove(id);
+                }
+            }
+            for (PatientEntity patient : patients.values()) {
+                Entry entry = entries.get(patient.getId());
+                if (touched.contains(patient.getId())) {
+                    continue;
+                }
+                if (entry == null || !entry.name.equals(patient.getName())) {
+                    put(patient.getId(), patient.getName(), patient.getStatus());
+                } else {
+                    entry.status = patient.getStatus();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Resynced {} patient names in {} ms", size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void setTouched(Set<Integer> ids) {
+        lock.writeLock().lock();
+        try {
+            touched = ids;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Streams the patients with the status from the primary, so that rows a replica has yet to receive are not
+     * missed.
+     */
+    private void scan(PatientStatus status, Consumer<PatientEntity> consumer) {
+        ReplicaRouting.onPrimary(() -> transactionTemplate.execute(transaction -> {
+            patientJdbcRepository.streamByStatus(status, consumer);
+            return null;
+        }));
+    }
+
+    private void loadPatient(PatientEntity patient) {
+        lock.writeLock().lock();
+        try {
+            if (!entries.containsKey(patient.getId())) {
+                put(patient.getId(), patient.getName(), patient.getStatus());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(int id, String name, PatientStatus status) {
+        remove(id);
+        Entry entry = new Entry(id, name, normalize(name), status);
+        entries.put(id, entry);
+        byKey.put(entry.key + '\0' + id, entry);
+        for (String trigram : trigramsOf(entry.key)) {
+            trigrams.computeIfAbsent(trigram, t -> new IntPostings()).add(id);
+        }
+    }
+
+    private void remove(int id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        byKey.remove(entry.key + '\0' + id);
+        for (String trigram : trigramsOf(entry.key)) {
+            IntPostings posting = trigrams.get(trigram);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    trigrams.remove(trigram);
+                }
+            }
+        }
+    }
+
+    static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Trigrams of the name padded at the start only, so that the first letters, where type-ahead queries are
+     * anchored, get trigrams of their own.
+     */
+    static Set<String> trigramsOf(String key) {
+        String padded = PADDING + key;
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            result.add(padded.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    static int maxEdits(String key) {
+        if (key.length() < 3) {
+            return 0;
+        }
+        return key.length() <= 5 ? 1 : 2;
+    }
+
+    /**
+     * Edit distance, counting an adjacent transposition as one edit, between the query and the closest prefix
+     * of the name, giving up once it exceeds {@code max}.
+     */
+    static int prefixDistance(String query, String name, int max) {
+        int m = query.length();
+        int[] beforePrevious = new int[m + 1];
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            previous[i] = i;
+        }
+        int best = previous[m];
+        for (int j = 1; j <= name.length(); j++) {
+            current[0] = j;
+            int columnMin = j;
+            char c = name.charAt(j - 1);
+            for (int i = 1; i <= m; i++) {
+                char q = query.charAt(i - 1);
+                int distance = Math.min(previous[i - 1] + (q == c ? 0 : 1), Math.min(previous[i], current[i - 1]) + 1);
+                if (i > 1 && j > 1 && q == name.charAt(j - 2) && query.charAt(i - 2) == c) {
+                    distance = Math.min(distance, beforePrevious[i - 2] + 1);
+                }
+                current[i] = distance;
+                columnMin = Math.min(columnMin, distance);
+            }
+            best = Math.min(best, current[m]);
+            if (columnMin > max) {
+                break;
+            }
+            int[] swap = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = swap;
+        }
+        return best;
+    }
+
+    private static final class Entry {
+        private final int id;
+        private final String name;
+        private final String key;
+        private PatientStatus status;
+
+        private Entry(int id, String name, String key, PatientStatus status) {
+            this.id = id;
+            this.name = name;
+            this.key = key;
+            this.status = status;
+        }
+
+        private PatientSearchHit hit(int distance) {
+            return new PatientSearchHit(id, name, status, distance);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.interview.service;
+
+import com.example.interview.domain.PatientRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of accepted admissions on local disk. Every admission is written as an {@code A} line before it
+ * is acknowledged and closed by a {@code C} line once its batch has committed, so the admissions without a
+ * {@code C} line are exactly the ones a crash left unwritten. {@link #append} returns only once its line has been
+ * forced to the device, so an acknowledged admission survives a power loss as well. Forces are group commits:
+ * while one caller forces, the others append behind it, and the next force covers all of their lines at once.
+ * Commit lines are forced by {@link #sync()}, which the writer calls after every batch.
+ * The file is truncated whenever nothing is outstanding, so it never grows beyond the backlog.
+ */
+@Slf4j
+public class PatientAdmissionJournal implements AutoCloseable {
+    private static final char ACCEPTED = 'A';
+    private static final char COMMITTED = 'C';
+    private static final char SEPARATOR = '\t';
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final Object forceLock = new Object();
+    private FileChannel channel;
+    private long outstanding;
+    private long writes;
+    private volatile long forcedWrites;
+
+    public PatientAdmissionJournal(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Reads the admissions a previous run left without a commit line, rewrites the file to hold only those and
+     * opens it for appending.
+     *
+     * @return the outstanding requests by tracking id, in the order they were accepted
+     */
+    public synchronized Map<String, PatientRequest> recover() throws IOException {
+        Map<String, PatientRequest> pending = new LinkedHashMap<>();
+        if (Files.exists(path)) {
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    readLine(line, pending);
+                }
+            }
+        } else if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(0);
+        for (Map.Entry<String, PatientRequest> entry : pending.entrySet()) {
+            write(accepted(entry.getKey(), entry.getValue()));
+        }
+        outstanding = pending.size();
+        channel.force(false);
+        return pending;
+    }
+
+    /**
+     * Writes the admission and waits until it is on the device.
+     */
+    public void append(String trackingId, PatientRequest request) {
+        String line = accepted(trackingId, request);
+        long position;
+        synchronized (this) {
+            write(line);
+            outstanding++;
+            position = ++writes;
+        }
+        force(position);
+    }
+
+    public synchronized void commit(List<String> trackingIds) {
+        StringBuilder lines = new StringBuilder(trackingIds.size() * 24);
+        for (String trackingId : trackingIds) {
+            lines.append(COMMITTED).append(SEPARATOR).append(trackingId).append('\n');
+        }
+        write(lines.toString());
+        outstanding -= trackingIds.size();
+        writes++;
+        if (outstanding == 0) {
+            truncate();
+        }
+    }
+
+    public void sync() {
+        long position;
+        synchronized (this) {
+            position = writes;
+        }
+        force(position);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private String accepted(String trackingId, PatientRequest request) {
+        try {
+            return ACCEPTED + String.valueOf(SEPARATOR) + trackingId + SEPARATOR
+                    + objectMapper.writeValueAsString(request) + '\n';
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readLine(String line, Map<String, PatientRequest> pending) {
+        if (line.length() < 3) {
+            return;
+        }
+        int idEnd = line.indexOf(SEPARATOR, 2);
+        try {
+            if (line.charAt(0) == ACCEPTED && idEnd > 0) {
+                pending.put(line.substring(2, idEnd),
+                        objectMapper.readValue(line.substring(idEnd + 1), PatientRequest.class));
+            } else if (line.charAt(0) == COMMITTED) {
+                pending.remove(line.substring(2));
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Skipping unreadable admission journal line: {}", line);
+        }
+    }
+
+    private void write(String lines) {
+        ByteBuffer buffer = ByteBuffer.wrap(lines.getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Forces the file unless a force that started after the given write already did. Appends are not blocked
+     * while the device syncs; only callers waiting for a force queue up behind it.
+     */
+    private void force(long position) {
+        if (forcedWrites >= position) {
+            return;
+        }
+        synchronized (forceLock) {
+            if (forcedWrites >= position) {
+                return;
+            }
+            long upTo;
+            synchronized (this) {
+                upTo = writes;
+            }
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            forcedWrites = upTo;
+        }
+    }
+
+    private void truncate() {
+        try {
+            channel.truncate(0);
+            channel.position(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package com.example.interview.service;
+
+import com.example.interview.cache.PatientNameCache;
+import com.example.interview.domain.PatientAdmission;
+import com.example.interview.domain.PatientBulkResult;
+import com.example.interview.domain.PatientKey;
+import com.example.interview.domain.PatientRequest;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.domain.PatientView;
+import com.example.interview.exception.ForbiddenException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Optional write-behind path for admissions ({@code patient.admission.write-behind.enabled}). A request thread
+ * reserves the name in memory, journals the request and enqueues it, then answers 202 with a tracking id without
+ * touching the database. A single writer drains the queue into {@link PatientService#addPatients} batches, so a
+ * burst costs one transaction per batch rather than one per admission. A batch whose write or journal commit fails
+ * is retried with backoff until it succeeds, and only a data integrity violation rejects admissions, one at a time;
+ * whatever is still outstanding at shutdown or after a crash is replayed from the journal on the next start.
+ * A replayed admission may have been written just before the crash, so one rejected for its name counts as added
+ * when the stored patient matches the request.
+ * <p>
+ * The queue starts before the web server accepts requests and stops only after it has shut down gracefully, so
+ * requests are not admitted without a journal; outside that window admissions are turned away as unavailable.
+ * <p>
+ * The queue is bounded by a counter over a lock-free linked queue: a full queue rejects instead of blocking.
+ */
+@Slf4j
+@Component
+public class PatientAdmissionQueue implements SmartLifecycle, MeterBinder {
+    /**
+     * Below the web server, which starts at {@code SMART_LIFECYCLE_PHASE - 1024} and stops after graceful shutdown.
+     */
+    static final int PHASE = WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 2048;
+    private static final long MAX_RETRY_BACKOFF_NANOS = Duration.ofSeconds(5).toNanos();
+
+    private final PatientService patientService;
+    private final PatientNameCache patientNameCache;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Path journalPath;
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Map<String, String> reservations = new ConcurrentHashMap<>();
+    private final Cache<String, PatientAdmission> admissions;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private PatientAdmissionJournal journal;
+    private volatile boolean running;
+    private Thread writer;
+
+    public PatientAdmissionQueue(PatientService patientService, PatientNameCache patientNameCache,
+                                 ObjectMapper objectMapper,
+                                 @Value("${patient.admission.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${patient.admission.capacity:100000}") int capacity,
+                                 @Value("${patient.admission.batch-size:500}") int batchSize,
+                                 @Value("${patient.admission.flush-interval:20ms}") Duration flushInterval,
+                                 @Value("${patient.admission.journal:patient-admissions.wal}") Path journalPath,
+                                 @Value("${patient.admission.status-ttl:1h}") Duration statusTtl) {
+        this.patientService = patientService;
+        this.patientNameCache = patientNameCache;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.journalPath = journalPath;
+        this.admissions = Caffeine.newBuilder()
+                .maximumSize(Math.max(capacity, 1) * 4L)
+                .expireAfterWrite(statusTtl)
+                .build();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accepts a validated request for a later batched insert.
+     *
+     * @return the pending admission, or {@code null} when the queue is full or not running and the caller has to
+     * retry
+     * @throws ForbiddenException when the name is already taken or waiting in the queue
+     */
+    public PatientAdmission admit(PatientRequest request) {
+        if (!running) {
+            return null;
+        }
+        String name = request.getName();
+        String trackingId = epoch + '-' + sequence.incrementAndGet();
+        if (reservations.putIfAbsent(name, trackingId) != null) {
+            log.debug("Patient with same name is already being admitted : {}", name);
+            throw ForbiddenException.notUniqName(name);
+        }
+        PatientKey cached = patientNameCache.getIfPresent(name);
+        if (cached != null && cached.exists()) {
+            reservations.remove(name, trackingId);
+            log.debug("Patient with same name already exists : {}", name);
+            throw ForbiddenException.notUniqName(name);
+        }
+        int size = queued.incrementAndGet();
+        if (size > capacity) {
+            queued.decrementAndGet();
+            reservations.remove(name, trackingId);
+            return null;
+        }
+        try {
+            journal.append(trackingId, request);
+        } catch (RuntimeException e) {
+            queued.decrementAndGet();
+            reservations.remove(name, trackingId);
+            if (!running) {
+                return null;
+            }
+            throw e;
+        }
+        PatientAdmission admission = PatientAdmission.pending(trackingId, name);
+        admissions.put(trackingId, admission);
+        queue.offer(new Pending(trackingId, request, false));
+        if (size == 1) {
+            LockSupport.unpark(writer);
+        }
+        return admission;
+    }
+
+    /**
+     * @return the admission's current state, or {@code null} for an unknown or expired tracking id
+     */
+    public PatientAdmission status(String trackingId) {
+        return admissions.getIfPresent(trackingId);
+    }
+
+    public int pending() {
+        return queued.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("patient.admission.queue.pending", queued, AtomicInteger::get)
+                .description("Admissions accepted but not yet written")
+                .register(registry);
+        Gauge.builder("patient.admission.queue.remaining", queued, size -> capacity - size.get())
+                .register(registry);
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        journal = new PatientAdmissionJournal(journalPath, objectMapper);
+        try {
+            Map<String, PatientRequest> recovered = journal.recover();
+            recovered.forEach((trackingId, request) -> {
+                reservations.put(request.getName(), trackingId);
+                admissions.put(trackingId, PatientAdmission.pending(trackingId, request.getName()));
+                queue.offer(new Pending(trackingId, request, true));
+            });
+            queued.addAndGet(recovered.size());
+            if (!recovered.isEmpty()) {
+                log.warn("Replaying {} admissions from {}", recovered.size(), journalPath);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        running = true;
+        writer = new Thread(this::drain, "admission-writer");
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+            journal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Failed to close the admission journal", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            Pending next;
+            while (batch.size() < batchSize && (next = queue.poll()) != null) {
+                batch.add(next);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            if (!write(batch)) {
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * @return {@code false} when the writer was stopped before the batch could commit; it stays in the journal
+     */
+    private boolean write(List<Pending> batch) {
+        List<PatientRequest> requests = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            requests.add(pending.request);
+        }
+        List<PatientBulkResult> results = insert(requests);
+        if (results == null) {
+            return false;
+        }
+
+        List<String> trackingIds = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            PatientBulkResult result = results.get(i);
+            if (pending.replayed && !result.isAdded()) {
+                Boolean stored = retrying(1, () -> isStored(pending.request));
+                if (stored == null) {
+                    return false;
+                }
+                if (stored) {
+                    result = PatientBulkResult.added(result.getIndex(), result.getName());
+                }
+            }
+            trackingIds.add(pending.trackingId);
+            admissions.put(pending.trackingId, PatientAdmission.of(pending.trackingId, result));
+            reservations.remove(pending.request.getName(), pending.trackingId);
+        }
+        Boolean committed = retrying(batch.size(), () -> {
+            journal.commit(trackingIds);
+            journal.sync();
+            return Boolean.TRUE;
+        });
+        if (committed == null) {
+            return false;
+        }
+        queued.addAndGet(-batch.size());
+        return true;
+    }
+
+    /**
+     * Whether the request is already stored as an active patient, as it is when its batch committed but the crash
+     * came before the journal's commit line.
+     */
+    private boolean isStored(PatientRequest request) {
+        PatientView patient = patientService.findPatient(request.getName(), false);
+        return patient != null && patient.getStatus() == PatientStatus.ACTIVE
+                && Objects.equals(patient.getTemperature(), request.getTemperature())
+                && Objects.equals(patient.getPulse(), request.getPulse())
+                && Objects.equals(patient.getDateOfBirth(), request.getDateOfBirth());
+    }
+
+    /**
+     * Writes the batch in one transaction. A data integrity violation is not going away on a retry, so the batch
+     * falls back to one admission at a time to find out which ones cause it and reject only those.
+     *
+     * @return the results, or {@code null} when the writer was stopped before they were written
+     */
+    private List<PatientBulkResult> insert(List<PatientRequest> requests) {
+        try {
+            return retrying(requests.size(), () -> patientService.addPatients(requests));
+        } catch (DataIntegrityViolationException e) {
+            List<PatientBulkResult> results = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                PatientRequest request = requests.get(i);
+                String name = request.getName();
+                try {
+                    List<PatientBulkResult> result = retrying(1, () -> patientService.addPatients(List.of(request)));
+                    if (result == null) {
+                        return null;
+                    }
+                    results.add(result.get(0));
+                } catch (DuplicateKeyException duplicate) {
+                    patientNameCache.invalidate(name);
+                    results.add(PatientBulkResult.rejected(i, name, ForbiddenException.notUniqName(name).getMessage()));
+                } catch (DataIntegrityViolationException violation) {
+                    log.warn("Rejecting admission of {}: {}", name, violation.getMessage());
+                    results.add(PatientBulkResult.rejected(i, name, "Patient could not be stored"));
+                }
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Runs a step of the writer until it succeeds, backing off between attempts, so an outage of the database or
+     * the journal's disk only delays admissions. Data integrity violations are permanent and thrown.
+     *
+     * @return the step's result, or {@code null} when the writer was stopped before it succeeded
+     */
+    private <T> T retrying(int admissionCount, Supplier<T> step) {
+        long backoff = flushIntervalNanos;
+        while (true) {
+            try {
+                return step.get();
+            } catch (DataIntegrityViolationException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Leaving {} admissions in the journal after a failed write", admissionCount, e);
+                    return null;
+                }
+                log.warn("Retrying {} admissions after a failed write: {}", admissionCount, e.getMessage());
+                LockSupport.parkNanos(this, backoff);
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_NANOS);
+            }
+        }
+    }
+
+    private static final class Pending {
+        private final String trackingId;
+        private final PatientRequest request;
+        private final boolean replayed;
+
+        private Pending(String trackingId, PatientRequest request, boolean replayed) {
+            this.trackingId = trackingId;
+            this.request = request;
+            this.replayed = replayed;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.interview.service;
+
+import com.example.interview.cache.PatientNameCache;
+import com.example.interview.datasource.DatabaseProduct;
+import com.example.interview.event.PatientChangedEvent;
+import com.example.interview.repository.PatientArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Moves patients deleted longer than the retention period from {@code patients} to {@code patients_archive}.
+ * Every batch is its own short transaction that locks at most one batch of already deleted rows, so the job
+ * never holds locks that live traffic waits on. Archived names are free again and are dropped from the name cache
+ * once their batch has committed.
+ */
+@Slf4j
+@Component
+public class PatientArchiver {
+    private final PatientArchiveRepository patientArchiveRepository;
+    private final PatientNameCache patientNameCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter archivedCounter;
+    private final Duration retention;
+    private final int batchSize;
+    private final int maxBatches;
+
+    public PatientArchiver(PatientArchiveRepository patientArchiveRepository, PatientNameCache patientNameCache,
+                           ApplicationEventPublisher eventPublisher, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                           @Value("${patient.archive.retention:30d}") Duration retention,
+                           @Value("${patient.archive.batch-size:1000}") int batchSize,
+                           @Value("${patient.archive.max-batches-per-run:100}") int maxBatches) {
+        this.patientArchiveRepository = patientArchiveRepository;
+        this.patientNameCache = patientNameCache;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archivedCounter = Counter.builder("patient.archive.archived")
+                .description("Deleted patients moved to patients_archive")
+                .register(meterRegistry);
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.maxBatches = maxBatches;
+    }
+
+    /**
+     * @return the number of archived patients
+     */
+    @Scheduled(cron = "${patient.archive.cron:0 */10 * * * *}")
+    public int archive() {
+        Instant cutoff = Instant.now().minus(retention);
+        int total = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            Map<Integer, String> archived = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            archived.values().forEach(patientNameCache::invalidate);
+            total += archived.size();
+            if (archived.size() < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            archivedCounter.increment(total);
+            log.info("Archived {} patients deleted before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private Map<Integer, String> archiveBatch(Instant cutoff) {
+        Map<Integer, String> archived = isPostgres()
+                ? patientArchiveRepository.archiveDeletedBefore(cutoff, batchSize)
+                : patientArchiveRepository.archiveDeletedBeforePortable(cutoff, batchSize);
+        archived.forEach((id, name) -> eventPublisher.publishEvent(PatientChangedEvent.archived(id, name)));
+        return archived;
+    }
+
+    private boolean isPostgres() {
+        return DatabaseProduct.isPostgres(jdbcTemplate.getDataSource());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.interview.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes mutations per patient name over a fixed array of lock stripes. Writers of different names almost
+ * always land on different stripes and never wait for each other, while the memory cost stays constant no matter
+ * how many patients exist. The locks are local to this instance; the unique index on {@code patients.name}
+ * still settles races between instances.
+ */
+@Component
+public class PatientNameLocks {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    public PatientNameLocks(@Value("${patient.locks.stripes:1024}") int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public <T> T withLock(String name, Supplier<T> action) {
+        ReentrantLock lock = stripes[stripeOf(name)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void withLock(String name, Runnable action) {
+        withLock(name, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Holds the stripes of both names, taken in stripe order so that two renames in opposite directions cannot
+     * deadlock.
+     */
+    public void withLocks(String first, String second, Runnable action) {
+        int a = stripeOf(first);
+        int b = stripeOf(second);
+        if (a == b) {
+            withLock(first, action);
+            return;
+        }
+        ReentrantLock outer = stripes[Math.min(a, b)];
+        ReentrantLock inner = stripes[Math.max(a, b)];
+        outer.lock();
+        try {
+            inner.lock();
+            try {
+                action.run();
+            } finally {
+                inner.unlock();
+            }
+        } finally {
+            outer.unlock();
+        }
+    }
+
+    int stripeOf(String name) {
+        int h = Objects.hashCode(name);
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
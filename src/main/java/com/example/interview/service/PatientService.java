@@ -1,17 +1,42 @@
 package com.example.interview.service;
 
+import com.example.interview.domain.CacheStatistics;
+import com.example.interview.domain.PatientBulkResult;
+import com.example.interview.domain.PatientCursor;
+import com.example.interview.domain.PatientFilter;
+import com.example.interview.domain.PatientPage;
 import com.example.interview.domain.PatientRequest;
+import com.example.interview.domain.PatientView;
 import com.example.interview.entity.PatientEntity;
 import org.springframework.stereotype.Service;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public interface PatientService {
      void addPatient(String name, Double temperature, Double pulse, LocalDate dateOfBirth);
+
+     List<PatientBulkResult> addPatients(List<PatientRequest> patientRequests);
+
      void deletePatient(String name);
 
      void updatePatient(String oldName, PatientRequest patientRequest);
 
      List<PatientEntity> showAllActivePatients();
+
+     List<PatientView> showAllActivePatientViews();
+
+     List<PatientView> showActivePatientViews(Collection<String> names);
+
+     PatientPage showActivePatientsPage(PatientCursor after, int size);
+
+     void streamAllActivePatients(Consumer<PatientEntity> consumer);
+
+    PatientPage filterPatients(PatientFilter filter, PatientCursor after, int size);
+
+    PatientView findPatient(String name, boolean includeArchived);
+
+     CacheStatistics nameCacheStatistics();
 }
@@ -1,26 +1,77 @@
 package com.example.interview.service;
 
+import com.example.interview.cache.PatientLookupCache;
+import com.example.interview.cache.PatientNameCache;
+import com.example.interview.domain.CacheStatistics;
+import com.example.interview.domain.PatientBulkResult;
+import com.example.interview.domain.PatientCursor;
+import com.example.interview.domain.PatientFilter;
+import com.example.interview.domain.PatientKey;
+import com.example.interview.domain.PatientPage;
 import com.example.interview.domain.PatientRequest;
 import com.example.interview.domain.PatientStatus;
+import com.example.interview.domain.PatientView;
 import com.example.interview.entity.PatientEntity;
+import com.example.interview.event.PatientChangedEvent;
+import com.example.interview.exception.ConflictException;
 import com.example.interview.exception.ForbiddenException;
+import com.example.interview.repository.PatientArchiveRepository;
+import com.example.interview.repository.PatientJdbcRepository;
 import com.example.interview.repository.PatientRepository;
+import com.example.interview.repository.PatientSpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PatientServiceImpl implements PatientService {
+    private static final Sort KEYSET_ORDER = Sort.by("name", "id");
+
     private final PatientRepository patientRepository;
+    private final PatientJdbcRepository patientJdbcRepository;
+    private final PatientArchiveRepository patientArchiveRepository;
+    private final PatientNameCache patientNameCache;
+    private final PatientLookupCache patientLookupCache;
+    private final PatientNameLocks patientNameLocks;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * A name the cache already knows to be taken is rejected before taking its lock, so a burst of duplicate
+     * admissions does not queue up behind the stripe.
+     */
     @Override
     public void addPatient(String name, Double temperature, Double pulse, LocalDate dateOfBirth) {
-        boolean isUniqName = patientRepository.existsByName(name);
+        PatientKey cached = patientNameCache.getIfPresent(name);
+        if (cached != null && cached.exists()) {
+            log.debug("Patient with same name already exists : {}", name);
+            throw ForbiddenException.notUniqName(name);
+        }
+        patientNameLocks.withLock(name, () -> insertPatient(name, temperature, pulse, dateOfBirth));
+    }
+
+    private void insertPatient(String name, Double temperature, Double pulse, LocalDate dateOfBirth) {
+        boolean isUniqName = nameExists(name);
         if (isUniqName) {
-            log.error("Patient with same name already exists : {}", name);
+            log.debug("Patient with same name already exists : {}", name);
             throw ForbiddenException.notUniqName(name);
         }
         PatientEntity patient = new PatientEntity();
@@ -29,68 +80,307 @@ public class PatientServiceImpl implements PatientService {
         patient.setPulse(pulse);
         patient.setDateOfBirth(dateOfBirth);
         patient.setStatus(PatientStatus.ACTIVE);
-        patientRepository.save(patient);
+        try {
+            patientRepository.save(patient);
+        } catch (DataIntegrityViolationException e) {
+            throw rejectDuplicateInsert(name, e);
+        }
+        patientNameCache.put(name, PatientKey.of(patient));
+        eventPublisher.publishEvent(PatientChangedEvent.added(patient));
+    }
+
+    /**
+     * Validates every row against the column limits, so one bad row is rejected on its own instead of failing the
+     * batch. Names are not locked: a name another writer takes between the existence check and the insert is
+     * skipped by the insert and reported as taken.
+     */
+    @Override
+    @Transactional
+    public List<PatientBulkResult> addPatients(List<PatientRequest> patientRequests) {
+        PatientBulkResult[] results = new PatientBulkResult[patientRequests.size()];
+        Set<String> requestedNames = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < patientRequests.size(); i++) {
+            PatientRequest patientRequest = patientRequests.get(i);
+            String rejection = PatientValidation.validateImportedPatient(patientRequest);
+            String name = patientRequest == null ? null : patientRequest.getName();
+            if (rejection != null) {
+                results[i] = PatientBulkResult.rejected(i, name, rejection);
+            } else if (!requestedNames.add(name)) {
+                results[i] = PatientBulkResult.rejected(i, name, ForbiddenException.notUniqName(name).getMessage());
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        Set<String> existingNames = patientJdbcRepository.findExistingNames(requestedNames);
+        List<PatientEntity> patients = new ArrayList<>(candidates.size());
+        List<Integer> indexes = new ArrayList<>(candidates.size());
+        for (Integer i : candidates) {
+            PatientRequest patientRequest = patientRequests.get(i);
+            String name = patientRequest.getName();
+            if (existingNames.contains(name)) {
+                results[i] = PatientBulkResult.rejected(i, name, ForbiddenException.notUniqName(name).getMessage());
+                continue;
+            }
+            PatientEntity patient = new PatientEntity();
+            patient.setName(name);
+            patient.setTemperature(patientRequest.getTemperature());
+            patient.setPulse(patientRequest.getPulse());
+            patient.setDateOfBirth(patientRequest.getDateOfBirth());
+            patient.setStatus(PatientStatus.ACTIVE);
+            patient.setVersion(0);
+            patients.add(patient);
+            indexes.add(i);
+        }
+        Set<PatientEntity> skipped = Collections.newSetFromMap(new IdentityHashMap<>());
+        skipped.addAll(patientJdbcRepository.insertAll(patients));
+        for (int j = 0; j < patients.size(); j++) {
+            PatientEntity patient = patients.get(j);
+            int i = indexes.get(j);
+            String name = patient.getName();
+            patientNameCache.invalidate(name);
+            if (skipped.contains(patient)) {
+                log.debug("Patient with same name already exists : {}", name);
+                results[i] = PatientBulkResult.rejected(i, name, ForbiddenException.notUniqName(name).getMessage());
+            } else {
+                results[i] = PatientBulkResult.added(i, name);
+                eventPublisher.publishEvent(PatientChangedEvent.added(patient));
+            }
+        }
+        return List.of(results);
     }
 
     @Override
     public void deletePatient(String name) {
-        PatientEntity patient = patientRepository.findByName(name);
+        patientNameLocks.withLock(name, () -> markDeleted(name));
+    }
+
+    private void markDeleted(String name) {
+        PatientEntity patient = findPatient(name);
 
         if (patient == null) {
-            log.error("There is no patient with such name : {}", name);
+            log.debug("There is no patient with such name : {}", name);
             throw ForbiddenException.patientNotFound(name);
         }
         if (patient.getStatus() == PatientStatus.DELETED) {
-            log.error("The patient has already been deleted");
+            log.debug("The patient has already been deleted : {}", name);
             throw ForbiddenException.alreadyDeleted(name);
         }
 
         patient.setStatus(PatientStatus.DELETED);
-        patientRepository.save(patient);
+        patient.setDeletedAt(Instant.now());
+        try {
+            patientRepository.save(patient);
+        } catch (OptimisticLockingFailureException e) {
+            patientNameCache.invalidate(name);
+            log.warn("Patient {} was modified concurrently", name);
+            throw ConflictException.concurrentUpdate(name);
+        }
+        patientNameCache.put(name, PatientKey.of(patient));
+        eventPublisher.publishEvent(PatientChangedEvent.deleted(patient.getId(), name));
     }
 
+    /**
+     * Runs under the stripes of both the old and the new name. The update is a single conditional statement, so
+     * it commits before the locks are released and the next writer of either name sees its result.
+     */
     @Override
     public void updatePatient(String oldName, PatientRequest patientRequest) {
+        String newName = patientRequest.getName();
+        patientNameLocks.withLocks(oldName, newName != null ? newName : oldName,
+                () -> updateCurrent(oldName, patientRequest));
+    }
 
-        PatientEntity patient = patientRepository.findByName(oldName);
+    private void updateCurrent(String oldName, PatientRequest patientRequest) {
+        PatientKey patient = findActivePatientKey(oldName);
         String newName = patientRequest.getName();
-        Double temperature = patientRequest.getTemperature();
-        Double pulse = patientRequest.getPulse();
-        LocalDate dateOfBirth = patientRequest.getDateOfBirth();
+        boolean renamed = newName != null && !newName.equals(oldName);
 
-        if (patient == null) {
-            log.error("There is no patient with such name : {}", oldName);
-            throw ForbiddenException.patientNotFound(oldName);
+        PatientKey clash = renamed ? patientNameCache.getIfPresent(newName) : null;
+        if (clash != null && clash.exists()) {
+            log.debug("Patient with same name already exists : {}", newName);
+            throw ForbiddenException.notUniqName(newName);
         }
 
-        boolean isUniqName = patientRepository.existsByName(newName);
-
-        if (isUniqName) {
-            log.error("Patient with same name already exists : {}", newName);
+        Integer expectedVersion = patientRequest.getVersion();
+        Integer version;
+        try {
+            version = patientJdbcRepository.updateIfCurrent(oldName, patientRequest, expectedVersion);
+        } catch (DuplicateKeyException e) {
+            log.debug("Patient with same name already exists : {}", newName);
             throw ForbiddenException.notUniqName(newName);
         }
+        if (version == null) {
+            throw rejectStaleUpdate(oldName, expectedVersion);
+        }
 
-        if (patient.getStatus() == PatientStatus.DELETED) {
-            log.error("The patient has already been deleted");
-            throw ForbiddenException.alreadyDeleted(oldName);
+        if (renamed) {
+            patientNameCache.put(oldName, PatientKey.ABSENT);
+        }
+        patientNameCache.put(renamed ? newName : oldName,
+                new PatientKey(patient.getId(), PatientStatus.ACTIVE, version));
+        eventPublisher.publishEvent(PatientChangedEvent.updated(patient.getId(), renamed ? newName : oldName,
+                renamed ? oldName : null, patientRequest.getTemperature(), patientRequest.getPulse(),
+                patientRequest.getDateOfBirth(), version));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PatientEntity> showAllActivePatients() {
+        return patientRepository.findAllByStatusOrderByName(PatientStatus.ACTIVE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PatientView> showAllActivePatientViews() {
+        return patientRepository.findViewsByStatusOrderByName(PatientStatus.ACTIVE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PatientView> showActivePatientViews(Collection<String> names) {
+        return patientRepository.findViewsByStatusAndNameIn(PatientStatus.ACTIVE, names);
+    }
+
+    @Override
+    public CacheStatistics nameCacheStatistics() {
+        return patientNameCache.statistics();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PatientPage showActivePatientsPage(PatientCursor after, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<PatientEntity> patients = after == null
+                ? patientRepository.findAllByStatusOrderByNameAscIdAsc(PatientStatus.ACTIVE, limit)
+                : patientRepository.findAllByStatusAfter(PatientStatus.ACTIVE, after.getName(), after.getId(), limit);
+
+        return toPage(patients, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllActivePatients(Consumer<PatientEntity> consumer) {
+        patientJdbcRepository.streamByStatus(PatientStatus.ACTIVE, consumer);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PatientPage filterPatients(PatientFilter filter, PatientCursor after, int size) {
+        List<PatientEntity> patients = patientRepository.findBy(PatientSpecifications.matching(filter, after),
+                query -> query.sortBy(KEYSET_ORDER).limit(size + 1).all());
+        return toPage(patients, size);
+    }
+
+    private boolean nameExists(String name) {
+        PatientKey cached = patientNameCache.getIfPresent(name);
+        if (cached != null) {
+            return cached.exists();
         }
-        if (newName != null) {
-            patient.setName(newName);
+        boolean exists = patientRepository.existsByName(name);
+        if (!exists) {
+            patientNameCache.putAbsent(name);
         }
-        if (temperature != null) {
-            patient.setTemperature(temperature);
+        return exists;
+    }
+
+    /**
+     * Loads the patient by name, rejecting names the cache already knows to be missing or deleted
+     * without a round-trip to the database.
+     */
+    private PatientEntity findPatient(String name) {
+        PatientKey cached = patientNameCache.getIfPresent(name);
+        if (cached == PatientKey.ABSENT) {
+            log.debug("There is no patient with such name : {}", name);
+            throw ForbiddenException.patientNotFound(name);
         }
-        if (pulse != null) {
-            patient.setPulse(pulse);
+        if (cached != null && cached.getStatus() == PatientStatus.DELETED) {
+            log.debug("The patient has already been deleted : {}", name);
+            throw ForbiddenException.alreadyDeleted(name);
         }
-        if (dateOfBirth != null) {
-            patient.setDateOfBirth(dateOfBirth);
+        PatientEntity patient = patientRepository.findByName(name);
+        patientNameCache.put(name, PatientKey.of(patient));
+        return patient;
+    }
+
+    private PatientKey findActivePatientKey(String name) {
+        PatientKey patient = patientNameCache.getIfPresent(name);
+        if (patient == null) {
+            patient = PatientKey.of(patientRepository.findByName(name));
+            patientNameCache.put(name, patient);
         }
-        patientRepository.save(patient);
+        if (!patient.exists()) {
+            log.debug("There is no patient with such name : {}", name);
+            throw ForbiddenException.patientNotFound(name);
+        }
+        if (patient.getStatus() == PatientStatus.DELETED) {
+            log.debug("The patient has already been deleted : {}", name);
+            throw ForbiddenException.alreadyDeleted(name);
+        }
+        return patient;
+    }
+
+    /**
+     * Maps a constraint violation on insert to a duplicate-name rejection when the name has in fact been taken,
+     * which happens when another instance inserted it between our check and our insert.
+     */
+    private RuntimeException rejectDuplicateInsert(String name, DataIntegrityViolationException e) {
+        patientNameCache.invalidate(name);
+        if (!patientRepository.existsByName(name)) {
+            return e;
+        }
+        log.debug("Patient with same name already exists : {}", name);
+        return ForbiddenException.notUniqName(name);
+    }
+
+    /**
+     * Works out why a conditional update matched no row. This costs one extra read, but only on the
+     * rare path where the cached state or the client's version turned out to be stale.
+     */
+    private RuntimeException rejectStaleUpdate(String name, Integer expectedVersion) {
+        PatientEntity current = patientRepository.findByName(name);
+        patientNameCache.put(name, PatientKey.of(current));
+        if (current == null) {
+            log.debug("There is no patient with such name : {}", name);
+            return ForbiddenException.patientNotFound(name);
+        }
+        if (current.getStatus() == PatientStatus.DELETED) {
+            log.debug("The patient has already been deleted : {}", name);
+            return ForbiddenException.alreadyDeleted(name);
+        }
+        log.warn("Patient {} expected at version {} but found at version {}", name, expectedVersion, current.getVersion());
+        return ConflictException.concurrentUpdate(name);
     }
 
+    /**
+     * Looks the name up among live patients first, through the lookup cache, and only when asked to falls back to
+     * the most recently archived patient of that name.
+     */
     @Override
-    public List<PatientEntity> showAllActivePatients() {
-        return patientRepository.findAllByStatusOrderByName(PatientStatus.ACTIVE);
+    public PatientView findPatient(String name, boolean includeArchived) {
+        PatientView patient = patientLookupCache.get(name, this::loadPatientView);
+        if (patient != null) {
+            return patient;
+        }
+        return includeArchived ? patientArchiveRepository.findLatestByName(name) : null;
+    }
+
+    private PatientView loadPatientView(String name) {
+        PatientEntity patient = patientRepository.findByName(name);
+        return patient == null ? null : new PatientView(patient.getId(), patient.getName(), patient.getTemperature(),
+                patient.getPulse(), patient.getDateOfBirth(), patient.getStatus(), patient.getVersion());
+    }
+
+    /**
+     * Turns a keyset query that fetched one row more than the page size into a page and the cursor after it.
+     */
+    private static PatientPage toPage(List<PatientEntity> patients, int size) {
+        if (patients.size() <= size) {
+            return new PatientPage(patients, null);
+        }
+        List<PatientEntity> items = patients.subList(0, size);
+        PatientEntity last = items.get(size - 1);
+        return new PatientPage(items, new PatientCursor(last.getName(), last.getId()).encode());
     }
 }
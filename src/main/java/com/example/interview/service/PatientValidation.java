@@ -0,0 +1,71 @@
+package com.example.interview.service;
+
+import com.example.interview.domain.PatientRequest;
+
+public final class PatientValidation {
+    public static final int NAME_MAX_LENGTH = 30;
+    private static final double TEMPERATURE_LIMIT = 99.95;
+    private static final double PULSE_LIMIT = 999.5;
+
+    private PatientValidation() {
+    }
+
+    /**
+     * Checks the column constraints of the patients table that a new patient has to satisfy.
+     *
+     * @return the rejection message, or {@code null} when the request can be admitted
+     */
+    public static String validateNewPatient(PatientRequest patientRequest) {
+        if (patientRequest == null) {
+            return "Patient request is required";
+        }
+        String name = patientRequest.getName();
+        if (name == null || name.isBlank()) {
+            return "Patient name is required";
+        }
+        if (name.length() > NAME_MAX_LENGTH) {
+            return String.format("Patient name %s is longer than %d characters", name, NAME_MAX_LENGTH);
+        }
+        if (patientRequest.getDateOfBirth() == null) {
+            return String.format("Patient %s has no date of birth", name);
+        }
+        return null;
+    }
+
+    /**
+     * Adds to {@link #validateNewPatient} the precision of the {@code numeric(3,1)} temperature and
+     * {@code numeric(3)} pulse columns. A single insert reports an overflow as a database error, but in a set-based
+     * import one such row would abort the whole load.
+     */
+    public static String validateImportedPatient(PatientRequest patientRequest) {
+        String rejection = validateNewPatient(patientRequest);
+        if (rejection != null) {
+            return rejection;
+        }
+        if (!temperatureFits(patientRequest.getTemperature())) {
+            return String.format("Patient %s has a temperature out of range", patientRequest.getName());
+        }
+        if (!pulseFits(patientRequest.getPulse())) {
+            return String.format("Patient %s has a pulse out of range", patientRequest.getName());
+        }
+        return null;
+    }
+
+    /**
+     * Whether the temperature fits the {@code numeric(3,1)} columns of patients and of their vitals.
+     */
+    public static boolean temperatureFits(Double temperature) {
+        return fits(temperature, TEMPERATURE_LIMIT);
+    }
+
+    /**
+     * Whether the pulse fits the {@code numeric(3)} columns of patients and of their vitals.
+     */
+    public static boolean pulseFits(Double pulse) {
+        return fits(pulse, PULSE_LIMIT);
+    }
+
+    private static boolean fits(Double value, double limit) {
+        return value == null || Math.abs(value) < limit;
+    }
+}
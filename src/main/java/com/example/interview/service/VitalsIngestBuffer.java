@@ -0,0 +1,151 @@
+package com.example.interview.service;
+
+import com.example.interview.domain.VitalReading;
+import com.example.interview.repository.VitalsJdbcRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded in-memory buffer between the ingest endpoint and the database. Request threads only enqueue and never
+ * wait; a single flusher thread drains whatever has accumulated, up to {@code patient.vitals.batch-size} readings,
+ * into one batched insert. Batches therefore grow with the ingest rate.
+ * <p>
+ * The readings were already acknowledged, so a failed flush is not a reason to drop them: a batch is retried with
+ * backoff while the database is unavailable, and a batch the database rejects is split until the readings at fault
+ * are isolated and only those are dropped.
+ */
+@Slf4j
+@Component
+public class VitalsIngestBuffer implements SmartLifecycle, MeterBinder {
+    private static final long MAX_RETRY_BACKOFF_NANOS = Duration.ofSeconds(5).toNanos();
+
+    private final VitalsJdbcRepository vitalsJdbcRepository;
+    private final BlockingQueue<VitalReading> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public VitalsIngestBuffer(VitalsJdbcRepository vitalsJdbcRepository,
+                              @Value("${patient.vitals.buffer-capacity:200000}") int capacity,
+                              @Value("${patient.vitals.batch-size:5000}") int batchSize,
+                              @Value("${patient.vitals.flush-interval:200ms}") Duration flushInterval) {
+        this.vitalsJdbcRepository = vitalsJdbcRepository;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+    }
+
+    /**
+     * Queues as many readings as fit without blocking.
+     *
+     * @return the number of readings accepted, the rest have to be retried by the caller
+     */
+    public int offer(List<VitalReading> readings) {
+        int accepted = 0;
+        for (VitalReading reading : readings) {
+            if (!queue.offer(reading)) {
+                break;
+            }
+            accepted++;
+        }
+        return accepted;
+    }
+
+    public int pending() {
+        return queue.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("patient.vitals.buffer.pending", queue, BlockingQueue::size)
+                .description("Vital readings accepted but not yet written")
+                .register(registry);
+        Gauge.builder("patient.vitals.buffer.remaining", queue, BlockingQueue::remainingCapacity)
+                .register(registry);
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = new Thread(this::drain, "vitals-flusher");
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drain() {
+        List<VitalReading> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                VitalReading first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<VitalReading> batch) {
+        long backoff = flushIntervalNanos;
+        while (true) {
+            try {
+                vitalsJdbcRepository.insertAll(batch);
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (batch.size() == 1) {
+                    log.warn("Dropping a vital reading of patient {} the database rejected: {}",
+                            batch.get(0).getPatientId(), e.getMessage());
+                    return;
+                }
+                int half = batch.size() / 2;
+                flush(batch.subList(0, half));
+                flush(batch.subList(half, batch.size()));
+                return;
+            } catch (RuntimeException e) {
+                if (!running) {
+                    log.error("Dropping {} vital readings after a failed flush at shutdown", batch.size(), e);
+                    return;
+                }
+                log.warn("Retrying {} vital readings after a failed flush: {}", batch.size(), e.getMessage());
+                LockSupport.parkNanos(this, backoff);
+                backoff = Math.min(backoff * 2, MAX_RETRY_BACKOFF_NANOS);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.interview.service;
+
+import com.example.interview.datasource.DatabaseProduct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Keeps monthly range partitions of {@code patient_vitals} created ahead of time, so readings never land in the
+ * default partition. Only Postgres has the partitioned table; other databases are skipped.
+ * <p>
+ * A month's partition cannot be declared while the default partition holds rows of that month, so the partition
+ * is created detached, any such rows are moved into it, and it is attached afterwards, all in one transaction.
+ * Instances running this at the same time are serialized by an advisory lock.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VitalsPartitionMaintainer {
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    static final int MONTHS_AHEAD = 2;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${patient.vitals.partitions.cron:0 0 3 * * *}")
+    public void createUpcomingPartitions() {
+        if (!isPostgres()) {
+            return;
+        }
+        YearMonth month = YearMonth.now();
+        for (int i = 0; i <= MONTHS_AHEAD; i++) {
+            createPartition(month.plusMonths(i));
+        }
+    }
+
+    private void createPartition(YearMonth month) {
+        String partition = "patient_vitals_" + month.format(PARTITION_SUFFIX);
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(transaction -> {
+                jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext('patient_vitals_partitions'))", resultSet -> {
+                });
+                if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL",
+                        Boolean.class, partition))) {
+                    return;
+                }
+                jdbcTemplate.execute(String.format("CREATE TABLE %s (LIKE patient_vitals INCLUDING DEFAULTS "
+                        + "INCLUDING CONSTRAINTS)", partition));
+                int moved = jdbcTemplate.update(String.format("WITH moved AS (DELETE FROM patient_vitals_default "
+                        + "WHERE measured_at >= '%s' AND measured_at < '%s' RETURNING *) "
+                        + "INSERT INTO %s SELECT * FROM moved", from, to, partition));
+                jdbcTemplate.execute(String.format("ALTER TABLE patient_vitals ATTACH PARTITION %s "
+                        + "FOR VALUES FROM ('%s') TO ('%s')", partition, from, to));
+                if (moved > 0) {
+                    log.warn("Moved {} vitals readings of {} out of the default partition", moved, month);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not create vitals partition for {}", month, e);
+        }
+    }
+
+    private boolean isPostgres() {
+        return DatabaseProduct.isPostgres(jdbcTemplate.getDataSource());
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.interview.service;
+
+import com.example.interview.domain.VitalBucket;
+import com.example.interview.domain.VitalReading;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@Service
+public interface VitalsService {
+    int recordVitals(List<VitalReading> readings);
+
+    VitalReading latestVitals(int patientId);
+
+    List<VitalBucket> vitalsHistory(int patientId, Instant from, Instant to, Duration bucket);
+}
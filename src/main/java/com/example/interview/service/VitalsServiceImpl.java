@@ -0,0 +1,80 @@
+package com.example.interview.service;
+
+import com.example.interview.domain.VitalBucket;
+import com.example.interview.domain.VitalReading;
+import com.example.interview.repository.VitalsJdbcRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class VitalsServiceImpl implements VitalsService {
+    private final VitalsIngestBuffer vitalsIngestBuffer;
+    private final VitalsJdbcRepository vitalsJdbcRepository;
+
+    @Value("${patient.vitals.max-buckets:10000}")
+    private long maxBuckets;
+
+    @Value("${patient.vitals.max-age:30d}")
+    private Duration maxAge = Duration.ofDays(30);
+
+    /**
+     * Rejects the whole request when any reading is invalid. The buffer writes readings of many requests in one
+     * insert, so a reading that does not fit its columns must never get that far. Readings must also be measured
+     * within {@code patient.vitals.max-age} of now and no further ahead than the partitions kept by
+     * {@link VitalsPartitionMaintainer}: a reading of a month without its partition would go to the default
+     * partition and keep that month from ever being partitioned.
+     */
+    @Override
+    public int recordVitals(List<VitalReading> readings) {
+        ZonedDateTime clock = ZonedDateTime.now();
+        Instant now = clock.toInstant();
+        Instant earliest = now.minus(maxAge);
+        Instant latest = clock.plusMonths(VitalsPartitionMaintainer.MONTHS_AHEAD).toInstant();
+        for (VitalReading reading : readings) {
+            if (reading.getPatientId() == null) {
+                throw new IllegalArgumentException("Vital reading without patient id");
+            }
+            if (reading.getTemperature() == null && reading.getPulse() == null) {
+                throw new IllegalArgumentException("Vital reading without temperature and pulse for patient "
+                        + reading.getPatientId());
+            }
+            if (!PatientValidation.temperatureFits(reading.getTemperature())
+                    || !PatientValidation.pulseFits(reading.getPulse())) {
+                throw new IllegalArgumentException("Vital reading out of range for patient " + reading.getPatientId());
+            }
+            if (reading.getMeasuredAt() == null) {
+                reading.setMeasuredAt(now);
+            } else if (reading.getMeasuredAt().isBefore(earliest) || reading.getMeasuredAt().isAfter(latest)) {
+                throw new IllegalArgumentException("Vital reading of patient " + reading.getPatientId()
+                        + " measured outside " + earliest + " to " + latest);
+            }
+        }
+        return vitalsIngestBuffer.offer(readings);
+    }
+
+    @Override
+    public VitalReading latestVitals(int patientId) {
+        return vitalsJdbcRepository.findLatest(patientId);
+    }
+
+    @Override
+    public List<VitalBucket> vitalsHistory(int patientId, Instant from, Instant to, Duration bucket) {
+        long bucketSeconds = bucket.toSeconds();
+        if (bucketSeconds <= 0) {
+            throw new IllegalArgumentException("Bucket must be at least one second");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Range start must be before its end");
+        }
+        if (Duration.between(from, to).toSeconds() / bucketSeconds > maxBuckets) {
+            throw new IllegalArgumentException("Range holds more than " + maxBuckets + " buckets");
+        }
+        return vitalsJdbcRepository.findBuckets(patientId, from, to, bucketSeconds);
+    }
+}
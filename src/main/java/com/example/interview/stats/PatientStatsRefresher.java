@@ -0,0 +1,65 @@
+package com.example.interview.stats;
+
+import com.example.interview.datasource.DatabaseProduct;
+import com.example.interview.domain.PatientStatistics;
+import com.example.interview.repository.PatientStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serves patient statistics from memory. On a schedule one instance refreshes the {@code patient_stats}
+ * materialized view concurrently, so readers of the view are never blocked, and every instance then re-reads its
+ * few rows. A request never touches the patients table and costs the same whatever its size.
+ */
+@Slf4j
+@Component
+public class PatientStatsRefresher {
+    private final PatientStatsRepository patientStatsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate refreshTemplate;
+    private final TransactionTemplate readTemplate;
+    private volatile PatientStatistics current;
+
+    public PatientStatsRefresher(PatientStatsRepository patientStatsRepository, JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager) {
+        this.patientStatsRepository = patientStatsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.refreshTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+    }
+
+    public PatientStatistics get() {
+        PatientStatistics statistics = current;
+        return statistics != null ? statistics : reload();
+    }
+
+    @Scheduled(fixedDelayString = "${patient.stats.refresh-interval-millis:60000}",
+            initialDelayString = "${patient.stats.refresh-interval-millis:60000}")
+    public void refresh() {
+        if (isPostgres()) {
+            long start = System.nanoTime();
+            if (Boolean.TRUE.equals(refreshTemplate.execute(status -> patientStatsRepository.refresh()))) {
+                log.debug("Refreshed patient_stats in {} ms", (System.nanoTime() - start) / 1_000_000);
+            }
+        }
+        reload();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public PatientStatistics reload() {
+        PatientStatistics statistics = readTemplate.execute(status -> patientStatsRepository.load());
+        current = statistics;
+        return statistics;
+    }
+
+    private boolean isPostgres() {
+        return DatabaseProduct.isPostgres(jdbcTemplate.getDataSource());
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.interview.reactive;
+
+import com.example.interview.domain.PatientRequest;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.domain.PatientView;
+import com.example.interview.entity.PatientEntity;
+import com.example.interview.exception.ConflictException;
+import com.example.interview.exception.ForbiddenException;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs the reactive service against H2 through R2DBC and expects the outcomes {@code PatientServiceImpl} produces
+ * for the same add, update and delete requests.
+ */
+public class ReactivePatientServiceImplTest {
+    private JdbcTemplate jdbcTemplate;
+    private ReactivePatientRepository patientRepository;
+    private ReactivePatientService service;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        String database = "reactive-" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + database, "sa", "");
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM patients");
+
+        H2ConnectionFactory connectionFactory = new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .url("mem:" + database)
+                .username("sa")
+                .build());
+        patientRepository = new ReactivePatientRepository(DatabaseClient.create(connectionFactory));
+        service = new ReactivePatientServiceImpl(patientRepository);
+    }
+
+    @Test
+    public void testAddPatient_StoresAnActivePatient() {
+        service.addPatient(request("Anna", 36.6, 70.0)).block();
+
+        PatientView patient = patientRepository.findByName("Anna").block();
+        assertEquals(PatientStatus.ACTIVE, patient.getStatus());
+        assertEquals(36.6, patient.getTemperature());
+        assertEquals(70.0, patient.getPulse());
+        assertEquals(0, patient.getVersion());
+    }
+
+    @Test
+    public void testAddPatient_DuplicateNameIsRejected() {
+        service.addPatient(request("Anna", 36.6, 70.0)).block();
+
+        ForbiddenException e = assertThrows(ForbiddenException.class,
+                () -> service.addPatient(request("Anna", 37.0, 80.0)).block());
+
+        assertEquals(ForbiddenException.Reason.NOT_UNIQ_NAME, e.getReason());
+    }
+
+    @Test
+    public void testAddPatient_ValueThatDoesNotFitIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> service.addPatient(request("Anna", 1000.0, 70.0)).block());
+
+        assertEquals(0, count());
+    }
+
+    @Test
+    public void testAddPatient_IdsAreTakenFromSequenceBlocks() {
+        for (int i = 0; i < PatientEntity.ID_ALLOCATION_SIZE + 10; i++) {
+            service.addPatient(request("Patient " + i, 36.6, 70.0)).block();
+        }
+
+        List<Integer> ids = jdbcTemplate.queryForList("SELECT id FROM patients ORDER BY id", Integer.class);
+        assertEquals(PatientEntity.ID_ALLOCATION_SIZE + 10, ids.size());
+        assertEquals(1, ids.get(0));
+        assertEquals(PatientEntity.ID_ALLOCATION_SIZE + 10, ids.get(ids.size() - 1));
+        assertEquals(2 * PatientEntity.ID_ALLOCATION_SIZE + 1,
+                jdbcTemplate.queryForObject("SELECT nextval('" + PatientEntity.ID_SEQUENCE + "')", Integer.class));
+    }
+
+    @Test
+    public void testAddPatient_ConcurrentAddsGetDistinctIds() {
+        int patients = 3 * PatientEntity.ID_ALLOCATION_SIZE;
+
+        Flux.range(0, patients)
+                .flatMap(i -> service.addPatient(request("Patient " + i, 36.6, 70.0)), 16)
+                .blockLast();
+
+        assertEquals(patients, count());
+        assertEquals(patients, jdbcTemplate.queryForObject("SELECT count(DISTINCT id) FROM patients", Integer.class));
+    }
+
+    @Test
+    public void testDeletePatient_MarksThePatientDeleted() {
+        service.addPatient(request("Anna", 36.6, 70.0)).block();
+
+        service.deletePatient("Anna").block();
+
+        PatientView patient = patientRepository.findByName("Anna").block();
+        assertEquals(PatientStatus.DELETED, patient.getStatus());
+        assertEquals(1, patient.getVersion());
+    }
+
+    @Test
+    public void testDeletePatient_AlreadyDeletedIsRejected() {
+        service.addPatient(request("Anna", 36.6, 70.0)).block();
+        service.deletePatient("Anna").block();
+
+        ForbiddenException e = assertThrows(ForbiddenException.class, () -> service.deletePatient("Anna").block());
+
+        assertEquals(ForbiddenException.Reason.ALREADY_DELETED, e.getReason());
+    }
+
+    @Test
+    public void testDeletePatient_MissingPatientIsRejected() {
+        ForbiddenException e = assertThrows(ForbiddenException.class, () -> service.deletePatient("Anna").block());
+
+        assertEquals(ForbiddenException.Reason.PATIENT_NOT_FOUND, e.getReason());
+    }
+
+    @Test
+    public void testUpdatePatient_ChangesOnlyTheGivenFields() {
+        service.addPatient(request("Anna", 36.6, 70.0)).block();
+        PatientRequest update = new PatientRequest();
+        update.setName("Anna Maria");
+        update.setPulse(80.0);
+
+        service.updatePatient("Anna", update).block();
+
+        PatientView patient = patientRepository.findByName("Anna Maria").block();
+        assertEquals(36.6, patient.getTemperature());
+        assertEquals(80.0, patient.getPulse());
+        assertEquals(1, patient.getVersion());
+        assertEquals(1, count());
+    }
+
+    @Test
+    public void testUpdatePatient_RenameToTakenNameIsRejected() {
+        service.addPatient(request("Anna", 36.6, 70.0)).block();
+        service.addPatient(request("Rita", 36.6, 70.0)).block();
+
+        ForbiddenException e = assertThrows(ForbiddenException.class,
+                () -> service.updatePatient("Anna", request("Rita", 37.0, 80.0)).block());
+
+        assertEquals(ForbiddenException.Reason.NOT_UNIQ_NAME, e.getReason());
+        assertEquals(36.6, patientRepository.findByName("Anna").block().getTemperature());
+    }
+
+    @Test
+    public void testUpdatePatient_StaleVersionIsAConflict() {
+        service.addPatient(request("Anna", 36.6, 70.0)).block();
+        service.updatePatient("Anna", request(null, 37.0, null)).block();
+        PatientRequest stale = request(null, 38.0, null);
+        stale.setVersion(0);
+
+        assertThrows(ConflictException.class, () -> service.updatePatient("Anna", stale).block());
+
+        assertEquals(37.0, patientRepository.findByName("Anna").block().getTemperature());
+    }
+
+    @Test
+    public void testUpdatePatient_DeletedPatientIsRejected() {
+        service.addPatient(request("Anna", 36.6, 70.0)).block();
+        service.deletePatient("Anna").block();
+
+        ForbiddenException e = assertThrows(ForbiddenException.class,
+                () -> service.updatePatient("Anna", request(null, 37.0, null)).block());
+
+        assertEquals(ForbiddenException.Reason.ALREADY_DELETED, e.getReason());
+    }
+
+    @Test
+    public void testUpdatePatient_MissingPatientIsRejected() {
+        ForbiddenException e = assertThrows(ForbiddenException.class,
+                () -> service.updatePatient("Anna", request(null, 37.0, null)).block());
+
+        assertEquals(ForbiddenException.Reason.PATIENT_NOT_FOUND, e.getReason());
+    }
+
+    private int count() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM patients", Integer.class);
+    }
+
+    private static PatientRequest request(String name, Double temperature, Double pulse) {
+        PatientRequest request = new PatientRequest();
+        request.setName(name);
+        request.setTemperature(temperature);
+        request.setPulse(pulse);
+        request.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        return request;
+    }
+}
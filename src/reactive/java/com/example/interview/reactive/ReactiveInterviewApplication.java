@@ -0,0 +1,35 @@
+package com.example.interview.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.liquibase.LiquibaseAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Entry point of the reactive deployment: WebFlux on Netty over R2DBC, serving the same {@code api/patient}
+ * contract as the servlet application. Only this package is scanned, the blocking JDBC and JPA stack stays off.
+ * The schema is still owned by the Liquibase changelog of the servlet application.
+ */
+@Profile(ReactiveInterviewApplication.PROFILE)
+@SpringBootApplication(exclude = {
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        JdbcTemplateAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        LiquibaseAutoConfiguration.class
+})
+public class ReactiveInterviewApplication {
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveInterviewApplication.class)
+                .profiles(PROFILE)
+                .web(WebApplicationType.REACTIVE)
+                .run(args);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.interview.reactive;
+
+import com.example.interview.domain.PatientPage;
+import com.example.interview.domain.PatientRequest;
+import com.example.interview.domain.PatientView;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RequestMapping("api/patient")
+public interface ReactivePatientController {
+
+    @PostMapping(value = "/add")
+    Mono<ResponseEntity<String>> addPatient(@RequestBody(required = false) PatientRequest patientRequest);
+
+    @PostMapping(value = "/delete")
+    Mono<ResponseEntity<String>> setPatientDeleted(@RequestParam(required = false) String name);
+
+    @PostMapping(value = "/update")
+    Mono<ResponseEntity<String>> updatePatient(@RequestParam(required = false) String oldName,
+                                               @RequestBody(required = false) PatientRequest patientRequest);
+
+    @GetMapping(value = "/allActive")
+    Flux<PatientView> showAllActivePatients();
+
+    @GetMapping(value = "/allActive/page")
+    Mono<ResponseEntity<PatientPage>> showActivePatientsPage(@RequestParam(required = false) String cursor,
+                                                             @RequestParam(required = false) Integer size);
+
+    @GetMapping(value = "/allActive/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    Flux<PatientView> streamAllActivePatients();
+}
@@ -0,0 +1,85 @@
+package com.example.interview.reactive;
+
+import com.example.interview.domain.PatientCursor;
+import com.example.interview.domain.PatientPage;
+import com.example.interview.domain.PatientRequest;
+import com.example.interview.domain.PatientView;
+import com.example.interview.exception.ConflictException;
+import com.example.interview.exception.ForbiddenException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RestController
+@Profile(ReactiveInterviewApplication.PROFILE)
+@RequiredArgsConstructor
+public class ReactivePatientControllerImpl implements ReactivePatientController {
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final ReactivePatientService patientService;
+
+    @Value("${patient.page.max-size:1000}")
+    private int maxPageSize;
+
+    @Override
+    public Mono<ResponseEntity<String>> addPatient(PatientRequest patientRequest) {
+        if (patientRequest == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return respond(patientService.addPatient(patientRequest), "Patient was added");
+    }
+
+    @Override
+    public Mono<ResponseEntity<String>> setPatientDeleted(String name) {
+        return respond(patientService.deletePatient(name), "Patient was deleted");
+    }
+
+    @Override
+    public Mono<ResponseEntity<String>> updatePatient(String oldName, PatientRequest patientRequest) {
+        if (patientRequest == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return respond(patientService.updatePatient(oldName, patientRequest), "Patient was updated");
+    }
+
+    @Override
+    public Flux<PatientView> showAllActivePatients() {
+        return patientService.streamAllActivePatients();
+    }
+
+    @Override
+    public Mono<ResponseEntity<PatientPage>> showActivePatientsPage(String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize <= 0 || pageSize > maxPageSize) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        PatientCursor after;
+        try {
+            after = cursor == null ? null : PatientCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return patientService.showActivePatientsPage(after, pageSize).map(ResponseEntity::ok);
+    }
+
+    @Override
+    public Flux<PatientView> streamAllActivePatients() {
+        return patientService.streamAllActivePatients();
+    }
+
+    private static Mono<ResponseEntity<String>> respond(Mono<Void> action, String message) {
+        return action
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(message)))
+                .onErrorResume(ForbiddenException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage())))
+                .onErrorResume(ConflictException.class,
+                        e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage())))
+                .onErrorResume(IllegalArgumentException.class,
+                        e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.interview.reactive;
+
+import com.example.interview.domain.PatientRequest;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.domain.PatientView;
+import com.example.interview.entity.PatientEntity;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Repository
+@Profile(ReactiveInterviewApplication.PROFILE)
+@RequiredArgsConstructor
+public class ReactivePatientRepository {
+    private static final String COLUMNS = "id, name, temperature, pulse, date_of_birth, status, version";
+
+    private static final String SELECT_BY_NAME = "select " + COLUMNS + " from patients where name = :name";
+    private static final String EXISTS_BY_NAME = "select exists(select 1 from patients where name = :name)";
+    private static final String SELECT_ACTIVE = "select " + COLUMNS
+            + " from patients where status = 'ACTIVE' order by name, id";
+    private static final String SELECT_ACTIVE_PAGE = "select " + COLUMNS + " from patients where status = 'ACTIVE' "
+            + "order by name, id limit :limit";
+    private static final String SELECT_ACTIVE_PAGE_AFTER = "select " + COLUMNS + " from patients "
+            + "where status = 'ACTIVE' and (name > :name or (name = :name and id > :id)) order by name, id limit :limit";
+
+    private static final String NEXT_ID_BLOCK = "select nextval('" + PatientEntity.ID_SEQUENCE + "')";
+    private static final String INSERT_PATIENT = "insert into patients "
+            + "(id, name, temperature, pulse, date_of_birth, status, version) "
+            + "values (:id, :name, :temperature, :pulse, :dateOfBirth, 'ACTIVE', 0)";
+    private static final String MARK_DELETED = "update patients set status = 'DELETED', deleted_at = now(), "
+            + "version = version + 1 where name = :name and status = 'ACTIVE'";
+    private static final String UPDATE_IF_CURRENT = "update patients set name = coalesce(:newName, name), "
+            + "temperature = coalesce(:temperature, temperature), pulse = coalesce(:pulse, pulse), "
+            + "date_of_birth = coalesce(:dateOfBirth, date_of_birth), version = version + 1 "
+            + "where name = :name and status = 'ACTIVE' and version = coalesce(:version, version)";
+
+    private final DatabaseClient databaseClient;
+
+    @Value("${patient.stream.fetch-size:500}")
+    private int fetchSize;
+
+    private final Object idBlockLock = new Object();
+    private int nextId;
+    private int idBlockEnd;
+
+    public Mono<Boolean> existsByName(String name) {
+        return databaseClient.sql(EXISTS_BY_NAME)
+                .bind("name", name)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    public Mono<PatientView> findByName(String name) {
+        return databaseClient.sql(SELECT_BY_NAME)
+                .bind("name", name)
+                .map(ReactivePatientRepository::mapView)
+                .one();
+    }
+
+    /**
+     * Emits active patients as the database cursor advances. Rows are fetched {@code fetchSize} at a time and only
+     * as fast as the subscriber requests them, so a slow client holds back the query instead of buffering it.
+     */
+    public Flux<PatientView> streamActive() {
+        return databaseClient.sql(SELECT_ACTIVE)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactivePatientRepository::mapView)
+                .all();
+    }
+
+    public Flux<PatientView> findActivePage(String afterName, Integer afterId, int limit) {
+        DatabaseClient.GenericExecuteSpec spec = afterName == null
+                ? databaseClient.sql(SELECT_ACTIVE_PAGE)
+                : databaseClient.sql(SELECT_ACTIVE_PAGE_AFTER).bind("name", afterName).bind("id", afterId);
+        return spec.bind("limit", limit)
+                .map(ReactivePatientRepository::mapView)
+                .all();
+    }
+
+    public Mono<Long> insert(String name, Double temperature, Double pulse, LocalDate dateOfBirth) {
+        return nextId().flatMap(id -> {
+            DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(INSERT_PATIENT)
+                    .bind("id", id)
+                    .bind("name", name);
+            spec = bindNullable(spec, "temperature", temperature, Double.class);
+            spec = bindNullable(spec, "pulse", pulse, Double.class);
+            spec = bindNullable(spec, "dateOfBirth", dateOfBirth, LocalDate.class);
+            return spec.fetch().rowsUpdated();
+        });
+    }
+
+    /**
+     * Hands out ids the pooled-lo way, like Hibernate in the servlet application: each {@code nextval} reserves
+     * the next {@link PatientEntity#ID_ALLOCATION_SIZE} ids, so the sequence is read once per block instead of
+     * burning a whole block per insert. When two inserts fetch a block at the same time, the one that finds the
+     * current block refilled takes from it and its own block goes unused.
+     */
+    private Mono<Integer> nextId() {
+        synchronized (idBlockLock) {
+            if (nextId < idBlockEnd) {
+                return Mono.just(nextId++);
+            }
+        }
+        return databaseClient.sql(NEXT_ID_BLOCK)
+                .map(row -> row.get(0, Long.class))
+                .one()
+                .map(blockStart -> {
+                    synchronized (idBlockLock) {
+                        if (nextId < idBlockEnd) {
+                            return nextId++;
+                        }
+                        nextId = blockStart.intValue() + 1;
+                        idBlockEnd = blockStart.intValue() + PatientEntity.ID_ALLOCATION_SIZE;
+                        return blockStart.intValue();
+                    }
+                });
+    }
+
+    /**
+     * @return the number of updated rows, {@code 0} when the patient is missing or already deleted
+     */
+    public Mono<Long> markDeleted(String name) {
+        return databaseClient.sql(MARK_DELETED)
+                .bind("name", name)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Same conditional single-statement update as the servlet application's JDBC repository; without an expected
+     * version it only requires the patient to be active.
+     *
+     * @return the number of updated rows, {@code 0} when the patient is missing, deleted or at another version
+     */
+    public Mono<Long> updateIfCurrent(String name, PatientRequest patientRequest, Integer expectedVersion) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(UPDATE_IF_CURRENT).bind("name", name);
+        spec = bindNullable(spec, "version", expectedVersion, Integer.class);
+        spec = bindNullable(spec, "newName", patientRequest.getName(), String.class);
+        spec = bindNullable(spec, "temperature", patientRequest.getTemperature(), Double.class);
+        spec = bindNullable(spec, "pulse", patientRequest.getPulse(), Double.class);
+        spec = bindNullable(spec, "dateOfBirth", patientRequest.getDateOfBirth(), LocalDate.class);
+        return spec.fetch().rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                  String name, Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    /**
+     * Temperature and pulse are {@code numeric} columns, which R2DBC drivers are only required to decode as
+     * {@link BigDecimal}.
+     */
+    private static Double toDouble(BigDecimal value) {
+        return value == null ? null : value.doubleValue();
+    }
+
+    private static PatientView mapView(Readable row) {
+        return new PatientView(row.get("id", Integer.class), row.get("name", String.class),
+                toDouble(row.get("temperature", BigDecimal.class)), toDouble(row.get("pulse", BigDecimal.class)),
+                row.get("date_of_birth", LocalDate.class), PatientStatus.valueOf(row.get("status", String.class)),
+                row.get("version", Integer.class));
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.interview.reactive;
+
+import com.example.interview.domain.PatientCursor;
+import com.example.interview.domain.PatientPage;
+import com.example.interview.domain.PatientRequest;
+import com.example.interview.domain.PatientView;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactivePatientService {
+
+    Mono<Void> addPatient(PatientRequest patientRequest);
+
+    Mono<Void> deletePatient(String name);
+
+    Mono<Void> updatePatient(String oldName, PatientRequest patientRequest);
+
+    Flux<PatientView> streamAllActivePatients();
+
+    Mono<PatientPage> showActivePatientsPage(PatientCursor after, int size);
+}
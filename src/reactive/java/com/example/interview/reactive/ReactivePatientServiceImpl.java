@@ -0,0 +1,126 @@
+package com.example.interview.reactive;
+
+import com.example.interview.domain.PatientCursor;
+import com.example.interview.domain.PatientPage;
+import com.example.interview.domain.PatientRequest;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.domain.PatientView;
+import com.example.interview.entity.PatientEntity;
+import com.example.interview.exception.ConflictException;
+import com.example.interview.exception.ForbiddenException;
+import com.example.interview.service.PatientValidation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@code PatientServiceImpl}. It applies the same rules and rejections, but every
+ * write is a single statement so no reactive transaction has to be held open across round-trips.
+ */
+@Service
+@Profile(ReactiveInterviewApplication.PROFILE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactivePatientServiceImpl implements ReactivePatientService {
+    private final ReactivePatientRepository patientRepository;
+
+    /**
+     * Rejects a request that does not fit the table with 400, as the servlet application does.
+     */
+    @Override
+    public Mono<Void> addPatient(PatientRequest patientRequest) {
+        String rejection = PatientValidation.validateImportedPatient(patientRequest);
+        if (rejection != null) {
+            return Mono.error(new IllegalArgumentException(rejection));
+        }
+        String name = patientRequest.getName();
+        return patientRepository.existsByName(name)
+                .flatMap(exists -> {
+                    if (exists) {
+                        log.debug("Patient with same name already exists : {}", name);
+                        return Mono.error(ForbiddenException.notUniqName(name));
+                    }
+                    return patientRepository.insert(name, patientRequest.getTemperature(),
+                            patientRequest.getPulse(), patientRequest.getDateOfBirth());
+                })
+                .onErrorMap(DataIntegrityViolationException.class, e -> ForbiddenException.notUniqName(name))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> deletePatient(String name) {
+        return patientRepository.markDeleted(name)
+                .flatMap(updated -> updated > 0 ? Mono.<Void>empty() : patientRepository.findByName(name)
+                        .flatMap(patient -> Mono.<Void>error(ForbiddenException.alreadyDeleted(name)))
+                        .switchIfEmpty(Mono.error(() -> ForbiddenException.patientNotFound(name))))
+                .then();
+    }
+
+    @Override
+    public Mono<Void> updatePatient(String oldName, PatientRequest patientRequest) {
+        String newName = patientRequest.getName();
+        return findActivePatient(oldName)
+                .flatMap(patient -> {
+                    Integer expectedVersion = patientRequest.getVersion();
+                    return patientRepository.updateIfCurrent(oldName, patientRequest, expectedVersion)
+                            .onErrorMap(DataIntegrityViolationException.class,
+                                    e -> ForbiddenException.notUniqName(newName))
+                            .flatMap(updated -> updated > 0
+                                    ? Mono.<Void>empty() : rejectStaleUpdate(oldName, expectedVersion));
+                });
+    }
+
+    @Override
+    public Flux<PatientView> streamAllActivePatients() {
+        return patientRepository.streamActive();
+    }
+
+    @Override
+    public Mono<PatientPage> showActivePatientsPage(PatientCursor after, int size) {
+        return patientRepository.findActivePage(after == null ? null : after.getName(),
+                        after == null ? null : after.getId(), size + 1)
+                .map(ReactivePatientServiceImpl::toEntity)
+                .collectList()
+                .map(patients -> {
+                    if (patients.size() <= size) {
+                        return new PatientPage(patients, null);
+                    }
+                    List<PatientEntity> items = patients.subList(0, size);
+                    PatientEntity last = items.get(size - 1);
+                    return new PatientPage(items, new PatientCursor(last.getName(), last.getId()).encode());
+                });
+    }
+
+    private Mono<PatientView> findActivePatient(String name) {
+        return patientRepository.findByName(name)
+                .switchIfEmpty(Mono.error(() -> ForbiddenException.patientNotFound(name)))
+                .flatMap(patient -> patient.getStatus() == PatientStatus.DELETED
+                        ? Mono.error(ForbiddenException.alreadyDeleted(name)) : Mono.just(patient));
+    }
+
+    private Mono<Void> rejectStaleUpdate(String name, Integer expectedVersion) {
+        return findActivePatient(name)
+                .flatMap(current -> {
+                    log.warn("Patient {} expected at version {} but found at version {}",
+                            name, expectedVersion, current.getVersion());
+                    return Mono.error(ConflictException.concurrentUpdate(name));
+                });
+    }
+
+    private static PatientEntity toEntity(PatientView view) {
+        PatientEntity patient = new PatientEntity();
+        patient.setId(view.getId());
+        patient.setName(view.getName());
+        patient.setTemperature(view.getTemperature());
+        patient.setPulse(view.getPulse());
+        patient.setDateOfBirth(view.getDateOfBirth());
+        patient.setStatus(view.getStatus());
+        patient.setVersion(view.getVersion());
+        return patient;
+    }
+}
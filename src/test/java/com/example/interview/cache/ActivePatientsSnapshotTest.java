@@ -0,0 +1,92 @@
+package com.example.interview.cache;
+
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.domain.PatientView;
+import com.example.interview.event.PatientChangedEvent;
+import com.example.interview.event.PatientsChangedElsewhereEvent;
+import com.example.interview.service.PatientService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.time.LocalDate;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class ActivePatientsSnapshotTest {
+    @Mock
+    private PatientService service;
+
+    private ActivePatientsSnapshot snapshot;
+
+    @BeforeEach
+    public void setUp() {
+        snapshot = new ActivePatientsSnapshot(service, new ObjectMapper().registerModule(new JavaTimeModule()), true);
+    }
+
+    @Test
+    public void testGet_ServesSameBytesUntilChanged() {
+        when(service.showAllActivePatientViews()).thenReturn(List.of(view(1, "Rita", 36.6)));
+
+        ActivePatientsSnapshot.Snapshot first = snapshot.get();
+        ActivePatientsSnapshot.Snapshot second = snapshot.get();
+
+        assertSame(first, second);
+        verify(service, times(1)).showAllActivePatientViews();
+    }
+
+    @Test
+    public void testOnPatientChanged_AppliesMutationsWithoutRequery() {
+        when(service.showAllActivePatientViews()).thenReturn(List.of(view(1, "Rita", 36.6), view(2, "Margo", 37.0)));
+        ActivePatientsSnapshot.Snapshot before = snapshot.get();
+
+        snapshot.onPatientChanged(PatientChangedEvent.updated(1, "Anna", "Rita", 38.5, null, null, 1));
+        snapshot.onPatientChanged(PatientChangedEvent.deleted(2, "Margo"));
+        ActivePatientsSnapshot.Snapshot after = snapshot.get();
+
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertEquals("[{\"id\":1,\"name\":\"Anna\",\"temperature\":38.5,\"pulse\":70.0,"
+                + "\"dateOfBirth\":[2002,9,7],\"status\":\"ACTIVE\",\"version\":1}]", new String(after.getJson()));
+        verify(service, times(1)).showAllActivePatientViews();
+    }
+
+    @Test
+    public void testOnPatientsChangedElsewhere_RereadsOnlyThoseRows() {
+        when(service.showAllActivePatientViews()).thenReturn(List.of(view(1, "Rita", 36.6), view(2, "Margo", 37.0)));
+        when(service.showActivePatientViews(List.of("Margo"))).thenReturn(List.of(view(2, "Margo", 39.0)));
+        ActivePatientsSnapshot.Snapshot before = snapshot.get();
+
+        snapshot.onPatientsChangedElsewhere(new PatientsChangedElsewhereEvent(List.of("Margo")));
+        ActivePatientsSnapshot.Snapshot after = snapshot.get();
+
+        assertNotEquals(before.getEtag(), after.getEtag());
+        assertTrue(new String(after.getJson()).contains("\"temperature\":39.0"));
+        assertSame(after, snapshot.get());
+        verify(service, times(1)).showAllActivePatientViews();
+    }
+
+    @Test
+    public void testOnPatientsChangedElsewhere_ReloadsWhenEverythingMayHaveChanged() {
+        when(service.showAllActivePatientViews()).thenReturn(List.of(view(1, "Rita", 36.6)));
+        snapshot.get();
+
+        snapshot.onPatientsChangedElsewhere(new PatientsChangedElsewhereEvent(List.of()));
+        snapshot.get();
+
+        verify(service, times(2)).showAllActivePatientViews();
+    }
+
+    private PatientView view(int id, String name, double temperature) {
+        return new PatientView(id, name, temperature, 70.0, LocalDate.of(2002, 9, 7), PatientStatus.ACTIVE, 0);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.interview.cache;
+
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.domain.PatientView;
+import com.example.interview.event.PatientChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Two invalidators with their own caches, as on two instances, talking over a real PostgreSQL channel.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class PatientCacheInvalidationPostgresTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private final PatientLookupCache firstCache = new PatientLookupCache(null, 100, Duration.ofMinutes(1));
+    private final PatientLookupCache secondCache = new PatientLookupCache(null, 100, Duration.ofMinutes(1));
+    private final AtomicInteger loads = new AtomicInteger();
+    private PatientCacheInvalidator first;
+    private PatientCacheInvalidator second;
+
+    @BeforeEach
+    public void start() throws InterruptedException {
+        first = invalidator(firstCache);
+        second = invalidator(secondCache);
+        first.start();
+        second.start();
+        await(() -> first.isListening() && second.isListening());
+    }
+
+    @AfterEach
+    public void stop() {
+        first.stop();
+        second.stop();
+    }
+
+    @Test
+    public void testChangeOnOneInstance_ReachesTheOther() throws InterruptedException {
+        PatientView rita = new PatientView(1, "Rita", 36.6, 60.0, LocalDate.of(1990, 1, 1), PatientStatus.ACTIVE, 1);
+        secondCache.get("Rita", name -> load(rita));
+
+        first.onPatientChanged(PatientChangedEvent.deleted(1, "Rita"));
+
+        await(() -> {
+            secondCache.get("Rita", name -> load(rita));
+            return loads.get() == 2;
+        });
+        assertEquals(2, loads.get());
+    }
+
+    private PatientView load(PatientView view) {
+        loads.incrementAndGet();
+        return view;
+    }
+
+    private static PatientCacheInvalidator invalidator(PatientLookupCache lookupCache) {
+        DataSourceProperties dataSource = new DataSourceProperties();
+        dataSource.setUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        return new PatientCacheInvalidator(lookupCache, new PatientNameCache(100), dataSource, event -> {
+        }, true, "patient_cache", Duration.ofMillis(20), 10_000);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.interview.cache;
+
+import com.example.interview.datasource.ReplicaRouting;
+import com.example.interview.domain.PatientKey;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.domain.PatientView;
+import com.example.interview.event.PatientChangedEvent;
+import com.example.interview.event.PatientsChangedElsewhereEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Two instances sharing an in-memory stand-in for the shared tier, with the notifications of one handed to the
+ * other directly instead of over PostgreSQL.
+ */
+public class PatientCacheInvalidatorTest {
+    private final InMemorySharedPatientCache shared = new InMemorySharedPatientCache();
+    private final Node first = new Node(shared, 10_000);
+    private final Node second = new Node(shared, 10_000);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void testChangeOnOneInstance_EvictsEveryTier() {
+        PatientView before = view("Rita", 1);
+        assertEquals(before, second.lookupCache.get("Rita", name -> load(before)));
+        assertEquals(before, first.lookupCache.get("Rita", name -> load(before)));
+        assertEquals(1, loads.get());
+        second.nameCache.put("Rita", new PatientKey(1, PatientStatus.ACTIVE, 1));
+
+        first.invalidator.onPatientChanged(PatientChangedEvent.deleted(1, "Rita"));
+        first.invalidator.drainPayloads().forEach(second.invalidator::onNotification);
+
+        PatientView after = view("Rita", 2);
+        assertEquals(after, second.lookupCache.get("Rita", name -> load(after)));
+        assertEquals(2, loads.get());
+        assertNull(second.nameCache.getIfPresent("Rita"));
+    }
+
+    @Test
+    public void testLoad_ReadsFromThePrimary() {
+        AtomicBoolean pinned = new AtomicBoolean();
+
+        first.lookupCache.get("Rita", name -> {
+            pinned.set(ReplicaRouting.isPinnedToPrimary());
+            return null;
+        });
+
+        assertTrue(pinned.get());
+        assertFalse(ReplicaRouting.isPinnedToPrimary());
+    }
+
+    @Test
+    public void testNotification_ReportsTheNamesAsChangedElsewhere() {
+        first.invalidator.onPatientChanged(PatientChangedEvent.updated(1, "Margarita", "Rita", null, null, null, 2));
+        first.invalidator.drainPayloads().forEach(second.invalidator::onNotification);
+
+        assertEquals(1, second.events.size());
+        assertEquals(Set.of("Margarita", "Rita"), Set.copyOf(second.events.get(0).getNames()));
+        assertTrue(first.events.isEmpty());
+    }
+
+    @Test
+    public void testRename_EvictsBothNames() {
+        second.lookupCache.get("Rita", name -> null);
+        second.lookupCache.get("Margarita", name -> null);
+
+        first.invalidator.onPatientChanged(PatientChangedEvent.updated(1, "Margarita", "Rita", null, null, null, 2));
+        first.invalidator.drainPayloads().forEach(second.invalidator::onNotification);
+
+        second.lookupCache.get("Rita", name -> load(null));
+        second.lookupCache.get("Margarita", name -> load(null));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testOwnNotification_IsIgnored() {
+        first.nameCache.put("Rita", new PatientKey(1, PatientStatus.ACTIVE, 1));
+
+        first.invalidator.onPatientChanged(PatientChangedEvent.deleted(1, "Margarita"));
+        first.invalidator.drainPayloads().forEach(first.invalidator::onNotification);
+
+        assertEquals(PatientStatus.ACTIVE, first.nameCache.getIfPresent("Rita").getStatus());
+    }
+
+    @Test
+    public void testImportNotification_EvictsEverything() {
+        second.lookupCache.get("Rita", name -> null);
+        second.nameCache.put("Anna", new PatientKey(2, PatientStatus.ACTIVE, 1));
+
+        second.invalidator.onNotification(PatientCacheInvalidator.evictAllPayload("import"));
+
+        second.lookupCache.get("Rita", name -> load(null));
+        assertEquals(1, loads.get());
+        assertNull(second.nameCache.getIfPresent("Anna"));
+        assertTrue(second.events.get(0).isEverything());
+    }
+
+    @Test
+    public void testTooManyPendingNames_EvictEverythingInstead() {
+        Node overflowing = new Node(shared, 2);
+        second.lookupCache.get("Anna", name -> null);
+        for (int i = 0; i < 3; i++) {
+            overflowing.invalidator.onPatientChanged(PatientChangedEvent.deleted(i, "Rita" + i));
+        }
+
+        List<String> payloads = overflowing.invalidator.drainPayloads();
+        payloads.forEach(second.invalidator::onNotification);
+
+        assertEquals(1, payloads.size());
+        assertTrue(payloads.get(0).endsWith("\n"));
+        second.lookupCache.get("Anna", name -> load(null));
+        assertEquals(1, loads.get());
+        assertTrue(second.events.get(0).isEverything());
+        assertTrue(overflowing.invalidator.drainPayloads().isEmpty());
+    }
+
+    @Test
+    public void testManyChanges_AreSplitIntoNotificationsThatFit() {
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            String name = "Patient with a rather long name number " + i;
+            names.add(name);
+            first.invalidator.onPatientChanged(PatientChangedEvent.deleted(i, name));
+        }
+
+        List<String> payloads = first.invalidator.drainPayloads();
+
+        Set<String> delivered = new HashSet<>();
+        for (String payload : payloads) {
+            assertTrue(payload.getBytes(StandardCharsets.UTF_8).length < 8000);
+            List<String> lines = List.of(payload.split("\n"));
+            delivered.addAll(lines.subList(1, lines.size()));
+        }
+        assertTrue(payloads.size() > 1);
+        assertEquals(names, delivered);
+        assertTrue(first.invalidator.drainPayloads().isEmpty());
+    }
+
+    private PatientView load(PatientView view) {
+        loads.incrementAndGet();
+        return view;
+    }
+
+    private static PatientView view(String name, int version) {
+        return new PatientView(1, name, 36.6, 60.0, LocalDate.of(1990, 1, 1), PatientStatus.ACTIVE, version);
+    }
+
+    private static final class Node {
+        private final PatientLookupCache lookupCache;
+        private final PatientNameCache nameCache = new PatientNameCache(100);
+        private final List<PatientsChangedElsewhereEvent> events = new ArrayList<>();
+        private final PatientCacheInvalidator invalidator;
+
+        private Node(SharedPatientCache shared, int maxPending) {
+            lookupCache = new PatientLookupCache(shared, 100, Duration.ofMinutes(1));
+            DataSourceProperties dataSource = new DataSourceProperties();
+            dataSource.setUrl("jdbc:postgresql://localhost:5432/test");
+            invalidator = new PatientCacheInvalidator(lookupCache, nameCache, dataSource,
+                    event -> events.add((PatientsChangedElsewhereEvent) event), true, "patient_cache",
+                    Duration.ofMillis(100), maxPending);
+        }
+    }
+
+    private static final class InMemorySharedPatientCache implements SharedPatientCache {
+        private final Map<String, PatientView> views = new ConcurrentHashMap<>();
+
+        @Override
+        public PatientView get(String name) {
+            return views.get(name);
+        }
+
+        @Override
+        public void put(String name, PatientView view) {
+            views.put(name, view);
+        }
+
+        @Override
+        public void evict(Collection<String> names) {
+            names.forEach(views::remove);
+        }
+    }
+}
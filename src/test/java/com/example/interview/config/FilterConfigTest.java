@@ -0,0 +1,66 @@
+package com.example.interview.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.mock.env.MockEnvironment;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.IOException;
+import java.time.Duration;
+
+public class FilterConfigTest {
+    private final FilterConfig filterConfig = new FilterConfig();
+
+    @Test
+    public void testConcurrencyLimitFilter_DefaultLimitsFitTheConnectionPool() throws IOException {
+        StandardEnvironment environment = environment("application.properties");
+
+        assertDoesNotThrow(() -> filterConfig.concurrencyLimitFilter(environment, true, Duration.ZERO,
+                new SimpleMeterRegistry()));
+    }
+
+    @Test
+    public void testConcurrencyLimitFilter_VirtualThreadLimitsFitTheConnectionPool() throws IOException {
+        StandardEnvironment environment = environment("application-virtual.properties", "application.properties");
+
+        assertDoesNotThrow(() -> filterConfig.concurrencyLimitFilter(environment, true, Duration.ZERO,
+                new SimpleMeterRegistry()));
+    }
+
+    @Test
+    public void testConcurrencyLimitFilter_LimitsBeyondTheConnectionPoolAreRejected() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "20")
+                .withProperty("patient.concurrency.read.max-limit", "200");
+
+        assertThrows(IllegalStateException.class, () -> filterConfig.concurrencyLimitFilter(environment, true,
+                Duration.ZERO, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    public void testConcurrencyLimitFilter_DisabledFilterIsNotChecked() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("patient.concurrency.read.max-limit", "200");
+
+        assertDoesNotThrow(() -> filterConfig.concurrencyLimitFilter(environment, false, Duration.ZERO,
+                new SimpleMeterRegistry()));
+    }
+
+    /**
+     * @param files properties files, the first one taking precedence
+     */
+    private static StandardEnvironment environment(String... files) throws IOException {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.setConversionService(new ApplicationConversionService());
+        for (String file : files) {
+            environment.getPropertySources().addLast(new PropertiesPropertySource(file,
+                    PropertiesLoaderUtils.loadProperties(new ClassPathResource(file))));
+        }
+        return environment;
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.interview.config;
+
+import com.example.interview.cache.ActivePatientsSnapshot;
+import com.example.interview.controller.PatientControllerImpl;
+import com.example.interview.domain.PatientPage;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.entity.PatientEntity;
+import com.example.interview.export.PatientCsvExporter;
+import com.example.interview.feed.PatientChangeFeed;
+import com.example.interview.importer.PatientImporter;
+import com.example.interview.search.PatientSearchIndex;
+import com.example.interview.service.PatientAdmissionQueue;
+import com.example.interview.service.PatientService;
+import com.example.interview.stats.PatientStatsRefresher;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.env.PropertiesPropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@WebMvcTest(PatientControllerImpl.class)
+@Import(WireFormatConfig.class)
+public class WireFormatConfigTest {
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+    private static final MediaType CBOR = MediaType.parseMediaType("application/cbor");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private PatientService patientService;
+    @MockBean
+    private ActivePatientsSnapshot activePatientsSnapshot;
+    @MockBean
+    private PatientChangeFeed patientChangeFeed;
+    @MockBean
+    private PatientSearchIndex patientSearchIndex;
+    @MockBean
+    private PatientAdmissionQueue patientAdmissionQueue;
+    @MockBean
+    private PatientCsvExporter patientCsvExporter;
+    @MockBean
+    private PatientImporter patientImporter;
+    @MockBean
+    private PatientStatsRefresher patientStatsRefresher;
+
+    @Test
+    public void testBinaryFormats_NegotiatedByAcceptAndDecodeToTheJsonTree() throws Exception {
+        when(patientService.showActivePatientsPage(any(), anyInt())).thenReturn(page());
+
+        JsonNode json = objectMapper.readTree(body(MediaType.APPLICATION_JSON));
+        JsonNode smile = new ObjectMapper(new SmileFactory()).readTree(body(SMILE));
+        JsonNode cbor = new ObjectMapper(new CBORFactory()).readTree(body(CBOR));
+
+        assertEquals("Rita", json.at("/items/0/name").asText());
+        assertEquals(json, smile);
+        assertEquals(json, cbor);
+    }
+
+    @Test
+    public void testAnyAccept_StaysJson() throws Exception {
+        when(patientService.showActivePatientsPage(any(), anyInt())).thenReturn(page());
+
+        MvcResult result = mockMvc.perform(get("/api/patient/allActive/page").accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        assertEquals(MediaType.APPLICATION_JSON,
+                MediaType.parseMediaType(result.getResponse().getContentType()));
+    }
+
+    @Test
+    public void testSmileRequestBody_IsDecoded() throws Exception {
+        byte[] request = new ObjectMapper(new SmileFactory()).writeValueAsBytes(Map.of("name", "Rita",
+                "temperature", 36.6, "pulse", 70.0, "dateOfBirth", "2002-09-07"));
+
+        mockMvc.perform(post("/api/patient/add").contentType(SMILE).content(request))
+                .andExpect(status().isOk());
+
+        verify(patientService).addPatient("Rita", 36.6, 70.0, LocalDate.of(2002, 9, 7));
+    }
+
+    /**
+     * Compression is done by the servlet container, which MockMvc bypasses, so this runs a bare Tomcat with the
+     * compression settings of {@code application.properties}.
+     */
+    @Test
+    public void testCompression_OnlyAboveTheMinimumSize() throws Exception {
+        ServerProperties server = new Binder(ConfigurationPropertySources.from(new PropertiesPropertySource("app",
+                PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties")))))
+                .bind("server", ServerProperties.class)
+                .get();
+        TomcatServletWebServerFactory factory = new TomcatServletWebServerFactory(0);
+        factory.setCompression(server.getCompression());
+        WebServer webServer = factory.getWebServer(context -> context.addServlet("bytes", new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+                int size = Integer.parseInt(request.getParameter("size"));
+                response.setContentType(request.getParameter("type"));
+                response.setContentLength(size);
+                response.getOutputStream().write(new byte[size]);
+            }
+        }).addMapping("/*"));
+        webServer.start();
+        try {
+            String base = "http://localhost:" + webServer.getPort() + "/?size=";
+            assertEquals("gzip", contentEncoding(base + 3072 + "&type=application/json"));
+            assertEquals("gzip", contentEncoding(base + 3072 + "&type=application/x-jackson-smile"));
+            assertEquals("gzip", contentEncoding(base + 3072 + "&type=application/cbor"));
+            assertNull(contentEncoding(base + 1024 + "&type=application/json"));
+        } finally {
+            webServer.stop();
+        }
+    }
+
+    private byte[] body(MediaType accept) throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/patient/allActive/page").accept(accept))
+                .andExpect(status().isOk())
+                .andReturn();
+        assertEquals(accept, MediaType.parseMediaType(result.getResponse().getContentType()));
+        return result.getResponse().getContentAsByteArray();
+    }
+
+    private static String contentEncoding(String uri) throws Exception {
+        HttpResponse<byte[]> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create(uri))
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip").build(), HttpResponse.BodyHandlers.ofByteArray());
+        return response.headers().firstValue(HttpHeaders.CONTENT_ENCODING).orElse(null);
+    }
+
+    private static PatientPage page() {
+        PatientEntity rita = new PatientEntity();
+        rita.setId(1);
+        rita.setName("Rita");
+        rita.setTemperature(36.6);
+        rita.setPulse(70.0);
+        rita.setDateOfBirth(LocalDate.of(2002, 9, 7));
+        rita.setStatus(PatientStatus.ACTIVE);
+        rita.setVersion(3);
+        return new PatientPage(List.of(rita), "next-cursor");
+    }
+}
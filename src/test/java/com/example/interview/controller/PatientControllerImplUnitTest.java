@@ -1,26 +1,49 @@
 package com.example.interview.controller;
 
+import com.example.interview.cache.ActivePatientsSnapshot;
+import com.example.interview.domain.PatientAdmission;
+import com.example.interview.domain.PatientBulkResult;
+import com.example.interview.domain.PatientCursor;
+import com.example.interview.domain.PatientImportSummary;
+import com.example.interview.domain.PatientPage;
 import com.example.interview.domain.PatientRequest;
 import com.example.interview.domain.PatientStatus;
 import com.example.interview.entity.PatientEntity;
+import com.example.interview.exception.ConflictException;
 import com.example.interview.exception.ForbiddenException;
+import com.example.interview.export.PatientCsvExporter;
+import com.example.interview.importer.PatientImporter;
 import com.example.interview.repository.PatientRepository;
+import com.example.interview.service.PatientAdmissionQueue;
 import com.example.interview.service.PatientService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -33,6 +56,16 @@ public class PatientControllerImplUnitTest {
 
     @Mock
     private PatientRepository repository;
+
+    @Mock
+    private ActivePatientsSnapshot snapshot;
+
+    @Mock
+    private PatientAdmissionQueue admissionQueue;
+    @Mock
+    private PatientCsvExporter csvExporter;
+    @Mock
+    private PatientImporter importer;
     @InjectMocks
     private PatientControllerImpl controller;
 
@@ -47,6 +80,103 @@ public class PatientControllerImplUnitTest {
                 .addPatient("Rita", 36.6, 120.0, LocalDate.of(2002, 9, 7));
     }
 
+    @Test
+    public void testAddPatient_OutOfRangePulse_IsBadRequest() {
+        PatientRequest patientRequest = patientRequest();
+        patientRequest.setPulse(1000.0);
+
+        ResponseEntity<String> responseEntity = controller.addPatient(patientRequest);
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        assertEquals("Patient Rita has a pulse out of range", responseEntity.getBody());
+        verify(service, never()).addPatient(anyString(), any(), any(), any());
+    }
+
+    @Test
+    public void testAddPatient_WriteBehind_AcceptedWithTrackingId() {
+        PatientRequest patientRequest = patientRequest();
+        when(admissionQueue.isEnabled()).thenReturn(true);
+        when(admissionQueue.admit(patientRequest)).thenReturn(PatientAdmission.pending("t-1", "Rita"));
+
+        ResponseEntity<String> responseEntity = controller.addPatient(patientRequest);
+
+        assertEquals(HttpStatus.ACCEPTED, responseEntity.getStatusCode());
+        assertEquals("t-1", responseEntity.getBody());
+        assertEquals("/api/patient/admissions/t-1", responseEntity.getHeaders().getLocation().toString());
+        verify(service, never()).addPatient(anyString(), any(), any(), any());
+    }
+
+    @Test
+    public void testAddPatient_WriteBehindOutOfRangeTemperature_IsBadRequest() {
+        PatientRequest patientRequest = patientRequest();
+        patientRequest.setTemperature(100.0);
+        lenient().when(admissionQueue.isEnabled()).thenReturn(true);
+
+        ResponseEntity<String> responseEntity = controller.addPatient(patientRequest);
+
+        assertEquals(HttpStatus.BAD_REQUEST, responseEntity.getStatusCode());
+        verify(admissionQueue, never()).admit(any());
+    }
+
+    @Test
+    public void testAddPatient_WriteBehind_QueueFull() {
+        PatientRequest patientRequest = patientRequest();
+        when(admissionQueue.isEnabled()).thenReturn(true);
+        when(admissionQueue.admit(patientRequest)).thenReturn(null);
+
+        ResponseEntity<String> responseEntity = controller.addPatient(patientRequest);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, responseEntity.getStatusCode());
+        assertEquals("1", responseEntity.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void testExportPatients_GzippedAttachmentOfRequestedStatuses() throws Exception {
+        List<PatientStatus> statuses = List.of(PatientStatus.ACTIVE, PatientStatus.DELETED);
+
+        ResponseEntity<StreamingResponseBody> response = controller.exportPatients(statuses, true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(PatientCsvExporter.APPLICATION_GZIP, response.getHeaders().getContentType());
+        assertEquals("patients.csv.gz", response.getHeaders().getContentDisposition().getFilename());
+        verify(csvExporter, times(1)).export(statuses, out, true);
+    }
+
+    @Test
+    public void testImportPatients_ReturnsCountsAndRejects() throws Exception {
+        when(importer.isSupported()).thenReturn(true);
+        when(importer.importCsv(any(), any())).thenAnswer(invocation -> {
+            Writer rejects = invocation.getArgument(1);
+            rejects.write("line,name,reason\n3,Rita,Patient with name Rita already exists\n");
+            return new PatientImportSummary(2, 1, 1);
+        });
+
+        ResponseEntity<StreamingResponseBody> response = controller.importPatients(null,
+                new ByteArrayInputStream("name,date_of_birth\n".getBytes(StandardCharsets.UTF_8)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst("Import-Rows"));
+        assertEquals("1", response.getHeaders().getFirst("Import-Added"));
+        assertEquals("1", response.getHeaders().getFirst("Import-Rejected"));
+        assertEquals("line,name,reason\n3,Rita,Patient with name Rita already exists\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testImportPatients_BadHeader_BadRequest() throws Exception {
+        when(importer.isSupported()).thenReturn(true);
+        when(importer.importCsv(any(), any())).thenThrow(new IllegalArgumentException("no name column"));
+
+        ResponseEntity<StreamingResponseBody> response = controller.importPatients(null,
+                new ByteArrayInputStream("pulse\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
     @Test
     public void tesAddPatient_ForbiddenException_NotUniqName() {
         PatientRequest patientRequest = patientRequest();
@@ -150,6 +280,20 @@ public class PatientControllerImplUnitTest {
     }
 
 
+    @Test
+    public void tetUpdatePatient_ConflictException() {
+        String oldName = "Rita";
+        PatientRequest patientRequest = patientRequest();
+        ConflictException conflictException = ConflictException.concurrentUpdate(oldName);
+
+        doThrow(conflictException).when(service).updatePatient(oldName, patientRequest);
+
+        ResponseEntity<String> response = controller.updatePatient(oldName, patientRequest);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(conflictException.getMessage(), response.getBody());
+    }
+
     @Test
     public void testShowAllActivePatients_Success() {
         List<PatientEntity> allActivePatients = addPatients();
@@ -162,6 +306,61 @@ public class PatientControllerImplUnitTest {
         verifyPatients(allActivePatients, response.getBody());
     }
 
+    @Test
+    public void testShowActivePatientsSnapshot_Success() {
+        byte[] json = "[]".getBytes();
+        when(snapshot.get()).thenReturn(new ActivePatientsSnapshot.Snapshot(json, "\"a-1\""));
+
+        ResponseEntity<byte[]> response = controller.showActivePatientsSnapshot(null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"a-1\"", response.getHeaders().getETag());
+        assertEquals(json, response.getBody());
+    }
+
+    @Test
+    public void testShowActivePatientsSnapshot_NotModified() {
+        when(snapshot.get()).thenReturn(new ActivePatientsSnapshot.Snapshot("[]".getBytes(), "\"a-1\""));
+
+        ResponseEntity<byte[]> response = controller.showActivePatientsSnapshot("\"a-1\"");
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    public void testShowActivePatientsPage_Success() {
+        PatientPage page = new PatientPage(addPatients(), null);
+        String cursor = new PatientCursor("Name0", 1).encode();
+        ReflectionTestUtils.setField(controller, "maxPageSize", 100);
+        when(service.showActivePatientsPage(any(), eq(4))).thenReturn(page);
+
+        ResponseEntity<PatientPage> response = controller.showActivePatientsPage(cursor, 4);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    public void testAddPatients_OverMaxSize_IsTooLarge() {
+        ReflectionTestUtils.setField(controller, "maxBulkSize", 1);
+
+        ResponseEntity<List<PatientBulkResult>> response = controller.addPatients(List.of(new PatientRequest(),
+                new PatientRequest()));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+        verify(service, never()).addPatients(any());
+    }
+
+    @Test
+    public void testShowActivePatientsPage_MalformedCursor() {
+        ReflectionTestUtils.setField(controller, "maxPageSize", 100);
+        ResponseEntity<PatientPage> response = controller.showActivePatientsPage("not-a-cursor", 4);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(service, never()).showActivePatientsPage(any(), anyInt());
+    }
+
     private void verifyPatients(List<PatientEntity> allActivePatients, List<PatientEntity> responsePatients) {
         assertSoftly((softAssertions) -> {
             softAssertions.assertThat(responsePatients.stream().map(PatientEntity::getId).collect(Collectors.toList()))
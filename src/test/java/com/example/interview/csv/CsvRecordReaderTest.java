@@ -0,0 +1,42 @@
+package com.example.interview.csv;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.List;
+
+public class CsvRecordReaderTest {
+
+    @Test
+    public void testNext_KeepsQuotedLineBreaksAndTracksLines() throws Exception {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(
+                "name,note\r\nRita,\"two\nlines\"\n\nAnna,\"say \"\"hi\"\"\"\nOlga,"));
+
+        assertEquals("name,note", reader.next());
+        assertEquals(1, reader.line());
+        assertEquals("Rita,\"two\nlines\"", reader.next());
+        assertEquals(2, reader.line());
+        assertEquals("Anna,\"say \"\"hi\"\"\"", reader.next());
+        assertEquals(5, reader.line());
+        assertEquals("Olga,", reader.next());
+        assertEquals(6, reader.line());
+        assertNull(reader.next());
+    }
+
+    @Test
+    public void testSplitAndWrite_RoundTrip() throws Exception {
+        List<String> fields = Arrays.asList("Rita", null, "", "O\"Brien, Jack", "a\nb");
+        StringBuilder record = new StringBuilder();
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) {
+                record.append(',');
+            }
+            CsvFields.write(record, fields.get(i));
+        }
+
+        assertEquals("Rita,,\"\",\"O\"\"Brien, Jack\",\"a\nb\"", record.toString());
+        assertEquals(fields, CsvFields.split(record.toString()));
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.interview.datasource;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+public class DatabaseProductTest {
+    @Test
+    public void testIsPostgres_AsksTheDatabaseOnce() throws SQLException {
+        DataSource dataSource = dataSource("PostgreSQL");
+
+        assertTrue(DatabaseProduct.isPostgres(dataSource));
+        assertTrue(DatabaseProduct.isPostgres(dataSource));
+
+        verify(dataSource, times(1)).getConnection();
+    }
+
+    @Test
+    public void testIsPostgres_OtherProductIsNot() throws SQLException {
+        assertFalse(DatabaseProduct.isPostgres(dataSource("H2")));
+    }
+
+    @Test
+    public void testIsPostgres_UnreachableDatabaseIsNotAndIsAskedAgain() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        assertFalse(DatabaseProduct.isPostgres(dataSource));
+        assertFalse(DatabaseProduct.isPostgres(dataSource));
+
+        verify(dataSource, times(2)).getConnection();
+    }
+
+    private static DataSource dataSource(String product) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(metaData.getDatabaseProductName()).thenReturn(product);
+        return dataSource;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.interview.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+public class ReplicaRoutingDataSourceTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final HikariDataSource replica1 = mock(HikariDataSource.class);
+    private final HikariDataSource replica2 = mock(HikariDataSource.class);
+    private final Connection replica1Connection = mock(Connection.class);
+    private final Connection replica2Connection = mock(Connection.class);
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        stubReplica(replica1, "replica-1", replica1Connection);
+        stubReplica(replica2, "replica-2", replica2Connection);
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2), Duration.ofSeconds(10),
+                meterRegistry);
+        routing.afterPropertiesSet();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReplicaRouting.clear();
+    }
+
+    @Test
+    public void testReadWriteTransaction_GoesToPrimary() throws SQLException {
+        assertEquals(primaryConnection, routing.getConnection());
+        assertEquals(1.0, routed("primary"));
+    }
+
+    @Test
+    public void testReadOnlyTransactions_AreBalancedOverReplicas() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(replica1Connection, routing.getConnection());
+        assertEquals(replica2Connection, routing.getConnection());
+        assertEquals(replica1Connection, routing.getConnection());
+        assertEquals(2.0, routed("replica-1"));
+        assertEquals(1.0, routed("replica-2"));
+    }
+
+    @Test
+    public void testPinnedClient_ReadsFromPrimary() throws SQLException {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReplicaRouting.pinToPrimary();
+
+        assertEquals(primaryConnection, routing.getConnection());
+    }
+
+    @Test
+    public void testUnhealthyReplica_IsSkipped() throws SQLException {
+        when(replica1Connection.isValid(anyInt())).thenReturn(false);
+        routing.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(replica2Connection, routing.getConnection());
+        assertEquals(replica2Connection, routing.getConnection());
+        assertEquals(0.0, meterRegistry.get("patient.datasource.replica.healthy").tag("route", "replica-1")
+                .gauge().value());
+    }
+
+    @Test
+    public void testNoHealthyReplica_FallsBackToPrimary() throws SQLException {
+        when(replica1.getConnection()).thenThrow(new SQLException("refused"));
+        when(replica2Connection.isValid(anyInt())).thenReturn(false);
+        routing.checkReplicas();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertEquals(primaryConnection, routing.getConnection());
+    }
+
+    private double routed(String route) {
+        return meterRegistry.get("patient.datasource.route").tag("route", route).counter().count();
+    }
+
+    private static void stubReplica(HikariDataSource replica, String name, Connection connection) throws SQLException {
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.getDatabaseProductName()).thenReturn("H2");
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(replica.getPoolName()).thenReturn(name);
+        when(replica.getConnection()).thenReturn(connection);
+    }
+}
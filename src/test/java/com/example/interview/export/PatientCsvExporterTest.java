@@ -0,0 +1,74 @@
+package com.example.interview.export;
+
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.repository.PatientJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.util.unit.DataSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+public class PatientCsvExporterTest {
+    private final PatientJdbcRepository repository = mock(PatientJdbcRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final PatientCsvExporter exporter =
+            new PatientCsvExporter(repository, transactionManager, DataSize.ofKilobytes(4));
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        String[][] rows = {
+                {"1", "Rita", "36.6", "60", "1990-01-01", "ACTIVE", "0", null},
+                {"2", "O\"Brien, Jack", null, "72.5", "1985-05-05", "DELETED", "3", "2026-10-18 10:00:00"},
+        };
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (String[] row : rows) {
+                ResultSet resultSet = mock(ResultSet.class);
+                when(resultSet.getString(anyInt())).thenAnswer(column -> row[(int) column.getArgument(0) - 1]);
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(repository).exportRows(eq(List.of(PatientStatus.ACTIVE, PatientStatus.DELETED)), any());
+    }
+
+    @Test
+    public void testExport_WritesRfc4180Rows() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exporter.export(List.of(PatientStatus.ACTIVE, PatientStatus.DELETED), out, false);
+
+        assertEquals(2, rows);
+        assertEquals(PatientCsvExporter.HEADER
+                + "1,Rita,36.6,60,1990-01-01,ACTIVE,0,\n"
+                + "2,\"O\"\"Brien, Jack\",,72.5,1985-05-05,DELETED,3,2026-10-18 10:00:00\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testExport_Gzipped() throws Exception {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+
+        exporter.export(List.of(PatientStatus.ACTIVE, PatientStatus.DELETED), plain, false);
+        exporter.export(List.of(PatientStatus.ACTIVE, PatientStatus.DELETED), gzipped, true);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.toByteArray()))) {
+            assertEquals(plain.toString(StandardCharsets.UTF_8), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+}
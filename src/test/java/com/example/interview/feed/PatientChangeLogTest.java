@@ -0,0 +1,59 @@
+package com.example.interview.feed;
+
+import com.example.interview.domain.PatientChange;
+import com.example.interview.event.PatientChangedEvent;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import java.util.List;
+
+public class PatientChangeLogTest {
+    private final PatientChangeLog changeLog = new PatientChangeLog(4);
+
+    @Test
+    public void testChangesAfter_CatchesUpFromRing() {
+        for (int i = 1; i <= 3; i++) {
+            changeLog.append(PatientChangedEvent.deleted(i, "Patient" + i));
+        }
+
+        List<PatientChange> changes = changeLog.changesAfter(1, 10);
+
+        assertEquals(2, changes.size());
+        assertEquals(2, changes.get(0).getSequence());
+        assertEquals("Patient3", changes.get(1).getName());
+        assertEquals(0, changeLog.changesAfter(3, 10).size());
+    }
+
+    @Test
+    public void testChangesAfter_NullOnceOverwritten() {
+        for (int i = 1; i <= 6; i++) {
+            changeLog.append(PatientChangedEvent.deleted(i, "Patient" + i));
+        }
+
+        assertNull(changeLog.changesAfter(1, 10));
+        assertEquals(4, changeLog.changesAfter(2, 10).size());
+        assertNull(changeLog.changesAfter(7, 10));
+    }
+
+    @Test
+    public void testAppendReset_TakesItsPlaceAmongTheChanges() {
+        changeLog.append(PatientChangedEvent.deleted(1, "Rita"));
+        changeLog.appendReset();
+        changeLog.append(PatientChangedEvent.deleted(2, "Anna"));
+
+        List<PatientChange> changes = changeLog.changesAfter(0, 10);
+
+        assertEquals(List.of(false, true, false), changes.stream().map(PatientChange::isReset).toList());
+        assertEquals(2, changes.get(1).getSequence());
+        assertNull(changes.get(1).getType());
+    }
+
+    @Test
+    public void testParseToken_RejectsForeignTokens() {
+        changeLog.append(PatientChangedEvent.deleted(1, "Rita"));
+
+        assertEquals(1, changeLog.parseToken(changeLog.token(1)));
+        assertEquals(-1, changeLog.parseToken("abc-1"));
+        assertEquals(-1, changeLog.parseToken(null));
+    }
+}
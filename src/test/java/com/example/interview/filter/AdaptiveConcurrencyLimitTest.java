@@ -0,0 +1,71 @@
+package com.example.interview.filter;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.Duration;
+
+public class AdaptiveConcurrencyLimitTest {
+    private final AdaptiveConcurrencyLimit limit =
+            new AdaptiveConcurrencyLimit(4, 1, 6, Duration.ofSeconds(10), 0.5);
+
+    @Test
+    public void testAtLimit_RejectsUntilReleased() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        assertFalse(limit.tryAcquire());
+
+        limit.release();
+
+        assertTrue(limit.tryAcquire());
+        assertEquals(4, limit.getInFlight());
+    }
+
+    @Test
+    public void testFastRequestsAtLimit_RaiseItUpToMax() {
+        for (int round = 0; round < 2; round++) {
+            fillAndRelease();
+        }
+        assertEquals(5, limit.getLimit());
+
+        for (int round = 0; round < 20; round++) {
+            fillAndRelease();
+        }
+        assertEquals(6, limit.getLimit());
+    }
+
+    @Test
+    public void testFailuresInFlightTogether_CutTheLimitOnce() {
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        for (int i = 0; i < 4; i++) {
+            limit.release(start, true);
+        }
+        assertEquals(2, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    public void testIdleLimit_DoesNotGrow() {
+        for (int i = 0; i < 20; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(System.nanoTime(), false);
+        }
+        assertEquals(4, limit.getLimit());
+    }
+
+    private void fillAndRelease() {
+        int permits = limit.getLimit();
+        long start = System.nanoTime();
+        for (int i = 0; i < permits; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        for (int i = 0; i < permits; i++) {
+            limit.release(start, false);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.interview.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ClientIdentityTest {
+    private final ClientIdentity clientIdentity = new ClientIdentity("10\\.0\\.0\\.\\d+");
+
+    @Test
+    public void testUntrustedClient_IsKnownByItsAddressWhateverItsHeaders() {
+        MockHttpServletRequest request = request("203.0.113.7");
+        request.addHeader(ClientIdentity.HEADER, "someone-else");
+        request.addHeader("X-Forwarded-For", "198.51.100.1");
+
+        assertEquals("203.0.113.7", clientIdentity.of(request));
+    }
+
+    @Test
+    public void testTrustedProxy_PassesTheClientIdOn() {
+        MockHttpServletRequest request = request("10.0.0.2");
+        request.addHeader(ClientIdentity.HEADER, "integration-7");
+
+        assertEquals("client:integration-7", clientIdentity.of(request));
+    }
+
+    @Test
+    public void testTrustedProxy_WithoutClientId_UsesTheLastUntrustedForwardedAddress() {
+        MockHttpServletRequest request = request("10.0.0.2");
+        request.addHeader("X-Forwarded-For", "192.0.2.9, 198.51.100.1, 10.0.0.3");
+
+        assertEquals("198.51.100.1", clientIdentity.of(request));
+        assertEquals("10.0.0.2", clientIdentity.of(request("10.0.0.2")));
+    }
+
+    @Test
+    public void testAuthenticatedClient_IsKnownByItsPrincipal() {
+        MockHttpServletRequest request = request("203.0.113.7");
+        request.setUserPrincipal(() -> "rita");
+
+        assertEquals("user:rita", clientIdentity.of(request));
+    }
+
+    @Test
+    public void testNoTrustedProxies_IgnoresTheHeaderEverywhere() {
+        MockHttpServletRequest request = request("10.0.0.2");
+        request.addHeader(ClientIdentity.HEADER, "integration-7");
+
+        assertEquals("10.0.0.2", new ClientIdentity("").of(request));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/patient/add");
+        request.setRemoteAddr(remoteAddress);
+        return request;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.interview.filter;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import java.io.IOException;
+import java.time.Duration;
+
+public class ConcurrencyLimitFilterTest {
+    private final AdaptiveConcurrencyLimit reads = new AdaptiveConcurrencyLimit(2, 1, 2, Duration.ofSeconds(10), 0.9);
+    private final AdaptiveConcurrencyLimit writes = new AdaptiveConcurrencyLimit(1, 1, 1, Duration.ofSeconds(10), 0.9);
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(reads, writes, Duration.ZERO);
+    private final RateLimitFilter rateLimitFilter = new RateLimitFilter(new StripedTokenBuckets(1, 2, 64),
+            new ClientIdentity(""));
+
+    @Test
+    public void testFullWritePool_ShedsWritesButNotReads() throws Exception {
+        MockHttpServletResponse[] inner = new MockHttpServletResponse[2];
+        send(filter, "POST", "writer", (request, response) -> {
+            inner[0] = send(filter, "POST", "writer", (req, res) -> { });
+            inner[1] = send(filter, "GET", "reader", (req, res) -> { });
+        });
+
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, inner[0].getStatus());
+        assertEquals("1", inner[0].getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(HttpServletResponse.SC_OK, inner[1].getStatus());
+        assertEquals(0, writes.getInFlight());
+        assertEquals(0, reads.getInFlight());
+    }
+
+    @Test
+    public void testAsyncRequest_HoldsItsRoutedPermitUntilCompletion() throws Exception {
+        AdaptiveConcurrencyLimit streams = new AdaptiveConcurrencyLimit(1, 1, 1, Duration.ofSeconds(10), 0.9);
+        filter.route("stream", streams, "/api/patient/export");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/patient/export");
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertEquals(1, streams.getInFlight());
+        assertEquals(0, reads.getInFlight());
+        MockHttpServletRequest second = new MockHttpServletRequest("GET", "/api/patient/export");
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(second, rejected, (req, res) -> { });
+        assertEquals(HttpServletResponse.SC_SERVICE_UNAVAILABLE, rejected.getStatus());
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+
+        assertEquals(0, streams.getInFlight());
+    }
+
+    @Test
+    public void testRoutedBulkWrite_LeavesTheWritePoolAlone() throws Exception {
+        AdaptiveConcurrencyLimit bulk = new AdaptiveConcurrencyLimit(1, 1, 1, Duration.ofSeconds(10), 0.9);
+        filter.route("bulk", bulk, "/api/patient/bulk");
+        MockHttpServletResponse[] inner = new MockHttpServletResponse[1];
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/patient/bulk"), new MockHttpServletResponse(),
+                (request, response) -> inner[0] = send(filter, "POST", "writer", (req, res) -> { }));
+
+        assertEquals(HttpServletResponse.SC_OK, inner[0].getStatus());
+        assertEquals(0, bulk.getInFlight());
+        assertEquals(0, writes.getInFlight());
+    }
+
+    @Test
+    public void testWritesOverRate_AreRejectedWithRetryAfter() throws Exception {
+        assertEquals(HttpServletResponse.SC_OK, send(rateLimitFilter, "POST", "flood", (req, res) -> { }).getStatus());
+        assertEquals(HttpServletResponse.SC_OK, send(rateLimitFilter, "POST", "flood", (req, res) -> { }).getStatus());
+
+        MockHttpServletResponse limited = send(rateLimitFilter, "POST", "flood", (req, res) -> { });
+        MockHttpServletResponse read = send(rateLimitFilter, "GET", "flood", (req, res) -> { });
+        MockHttpServletResponse other = send(rateLimitFilter, "POST", "calm", (req, res) -> { });
+
+        assertEquals(429, limited.getStatus());
+        assertEquals("1", limited.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(HttpServletResponse.SC_OK, read.getStatus());
+        assertNull(read.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(HttpServletResponse.SC_OK, other.getStatus());
+    }
+
+    @Test
+    public void testVaryingClientIdHeader_DoesNotDodgeTheRate() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            send(rateLimitFilter, "POST", "flood", (req, res) -> { });
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/patient/add");
+        request.setRemoteAddr("flood");
+        request.addHeader(ClientIdentity.HEADER, "someone-else");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        rateLimitFilter.doFilter(request, response, (req, res) -> { });
+
+        assertEquals(429, response.getStatus());
+    }
+
+    private static MockHttpServletResponse send(Filter filter, String method, String client, FilterChain chain)
+            throws IOException, ServletException {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/patient/add");
+        request.setRemoteAddr(client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
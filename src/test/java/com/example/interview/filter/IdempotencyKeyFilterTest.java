@@ -0,0 +1,141 @@
+package com.example.interview.filter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IdempotencyKeyFilterTest {
+    private final IdempotencyKeyFilter filter = new IdempotencyKeyFilter(1 << 20, Duration.ofHours(1));
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    public void testRetryWithSameKey_ReplaysFirstResponse() throws Exception {
+        MockHttpServletResponse first = send("key-1", "/api/patient/add", respondWith(HttpServletResponse.SC_FORBIDDEN));
+        MockHttpServletResponse retry = send("key-1", "/api/patient/add", respondWith(HttpServletResponse.SC_OK));
+
+        assertEquals(1, calls.get());
+        assertEquals(HttpServletResponse.SC_FORBIDDEN, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyKeyFilter.REPLAYED));
+        assertNull(first.getHeader(IdempotencyKeyFilter.REPLAYED));
+    }
+
+    @Test
+    public void testRetryWithSameKey_ReplaysResponseHeaders() throws Exception {
+        send("key-1", "/api/patient/add", (request, response) -> {
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(HttpServletResponse.SC_ACCEPTED);
+            http.setHeader(HttpHeaders.LOCATION, "/api/patient/admissions/42");
+        });
+        MockHttpServletResponse retry = send("key-1", "/api/patient/add", respondWith(HttpServletResponse.SC_OK));
+
+        assertEquals(HttpServletResponse.SC_ACCEPTED, retry.getStatus());
+        assertEquals("/api/patient/admissions/42", retry.getHeader(HttpHeaders.LOCATION));
+    }
+
+    @Test
+    public void testRetryWithSameKeyAndBody_IsReplayedThoughTheHandlerReadOnlyPartOfIt() throws Exception {
+        send("key-1", "/api/patient/bulk", "[{\"name\":\"Rita\"}]", (request, response) -> {
+            request.getInputStream().read();
+            respondWith(HttpServletResponse.SC_OK).doFilter(request, response);
+        });
+        MockHttpServletResponse retry = send("key-1", "/api/patient/bulk", "[{\"name\":\"Rita\"}]",
+                respondWith(HttpServletResponse.SC_OK));
+
+        assertEquals(1, calls.get());
+        assertEquals("true", retry.getHeader(IdempotencyKeyFilter.REPLAYED));
+    }
+
+    @Test
+    public void testRetryWithSameKeyAndAnotherBody_IsUnprocessable() throws Exception {
+        send("key-1", "/api/patient/bulk", "[{\"name\":\"Rita\"}]", readingBody());
+        MockHttpServletResponse retry = send("key-1", "/api/patient/bulk", "[{\"name\":\"Mark\"}]",
+                readingBody());
+
+        assertEquals(1, calls.get());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY.value(), retry.getStatus());
+        assertNull(retry.getHeader(IdempotencyKeyFilter.REPLAYED));
+    }
+
+    @Test
+    public void testSameKeyOnAnotherEndpoint_IsNotReplayed() throws Exception {
+        send("key-1", "/api/patient/add", respondWith(HttpServletResponse.SC_OK));
+        send("key-1", "/api/patient/delete", respondWith(HttpServletResponse.SC_OK));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testServerError_IsNotKept() throws Exception {
+        send("key-1", "/api/patient/add", respondWith(HttpServletResponse.SC_INTERNAL_SERVER_ERROR));
+        MockHttpServletResponse retry = send("key-1", "/api/patient/add", respondWith(HttpServletResponse.SC_OK));
+
+        assertEquals(2, calls.get());
+        assertEquals(HttpServletResponse.SC_OK, retry.getStatus());
+    }
+
+    @Test
+    public void testRetryWhileFirstAttemptInFlight_IsConflict() throws Exception {
+        MockHttpServletResponse[] concurrent = new MockHttpServletResponse[1];
+        send("key-1", "/api/patient/add", (request, response) -> {
+            concurrent[0] = send("key-1", "/api/patient/add", respondWith(HttpServletResponse.SC_OK));
+            response.getWriter().write("added");
+        });
+
+        assertEquals(HttpServletResponse.SC_CONFLICT, concurrent[0].getStatus());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    public void testRequestWithoutKey_IsNotCached() throws Exception {
+        send(null, "/api/patient/add", respondWith(HttpServletResponse.SC_OK));
+        send(null, "/api/patient/add", respondWith(HttpServletResponse.SC_OK));
+
+        assertEquals(2, calls.get());
+    }
+
+    private MockHttpServletResponse send(String key, String uri, FilterChain chain)
+            throws IOException, ServletException {
+        return send(key, uri, "", chain);
+    }
+
+    private MockHttpServletResponse send(String key, String uri, String body, FilterChain chain)
+            throws IOException, ServletException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        if (key != null) {
+            request.addHeader(IdempotencyKeyFilter.IDEMPOTENCY_KEY, key);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private FilterChain readingBody() {
+        return (request, response) -> {
+            request.getInputStream().readAllBytes();
+            respondWith(HttpServletResponse.SC_OK).doFilter(request, response);
+        };
+    }
+
+    private FilterChain respondWith(int status) {
+        return (request, response) -> {
+            int call = calls.incrementAndGet();
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(status);
+            http.setContentType("text/plain");
+            http.getOutputStream().write(("response " + call).getBytes(StandardCharsets.UTF_8));
+        };
+    }
+}
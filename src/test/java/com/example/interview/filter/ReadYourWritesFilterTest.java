@@ -0,0 +1,43 @@
+package com.example.interview.filter;
+
+import com.example.interview.datasource.ReplicaRouting;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.Duration;
+
+public class ReadYourWritesFilterTest {
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(new ClientIdentity(""),
+            Duration.ofMinutes(1), 1000);
+
+    @Test
+    public void testReadAfterOwnWrite_IsPinnedToPrimary() throws Exception {
+        send("POST", "client-1", HttpServletResponse.SC_OK);
+
+        assertTrue(send("GET", "client-1", HttpServletResponse.SC_OK));
+        assertFalse(send("GET", "client-2", HttpServletResponse.SC_OK));
+        assertFalse(ReplicaRouting.isPinnedToPrimary());
+    }
+
+    @Test
+    public void testRejectedWrite_DoesNotPin() throws Exception {
+        send("POST", "client-1", HttpServletResponse.SC_FORBIDDEN);
+
+        assertFalse(send("GET", "client-1", HttpServletResponse.SC_OK));
+    }
+
+    private boolean send(String method, String client, int status) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/patient/all");
+        request.setRemoteAddr(client);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean[] pinned = new boolean[1];
+        filter.doFilter(request, response, (req, res) -> {
+            pinned[0] = ReplicaRouting.isPinnedToPrimary();
+            ((HttpServletResponse) res).setStatus(status);
+        });
+        return pinned[0];
+    }
+}
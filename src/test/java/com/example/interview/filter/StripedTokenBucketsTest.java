@@ -0,0 +1,37 @@
+package com.example.interview.filter;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class StripedTokenBucketsTest {
+    private static final long MILLI = 1_000_000L;
+
+    private final AtomicLong clock = new AtomicLong(42 * MILLI);
+    private final StripedTokenBuckets buckets = new StripedTokenBuckets(10, 3, 1024, clock::get);
+
+    @Test
+    public void testBurst_ThenRejectedUntilNextToken() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, buckets.tryAcquire("flood"));
+        }
+        assertEquals(100 * MILLI, buckets.tryAcquire("flood"));
+        assertEquals(0, buckets.tryAcquire("calm"));
+
+        clock.addAndGet(60 * MILLI);
+        assertEquals(40 * MILLI, buckets.tryAcquire("flood"));
+        clock.addAndGet(40 * MILLI);
+        assertEquals(0, buckets.tryAcquire("flood"));
+        assertEquals(100 * MILLI, buckets.tryAcquire("flood"));
+    }
+
+    @Test
+    public void testIdleBucket_RefillsOnlyUpToBurst() {
+        clock.addAndGet(60_000 * MILLI);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, buckets.tryAcquire("flood"));
+        }
+        assertEquals(100 * MILLI, buckets.tryAcquire("flood"));
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.interview.importer;
+
+import com.example.interview.csv.CsvFields;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+public class PatientImporterTest {
+
+    @Test
+    public void testEncode_StagesValidRowsAndRejectionsInOrder() {
+        PatientImporter.Columns columns = PatientImporter.Columns.of(
+                CsvFields.split("pulse,Name,date_of_birth,temperature,ward"));
+        PatientImporter.Chunk chunk = new PatientImporter.Chunk(6);
+        chunk.add(2, "60,Rita,1990-01-01,36.6,A");
+        chunk.add(3, "72,\"O'Brien, Jack\",1985-05-05,,B");
+        chunk.add(4, "60,Anna,,36.6");
+        chunk.add(5, "60,Marta,1990-13-01,36.6");
+        chunk.add(7, "60,Olga,1990-01-01,150");
+        chunk.add(8, "60,Vera,1990-01-01,abc");
+
+        String staged = new String(PatientImporter.encode(chunk, columns), StandardCharsets.UTF_8);
+
+        assertEquals("2,Rita,36.6,60.0,1990-01-01,\n"
+                + "3,\"O'Brien, Jack\",,72.0,1985-05-05,\n"
+                + "4,Anna,,,,Patient Anna has no date of birth\n"
+                + "5,Marta,,,,Invalid date_of_birth: 1990-13-01\n"
+                + "7,Olga,,,,Patient Olga has a temperature out of range\n"
+                + "8,Vera,,,,Invalid temperature: abc\n", staged);
+    }
+
+    @Test
+    public void testColumns_RequireNameAndDateOfBirth() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PatientImporter.Columns.of(List.of("name", "temperature", "pulse")));
+        PatientImporter.Columns.of(List.of("dateOfBirth", "name"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.interview.metrics;
+
+import com.example.interview.entity.PatientEntity;
+import com.example.interview.exception.ConflictException;
+import com.example.interview.exception.ForbiddenException;
+import com.example.interview.service.PatientService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientOperationMetricsAspectTest {
+    @Mock
+    private PatientService target;
+
+    private SimpleMeterRegistry registry;
+    private PatientService service;
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addInterface(PatientService.class);
+        factory.addAspect(new PatientOperationMetricsAspect(registry));
+        service = factory.getProxy();
+    }
+
+    @Test
+    public void testTime_TagsOutcomes() {
+        service.deletePatient("Anna");
+        doThrow(ForbiddenException.alreadyDeleted("Rita")).when(target).deletePatient("Rita");
+        doThrow(ConflictException.concurrentUpdate("Margo")).when(target).deletePatient("Margo");
+
+        assertThrows(ForbiddenException.class, () -> service.deletePatient("Rita"));
+        assertThrows(ConflictException.class, () -> service.deletePatient("Margo"));
+
+        assertEquals(1, count("deletePatient", "success"));
+        assertEquals(1, count("deletePatient", "already-deleted"));
+        assertEquals(1, count("deletePatient", "conflict"));
+    }
+
+    @Test
+    public void testTime_TagsRejectionsWithStableOutcomes() {
+        doThrow(ForbiddenException.notUniqName("Anna")).when(target).deletePatient("Anna");
+        doThrow(ForbiddenException.patientNotFound("Rita")).when(target).deletePatient("Rita");
+        doThrow(ForbiddenException.alreadyDeleted("Margo")).when(target).deletePatient("Margo");
+
+        assertThrows(ForbiddenException.class, () -> service.deletePatient("Anna"));
+        assertThrows(ForbiddenException.class, () -> service.deletePatient("Rita"));
+        assertThrows(ForbiddenException.class, () -> service.deletePatient("Margo"));
+
+        assertEquals(List.of("already-deleted", "duplicate", "not-found"),
+                registry.get(PatientOperationMetricsAspect.OPERATION_TIMER).timers().stream()
+                        .map(timer -> timer.getId().getTag("outcome")).sorted().toList());
+    }
+
+    @Test
+    public void testTime_RecordsResultSize() {
+        when(target.showAllActivePatients()).thenReturn(List.of(new PatientEntity(), new PatientEntity()));
+
+        service.showAllActivePatients();
+
+        assertEquals(2.0, registry.get(PatientOperationMetricsAspect.RESULT_SIZE)
+                .tag("operation", "showAllActivePatients").summary().totalAmount());
+    }
+
+    private long count(String operation, String outcome) {
+        return registry.get(PatientOperationMetricsAspect.OPERATION_TIMER)
+                .tag("operation", operation).tag("outcome", outcome).timer().count();
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.interview.repository;
+
+import com.example.interview.domain.PatientCursor;
+import com.example.interview.domain.PatientFilter;
+import com.example.interview.domain.PatientPage;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.entity.PatientEntity;
+import com.example.interview.service.PatientService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs filter queries against a real Postgres with {@code auto_explain} logging every executed plan, and checks
+ * that the plans of the queries as Hibernate issues them, with their bound values, use the filter indexes.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+public class PatientFilterExplainTest {
+    private static final int ROWS = 50_000;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withCommand("postgres", "-c", "fsync=off",
+                    "-c", "shared_preload_libraries=auto_explain",
+                    "-c", "auto_explain.log_min_duration=0");
+
+    private static boolean seeded;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private PatientJdbcRepository patientJdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void seed() {
+        if (seeded) {
+            return;
+        }
+        List<PatientEntity> patients = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            PatientEntity patient = new PatientEntity();
+            patient.setName(String.format("Patient%07d", i));
+            // fevers are rare, so the partial temperature index beats walking the name index for a page
+            patient.setTemperature(i % 500 == 1 ? 39.5 : 36.0 + i % 25 / 10.0);
+            patient.setPulse(40.0 + i % 110);
+            patient.setDateOfBirth(LocalDate.of(1940, 1, 1).plusDays(i % 25_000));
+            patient.setStatus(i % 10 == 0 ? PatientStatus.DELETED : PatientStatus.ACTIVE);
+            patients.add(patient);
+        }
+        patientJdbcRepository.insertAll(patients);
+        jdbcTemplate.execute("ANALYZE patients");
+        seeded = true;
+    }
+
+    @Test
+    public void testFilter_HighTemperatureUsesIndex() {
+        PatientFilter filter = activeFilter();
+        filter.setMinTemperature(39.0);
+
+        String plan = planOf(() -> patientService.filterPatients(filter, null, 100));
+
+        assertThat(plan).doesNotContain("Seq Scan on patients")
+                .contains("patients_active_temperature_idx");
+    }
+
+    @Test
+    public void testFilter_PulseOutsideRangeBornBeforeUsesIndex() {
+        PatientFilter filter = activeFilter();
+        filter.setMinPulse(45.0);
+        filter.setMaxPulse(145.0);
+        filter.setPulseOutside(true);
+        filter.setBornBefore(LocalDate.of(1945, 1, 1));
+
+        String plan = planOf(() -> patientService.filterPatients(filter, null, 100));
+
+        assertThat(plan).doesNotContain("Seq Scan on patients")
+                .contains("patients_active_date_of_birth_idx");
+    }
+
+    @Test
+    public void testFilter_NextPageSeeksOnStatusNameIndex() {
+        PatientFilter filter = activeFilter();
+        PatientPage first = patientService.filterPatients(filter, null, 100);
+
+        String plan = planOf(() -> patientService.filterPatients(filter, PatientCursor.decode(first.getNext()), 100));
+
+        assertThat(plan).contains("Index Scan using patients_status_name_idx");
+    }
+
+    private static PatientFilter activeFilter() {
+        PatientFilter filter = new PatientFilter();
+        filter.setStatus(PatientStatus.ACTIVE);
+        return filter;
+    }
+
+    /**
+     * @return the server log written while the query ran, holding its auto_explain plan
+     */
+    private static String planOf(Runnable query) {
+        int before = postgres.getLogs().length();
+        query.run();
+        return postgres.getLogs().substring(before);
+    }
+}
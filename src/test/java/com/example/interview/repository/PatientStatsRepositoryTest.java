@@ -0,0 +1,82 @@
+package com.example.interview.repository;
+
+import com.example.interview.domain.PatientAgeBandStatistics;
+import com.example.interview.domain.PatientStatistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+public class PatientStatsRepositoryTest {
+    private static final Instant REFRESHED_AT = Instant.parse("2026-10-18T10:00:00Z");
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PatientStatsRepository repository = new PatientStatsRepository(jdbcTemplate);
+
+    @Test
+    public void testLoad_SumsActiveBandsAndCountsDeletedSeparately() throws Exception {
+        rows(row("ACTIVE", "18-39", 10, 2, 1, 7, 2, 800),
+                row("ACTIVE", "65+", 5, 0, 0, 0, 0, 0),
+                row("DELETED", "18-39", 3, 3, 0, 0, 3, 360));
+
+        PatientStatistics statistics = repository.load();
+
+        assertEquals(REFRESHED_AT, statistics.getRefreshedAt());
+        assertEquals(15, statistics.getActive());
+        assertEquals(3, statistics.getDeleted());
+        assertEquals(2, statistics.getWithFever());
+        assertEquals(2.0 / 15, statistics.getFeverPrevalence(), 1e-9);
+        assertEquals(PatientStatsRepository.AGE_BANDS,
+                statistics.getAgeBands().stream().map(PatientAgeBandStatistics::getBand).toList());
+        PatientAgeBandStatistics adults = statistics.getAgeBands().get(1);
+        assertEquals(10, adults.getPatients());
+        assertEquals(0.2, adults.getFeverPrevalence(), 1e-9);
+        assertEquals(7, adults.getPulse60To100());
+        assertEquals(80.0, adults.getAveragePulse());
+        assertNull(statistics.getAgeBands().get(3).getAveragePulse());
+    }
+
+    @Test
+    public void testLoad_EmptyView() throws Exception {
+        rows();
+
+        PatientStatistics statistics = repository.load();
+
+        assertEquals(0, statistics.getActive());
+        assertEquals(0.0, statistics.getFeverPrevalence());
+        assertEquals(0, statistics.getAgeBands().get(0).getPatients());
+    }
+
+    private void rows(ResultSet... rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet row : rows) {
+                handler.processRow(row);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    private static ResultSet row(String status, String band, long... counts) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString("status")).thenReturn(status);
+        when(resultSet.getString("age_band")).thenReturn(band);
+        when(resultSet.getTimestamp("refreshed_at")).thenReturn(Timestamp.from(REFRESHED_AT));
+        List<String> columns = List.of("patients", "with_fever", "pulse_below_60", "pulse_60_to_100",
+                "pulse_above_100", "pulse_sum");
+        for (int i = 0; i < columns.size(); i++) {
+            when(resultSet.getLong(columns.get(i))).thenReturn(counts[i]);
+        }
+        return resultSet;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.interview.search;
+
+import com.example.interview.domain.PatientSearchHit;
+import com.example.interview.domain.PatientSearchPage;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.entity.PatientEntity;
+import com.example.interview.event.PatientChangeType;
+import com.example.interview.event.PatientChangedEvent;
+import com.example.interview.event.PatientsChangedElsewhereEvent;
+import com.example.interview.repository.PatientJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientSearchIndexTest {
+    @Mock
+    private PatientJdbcRepository jdbcRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PatientSearchIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new PatientSearchIndex(jdbcRepository, transactionManager, 100);
+        add(1, "Rita");
+        add(2, "Ritka");
+        add(3, "Margarita");
+        add(4, "Rima");
+        add(5, "Anna");
+    }
+
+    @Test
+    public void testSearch_PrefixInNameOrder() {
+        PatientSearchPage page = index.search("RIT", PatientStatus.ACTIVE, false, 0, 10);
+
+        assertEquals(List.of("Rita", "Ritka"), names(page));
+        assertNull(page.getNext());
+    }
+
+    @Test
+    public void testSearch_FuzzyToleratesTypos() {
+        PatientSearchPage transposed = index.search("rtia", null, true, 0, 10);
+        PatientSearchPage mistyped = index.search("ritq", null, true, 0, 10);
+
+        assertEquals(List.of("Rita"), names(transposed));
+        assertEquals(1, transposed.getItems().get(0).getDistance());
+        assertEquals(List.of("Rita", "Ritka"), names(mistyped));
+    }
+
+    @Test
+    public void testSearch_FollowsMutationsAndStatusFilter() {
+        index.onPatientChanged(PatientChangedEvent.deleted(1, "Rita"));
+        index.onPatientChanged(PatientChangedEvent.updated(2, "Anita", "Ritka", null, null, null, 1));
+
+        assertEquals(List.of(), names(index.search("rit", PatientStatus.ACTIVE, false, 0, 10)));
+        assertEquals(List.of("Rita"), names(index.search("rit", PatientStatus.DELETED, false, 0, 10)));
+        assertEquals(List.of("Anita", "Anna"), names(index.search("an", PatientStatus.ACTIVE, false, 0, 10)));
+    }
+
+    @Test
+    public void testSearch_Paginates() {
+        PatientSearchPage first = index.search("r", null, false, 0, 2);
+        PatientSearchPage second = index.search("r", null, false, first.getNext(), 2);
+
+        assertEquals(List.of("Rima", "Rita"), names(first));
+        assertEquals(List.of("Ritka"), names(second));
+        assertNull(second.getNext());
+    }
+
+    @Test
+    public void testCatchUp_RereadsNamesChangedElsewhere() {
+        index.load();
+        when(jdbcRepository.findByNames(Set.of("Ritka", "Anita", "Rima")))
+                .thenReturn(List.of(patient(2, "Anita", PatientStatus.ACTIVE)));
+
+        index.onPatientsChangedElsewhere(new PatientsChangedElsewhereEvent(List.of("Anita", "Ritka", "Rima")));
+        index.catchUp();
+
+        assertEquals(List.of("Rita"), names(index.search("ri", null, false, 0, 10)));
+        assertEquals(List.of("Anita", "Anna"), names(index.search("an", null, false, 0, 10)));
+    }
+
+    @Test
+    public void testCatchUp_ReconcilesWithTheTableWhenEverythingMayHaveChanged() {
+        index.load();
+        stream(PatientStatus.ACTIVE, patient(2, "Ritka", PatientStatus.ACTIVE), patient(6, "Bella", PatientStatus.ACTIVE));
+        stream(PatientStatus.DELETED, patient(1, "Rita", PatientStatus.DELETED));
+
+        index.onPatientsChangedElsewhere(new PatientsChangedElsewhereEvent(List.of()));
+        index.catchUp();
+
+        assertEquals(3, index.size());
+        assertEquals(List.of("Rita"), names(index.search("rit", PatientStatus.DELETED, false, 0, 10)));
+        assertEquals(List.of("Bella"), names(index.search("be", null, false, 0, 10)));
+        assertEquals(List.of(), names(index.search("an", null, false, 0, 10)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stream(PatientStatus status, PatientEntity... patients) {
+        doAnswer(invocation -> {
+            for (PatientEntity patient : patients) {
+                ((Consumer<PatientEntity>) invocation.getArgument(1)).accept(patient);
+            }
+            return null;
+        }).when(jdbcRepository).streamByStatus(eq(status), any());
+    }
+
+    private static PatientEntity patient(int id, String name, PatientStatus status) {
+        PatientEntity patient = new PatientEntity();
+        patient.setId(id);
+        patient.setName(name);
+        patient.setStatus(status);
+        return patient;
+    }
+
+    private void add(int id, String name) {
+        index.onPatientChanged(new PatientChangedEvent(PatientChangeType.ADDED, id, name,
+                null, 36.6, 70.0, LocalDate.of(2000, 1, 1), PatientStatus.ACTIVE, 0));
+    }
+
+    private static List<String> names(PatientSearchPage page) {
+        return page.getItems().stream().map(PatientSearchHit::getName).toList();
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.interview.service;
+
+import com.example.interview.cache.PatientNameCache;
+import com.example.interview.domain.PatientAdmission;
+import com.example.interview.domain.PatientBulkResult;
+import com.example.interview.domain.PatientRequest;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.domain.PatientView;
+import com.example.interview.exception.ForbiddenException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.web.context.WebServerGracefulShutdownLifecycle;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientAdmissionQueueTest {
+    @Mock
+    private PatientService patientService;
+    @TempDir
+    private Path directory;
+
+    @Test
+    public void testAdmit_WritesInBatchesAndReportsFate() {
+        CountDownLatch database = new CountDownLatch(1);
+        when(patientService.addPatients(anyList())).thenAnswer(invocation -> {
+            database.await();
+            return added(invocation.getArgument(0));
+        });
+        PatientAdmissionQueue queue = queue(100);
+        queue.start();
+
+        PatientAdmission admission = queue.admit(request("Rita"));
+        assertThrows(ForbiddenException.class, () -> queue.admit(request("Rita")));
+
+        assertEquals(PatientAdmission.State.PENDING, queue.status(admission.getTrackingId()).getState());
+        database.countDown();
+        queue.stop();
+        assertEquals(PatientAdmission.State.ADDED, queue.status(admission.getTrackingId()).getState());
+        assertEquals(0, queue.pending());
+    }
+
+    @Test
+    public void testAdmit_RejectsWhenFull() {
+        CountDownLatch database = new CountDownLatch(1);
+        when(patientService.addPatients(anyList())).thenAnswer(invocation -> {
+            database.await();
+            return added(invocation.getArgument(0));
+        });
+        PatientAdmissionQueue queue = queue(1);
+        queue.start();
+
+        assertNotNull(queue.admit(request("Rita")));
+        assertNull(queue.admit(request("Ritka")));
+        database.countDown();
+        queue.stop();
+        verify(patientService, times(1)).addPatients(anyList());
+    }
+
+    @Test
+    public void testStart_ReplaysAdmissionsLeftInJournal() {
+        AtomicBoolean databaseUp = new AtomicBoolean();
+        List<String> written = new CopyOnWriteArrayList<>();
+        when(patientService.addPatients(anyList())).thenAnswer(invocation -> {
+            if (!databaseUp.get()) {
+                throw new DataAccessResourceFailureException("connection refused");
+            }
+            List<PatientRequest> requests = invocation.getArgument(0);
+            requests.forEach(request -> written.add(request.getName()));
+            return added(requests);
+        });
+        PatientAdmissionQueue crashed = queue(100);
+        crashed.start();
+        String trackingId = crashed.admit(request("Rita")).getTrackingId();
+        verify(patientService, timeout(5000).atLeastOnce()).addPatients(anyList());
+        crashed.stop();
+
+        databaseUp.set(true);
+        PatientAdmissionQueue restarted = queue(100);
+        restarted.start();
+        restarted.stop();
+
+        assertEquals(List.of("Rita"), written);
+        assertEquals(PatientAdmission.State.ADDED, restarted.status(trackingId).getState());
+    }
+
+    @Test
+    public void testWrite_RetriesWhenNoTransactionCanBeStarted() {
+        AtomicBoolean databaseUp = new AtomicBoolean();
+        when(patientService.addPatients(anyList())).thenAnswer(invocation -> {
+            if (!databaseUp.get()) {
+                throw new CannotCreateTransactionException("Could not open JDBC Connection for transaction");
+            }
+            return added(invocation.getArgument(0));
+        });
+        PatientAdmissionQueue queue = queue(100);
+        queue.start();
+
+        String trackingId = queue.admit(request("Rita")).getTrackingId();
+        verify(patientService, timeout(5000).atLeast(2)).addPatients(anyList());
+        databaseUp.set(true);
+        String laterId = queue.admit(request("Mark")).getTrackingId();
+        queue.stop();
+
+        assertEquals(PatientAdmission.State.ADDED, queue.status(trackingId).getState());
+        assertEquals(PatientAdmission.State.ADDED, queue.status(laterId).getState());
+        assertEquals(0, queue.pending());
+    }
+
+    @Test
+    public void testWrite_IntegrityViolationRejectsOnlyTheOffendingAdmission() {
+        CountDownLatch database = new CountDownLatch(1);
+        when(patientService.addPatients(anyList())).thenAnswer(invocation -> {
+            database.await();
+            List<PatientRequest> requests = invocation.getArgument(0);
+            if (requests.stream().anyMatch(request -> request.getName().equals("Broken"))) {
+                throw new DataIntegrityViolationException("check constraint violated");
+            }
+            return added(requests);
+        });
+        PatientAdmissionQueue queue = queue(100);
+        queue.start();
+
+        queue.admit(request("Rita"));
+        verify(patientService, timeout(5000)).addPatients(anyList());
+        String mark = queue.admit(request("Mark")).getTrackingId();
+        String broken = queue.admit(request("Broken")).getTrackingId();
+        database.countDown();
+        queue.stop();
+
+        assertEquals(PatientAdmission.State.ADDED, queue.status(mark).getState());
+        assertEquals(PatientAdmission.State.REJECTED, queue.status(broken).getState());
+        assertEquals("Patient could not be stored", queue.status(broken).getMessage());
+        assertEquals(0, queue.pending());
+    }
+
+    @Test
+    public void testAdmit_UnavailableBeforeStartAndAfterStop() {
+        when(patientService.addPatients(anyList())).thenAnswer(invocation -> added(invocation.getArgument(0)));
+        PatientAdmissionQueue queue = queue(100);
+
+        assertNull(queue.admit(request("Rita")));
+        queue.start();
+        assertNotNull(queue.admit(request("Rita")));
+        queue.stop();
+        assertNull(queue.admit(request("Mark")));
+
+        assertEquals(0, queue.pending());
+        verify(patientService, times(1)).addPatients(anyList());
+    }
+
+    @Test
+    public void testLifecycle_RunsForAsLongAsTheWebServer() {
+        PatientAdmissionQueue queue = queue(100);
+        List<Boolean> queueRunning = new CopyOnWriteArrayList<>();
+        SmartLifecycle webServer = new SmartLifecycle() {
+            private volatile boolean running;
+
+            @Override
+            public void start() {
+                queueRunning.add(queue.isRunning());
+                running = true;
+            }
+
+            @Override
+            public void stop() {
+                queueRunning.add(queue.isRunning());
+                running = false;
+            }
+
+            @Override
+            public boolean isRunning() {
+                return running;
+            }
+
+            @Override
+            public int getPhase() {
+                return WebServerGracefulShutdownLifecycle.SMART_LIFECYCLE_PHASE - 1024;
+            }
+        };
+        GenericApplicationContext context = new GenericApplicationContext();
+        context.registerBean("patientAdmissionQueue", PatientAdmissionQueue.class, () -> queue);
+        context.registerBean("webServer", SmartLifecycle.class, () -> webServer);
+
+        context.refresh();
+        context.close();
+
+        assertEquals(List.of(true, true), queueRunning);
+        assertFalse(queue.isRunning());
+    }
+
+    @Test
+    public void testStart_ReplayedAdmissionAlreadyStoredCountsAsAdded() throws Exception {
+        try (PatientAdmissionJournal journal = new PatientAdmissionJournal(directory.resolve("admissions.wal"),
+                new ObjectMapper().registerModule(new JavaTimeModule()))) {
+            journal.recover();
+            journal.append("t-1", request("Rita"));
+            journal.append("t-2", request("Mark"));
+        }
+        when(patientService.addPatients(anyList())).thenAnswer(invocation -> {
+            List<PatientRequest> requests = invocation.getArgument(0);
+            List<PatientBulkResult> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                String name = requests.get(i).getName();
+                results.add(PatientBulkResult.rejected(i, name, ForbiddenException.notUniqName(name).getMessage()));
+            }
+            return results;
+        });
+        when(patientService.findPatient("Rita", false)).thenReturn(new PatientView(1, "Rita", 36.6, 60.0,
+                LocalDate.of(1990, 1, 1), PatientStatus.ACTIVE, 0));
+        when(patientService.findPatient("Mark", false)).thenReturn(new PatientView(2, "Mark", 39.0, 60.0,
+                LocalDate.of(1990, 1, 1), PatientStatus.ACTIVE, 0));
+
+        PatientAdmissionQueue restarted = queue(100);
+        restarted.start();
+        restarted.stop();
+
+        assertEquals(PatientAdmission.State.ADDED, restarted.status("t-1").getState());
+        assertEquals(PatientAdmission.State.REJECTED, restarted.status("t-2").getState());
+        assertEquals(0, restarted.pending());
+    }
+
+    private PatientAdmissionQueue queue(int capacity) {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        return new PatientAdmissionQueue(patientService, new PatientNameCache(100), objectMapper, true, capacity, 10,
+                Duration.ofMillis(5), directory.resolve("admissions.wal"), Duration.ofMinutes(1));
+    }
+
+    private static List<PatientBulkResult> added(List<PatientRequest> requests) {
+        List<PatientBulkResult> results = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            results.add(PatientBulkResult.added(i, requests.get(i).getName()));
+        }
+        return results;
+    }
+
+    private static PatientRequest request(String name) {
+        PatientRequest request = new PatientRequest();
+        request.setName(name);
+        request.setTemperature(36.6);
+        request.setPulse(60.0);
+        request.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        return request;
+    }
+}
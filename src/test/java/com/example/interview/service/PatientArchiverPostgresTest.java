@@ -0,0 +1,27 @@
+package com.example.interview.service;
+
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import javax.sql.DataSource;
+
+/**
+ * The {@link PatientArchiverTest} cases on PostgreSQL, where every batch moves in one data-modifying CTE.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class PatientArchiverPostgresTest extends PatientArchiverTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Override
+    protected DataSource dataSource() {
+        return new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+
+    @Override
+    protected boolean singleStatement() {
+        return true;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.interview.service;
+
+import com.example.interview.cache.PatientNameCache;
+import com.example.interview.domain.PatientKey;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.event.PatientChangeType;
+import com.example.interview.event.PatientChangedEvent;
+import com.example.interview.repository.PatientArchiveRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import liquibase.integration.spring.SpringLiquibase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs the archiver against H2, which takes the portable select, copy and delete path.
+ * {@link PatientArchiverPostgresTest} runs the same cases on the single statement path.
+ */
+public class PatientArchiverTest {
+    private static final Duration RETENTION = Duration.ofDays(30);
+    private static final Instant LONG_AGO = Instant.now().minus(RETENTION).minus(1, ChronoUnit.DAYS);
+
+    private final PatientNameCache patientNameCache = new PatientNameCache(100);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private JdbcTemplate jdbcTemplate;
+    private PatientArchiveRepository patientArchiveRepository;
+    private DataSourceTransactionManager transactionManager;
+    private int nextId;
+
+    protected DataSource dataSource() {
+        return new DriverManagerDataSource("jdbc:h2:mem:archiver-" + UUID.randomUUID()
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+    }
+
+    protected boolean singleStatement() {
+        return false;
+    }
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        DataSource dataSource = dataSource();
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setDataSource(dataSource);
+        liquibase.setChangeLog("classpath:db/changelog/db.changelog-master.yaml");
+        liquibase.setResourceLoader(new DefaultResourceLoader());
+        liquibase.afterPropertiesSet();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM patients_archive");
+        jdbcTemplate.update("DELETE FROM patients");
+        patientArchiveRepository = spy(new PatientArchiveRepository(jdbcTemplate,
+                new NamedParameterJdbcTemplate(jdbcTemplate)));
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @Test
+    public void testArchive_MovesOnlyPatientsDeletedBeforeTheRetention() {
+        insert("Old", PatientStatus.DELETED, LONG_AGO);
+        insert("Older", PatientStatus.DELETED, LONG_AGO.minus(1, ChronoUnit.DAYS));
+        insert("Recent", PatientStatus.DELETED, Instant.now());
+        insert("Active", PatientStatus.ACTIVE, null);
+
+        int archived = archiver(10, 10).archive();
+
+        assertEquals(2, archived);
+        assertEquals(List.of("Old", "Older"), names("patients_archive"));
+        assertEquals(List.of("Active", "Recent"), names("patients"));
+        ArgumentCaptor<PatientChangedEvent> events = ArgumentCaptor.forClass(PatientChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of(PatientChangeType.ARCHIVED, PatientChangeType.ARCHIVED),
+                events.getAllValues().stream().map(PatientChangedEvent::getType).toList());
+        verifyPath();
+    }
+
+    @Test
+    public void testArchive_LoopsOverBatchesUpToTheRunLimit() {
+        for (int i = 0; i < 5; i++) {
+            insert("Deleted" + i, PatientStatus.DELETED, LONG_AGO.minus(i, ChronoUnit.HOURS));
+        }
+        PatientArchiver archiver = archiver(2, 2);
+
+        assertEquals(4, archiver.archive());
+        assertEquals(1, names("patients").size());
+
+        assertEquals(1, archiver.archive());
+        assertEquals(5, names("patients_archive").size());
+        assertEquals(List.of(), names("patients"));
+    }
+
+    @Test
+    public void testArchive_StopsAfterAShortBatch() {
+        insert("Deleted", PatientStatus.DELETED, LONG_AGO);
+
+        assertEquals(1, archiver(2, 10).archive());
+
+        verify(patientArchiveRepository, times(singleStatement() ? 1 : 0)).archiveDeletedBefore(any(), anyInt());
+        verify(patientArchiveRepository, times(singleStatement() ? 0 : 1))
+                .archiveDeletedBeforePortable(any(), anyInt());
+    }
+
+    @Test
+    public void testArchive_EvictsArchivedNamesFromTheNameCache() {
+        int archivedId = insert("Gone", PatientStatus.DELETED, LONG_AGO);
+        int activeId = insert("Stays", PatientStatus.ACTIVE, null);
+        patientNameCache.put("Gone", new PatientKey(archivedId, PatientStatus.DELETED, 1));
+        patientNameCache.put("Stays", new PatientKey(activeId, PatientStatus.ACTIVE, 1));
+
+        archiver(10, 10).archive();
+
+        assertNull(patientNameCache.getIfPresent("Gone"));
+        assertNotNull(patientNameCache.getIfPresent("Stays"));
+    }
+
+    private PatientArchiver archiver(int batchSize, int maxBatches) {
+        return new PatientArchiver(patientArchiveRepository, patientNameCache, eventPublisher, jdbcTemplate,
+                transactionManager, new SimpleMeterRegistry(), RETENTION, batchSize, maxBatches);
+    }
+
+    private void verifyPath() {
+        if (singleStatement()) {
+            verify(patientArchiveRepository, atLeastOnce()).archiveDeletedBefore(any(), anyInt());
+            verify(patientArchiveRepository, never()).archiveDeletedBeforePortable(any(), anyInt());
+        } else {
+            verify(patientArchiveRepository, atLeastOnce()).archiveDeletedBeforePortable(any(), anyInt());
+            verify(patientArchiveRepository, never()).archiveDeletedBefore(any(), anyInt());
+        }
+    }
+
+    private int insert(String name, PatientStatus status, Instant deletedAt) {
+        int id = ++nextId;
+        jdbcTemplate.update("INSERT INTO patients (id, name, temperature, pulse, date_of_birth, status, version, "
+                        + "deleted_at) VALUES (?, ?, 36.6, 60, DATE '1990-01-01', ?, 1, ?)",
+                id, name, status.name(), deletedAt == null ? null : Timestamp.from(deletedAt));
+        return id;
+    }
+
+    private List<String> names(String table) {
+        return jdbcTemplate.queryForList("SELECT name FROM " + table + " ORDER BY name", String.class);
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.interview.service;
+
+import com.example.interview.cache.PatientLookupCache;
+import com.example.interview.cache.PatientNameCache;
+import com.example.interview.domain.PatientStatus;
+import com.example.interview.entity.PatientEntity;
+import com.example.interview.exception.ForbiddenException;
+import com.example.interview.repository.PatientArchiveRepository;
+import com.example.interview.repository.PatientJdbcRepository;
+import com.example.interview.repository.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives the service from many threads against an in-memory table that enforces the unique name constraint
+ * the way the database does, widening the check-then-insert window with a short pause inside {@code save}.
+ */
+public class PatientServiceConcurrencyTest {
+    private static final int THREADS = 64;
+
+    private final Map<String, PatientEntity> table = new ConcurrentHashMap<>();
+    private final AtomicInteger ids = new AtomicInteger();
+    private final AtomicInteger constraintViolations = new AtomicInteger();
+    private final PatientNameLocks locks = new PatientNameLocks(1024);
+    private ExecutorService executor;
+    private PatientServiceImpl service;
+
+    @BeforeEach
+    public void setUp() {
+        PatientRepository repository = mock(PatientRepository.class, withSettings().stubOnly());
+        when(repository.existsByName(anyString())).thenAnswer(invocation -> table.containsKey(invocation.getArgument(0)));
+        when(repository.findByName(anyString())).thenAnswer(invocation -> table.get(invocation.getArgument(0)));
+        when(repository.save(any())).thenAnswer(invocation -> save(invocation.getArgument(0)));
+        service = new PatientServiceImpl(repository, mock(PatientJdbcRepository.class),
+                mock(PatientArchiveRepository.class), new PatientNameCache(10_000),
+                new PatientLookupCache(null, 10_000, Duration.ofMinutes(1)), locks,
+                mock(ApplicationEventPublisher.class, withSettings().stubOnly()));
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testAddPatient_SameNameFromManyThreads_ExactlyOneWins() throws Exception {
+        LongAdder added = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                try {
+                    service.addPatient("Rita", 36.6, 60.0, LocalDate.of(1990, 1, 1));
+                    added.increment();
+                } catch (ForbiddenException e) {
+                    assertEquals(ForbiddenException.Reason.NOT_UNIQ_NAME, e.getReason());
+                    rejected.increment();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, added.sum());
+        assertEquals(THREADS - 1, rejected.sum());
+        assertEquals(0, constraintViolations.get());
+    }
+
+    @Test
+    public void testMixedMutations_KeepPerNameInvariants() throws Exception {
+        int names = 32;
+        int opsPerThread = 500;
+        Map<String, LongAdder> adds = new ConcurrentHashMap<>();
+        Map<String, LongAdder> deletes = new ConcurrentHashMap<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int op = 0; op < opsPerThread; op++) {
+                    String name = "Patient" + random.nextInt(names);
+                    try {
+                        if (random.nextBoolean()) {
+                            service.addPatient(name, 36.6, 60.0, LocalDate.of(1990, 1, 1));
+                            adds.computeIfAbsent(name, n -> new LongAdder()).increment();
+                        } else {
+                            service.deletePatient(name);
+                            deletes.computeIfAbsent(name, n -> new LongAdder()).increment();
+                        }
+                    } catch (ForbiddenException e) {
+                        // expected outcome for a duplicate add or a delete of a missing or deleted patient
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+
+        for (Map.Entry<String, PatientEntity> row : table.entrySet()) {
+            String name = row.getKey();
+            assertEquals(1, adds.get(name).sum(), name);
+            long deleted = deletes.containsKey(name) ? deletes.get(name).sum() : 0;
+            assertEquals(row.getValue().getStatus() == PatientStatus.DELETED ? 1 : 0, deleted, name);
+        }
+        assertEquals(table.keySet(), adds.keySet());
+        assertEquals(0, constraintViolations.get());
+    }
+
+    @Test
+    public void testContendedName_DoesNotBlockOtherNames() throws Exception {
+        String hot = "Hot";
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> holder = executor.submit(() -> locks.withLock(hot, () -> {
+            holding.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        holding.await();
+        Future<?> blocked = executor.submit(() -> service.addPatient(hot, 36.6, 60.0, LocalDate.of(1990, 1, 1)));
+
+        List<String> others = new ArrayList<>();
+        for (int i = 0; others.size() < 1000; i++) {
+            if (locks.stripeOf("Other" + i) != locks.stripeOf(hot)) {
+                others.add("Other" + i);
+            }
+        }
+        List<Future<?>> futures = new ArrayList<>();
+        for (String name : others) {
+            futures.add(executor.submit(() -> service.addPatient(name, 36.6, 60.0, LocalDate.of(1990, 1, 1))));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        assertFalse(blocked.isDone());
+        assertFalse(table.containsKey(hot));
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        blocked.get(5, TimeUnit.SECONDS);
+        assertEquals(others.size() + 1, table.size());
+    }
+
+    private PatientEntity save(PatientEntity patient) throws InterruptedException {
+        if (patient.getId() != null) {
+            table.put(patient.getName(), patient);
+            return patient;
+        }
+        Thread.sleep(1);
+        patient.setId(ids.incrementAndGet());
+        patient.setVersion(0);
+        if (table.putIfAbsent(patient.getName(), patient) != null) {
+            constraintViolations.incrementAndGet();
+            throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+        }
+        return patient;
+    }
+}
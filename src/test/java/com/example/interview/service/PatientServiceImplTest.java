@@ -1,35 +1,70 @@
 package com.example.interview.service;
 
+import com.example.interview.cache.PatientLookupCache;
+import com.example.interview.cache.PatientNameCache;
+import com.example.interview.domain.PatientBulkResult;
+import com.example.interview.domain.PatientCursor;
+import com.example.interview.domain.PatientFilter;
+import com.example.interview.domain.PatientKey;
+import com.example.interview.domain.PatientPage;
 import com.example.interview.domain.PatientRequest;
 import com.example.interview.domain.PatientStatus;
+import com.example.interview.domain.PatientView;
 import com.example.interview.entity.PatientEntity;
+import com.example.interview.event.PatientChangedEvent;
+import com.example.interview.exception.ConflictException;
 import com.example.interview.exception.ForbiddenException;
+import com.example.interview.repository.PatientArchiveRepository;
+import com.example.interview.repository.PatientJdbcRepository;
 import com.example.interview.repository.PatientRepository;
 import org.assertj.core.api.ThrowableAssert;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 @ExtendWith(MockitoExtension.class)
 public class PatientServiceImplTest {
 
     @Mock
     PatientRepository repository;
+    @Mock
+    PatientJdbcRepository jdbcRepository;
+    @Mock
+    PatientArchiveRepository archiveRepository;
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+    @Spy
+    PatientNameCache nameCache = new PatientNameCache(100);
+    @Spy
+    PatientLookupCache lookupCache = new PatientLookupCache(null, 100, Duration.ofMinutes(1));
+    @Spy
+    PatientNameLocks nameLocks = new PatientNameLocks(16);
     @InjectMocks
     PatientServiceImpl service;
 
@@ -42,6 +77,31 @@ public class PatientServiceImplTest {
 
         verify(repository, times(1)).existsByName(patient.getName());
         verify(repository, times(1)).save(any());
+        verify(eventPublisher, times(1)).publishEvent(any(PatientChangedEvent.class));
+    }
+
+    @Test
+    public void testAddPatient_ConstraintViolationOnRace_IsForbidden() {
+        PatientEntity patient = getPatient();
+        when(repository.existsByName(patient.getName())).thenReturn(false, true);
+        when(repository.save(any())).thenThrow(new DataIntegrityViolationException("patients_name_key"));
+
+        ForbiddenException e = assertThrows(ForbiddenException.class, () ->
+                service.addPatient(patient.getName(), patient.getTemperature(), patient.getPulse(), patient.getDateOfBirth()));
+
+        assertEquals(ForbiddenException.Reason.NOT_UNIQ_NAME, e.getReason());
+        assertNull(nameCache.getIfPresent(patient.getName()));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void testAddPatient_OtherConstraintViolation_IsRethrown() {
+        PatientEntity patient = getPatient();
+        when(repository.existsByName(patient.getName())).thenReturn(false);
+        when(repository.save(any())).thenThrow(new DataIntegrityViolationException("not null"));
+
+        assertThrows(DataIntegrityViolationException.class, () ->
+                service.addPatient(patient.getName(), patient.getTemperature(), patient.getPulse(), patient.getDateOfBirth()));
     }
 
     @Test
@@ -56,6 +116,98 @@ public class PatientServiceImplTest {
         verify(repository, times(0)).save(any());
     }
 
+    @Test
+    public void testAddPatient_RejectionIsStacklessWithLazyMessage() {
+        PatientEntity patient = getPatient();
+        when(repository.existsByName(patient.getName())).thenReturn(true);
+
+        ForbiddenException e = assertThrows(ForbiddenException.class, () ->
+                service.addPatient(patient.getName(), patient.getTemperature(), patient.getPulse(), patient.getDateOfBirth()));
+
+        assertEquals(ForbiddenException.Reason.NOT_UNIQ_NAME, e.getReason());
+        assertEquals(0, e.getStackTrace().length);
+        assertEquals("Patient with name " + patient.getName() + " already exists", e.getMessage());
+    }
+
+    @Test
+    public void testAddPatients_PerRowResults() {
+        PatientRequest fresh = patientRequest();
+        PatientRequest existing = patientRequest();
+        existing.setName("Rita");
+        PatientRequest duplicate = patientRequest();
+        PatientRequest noDateOfBirth = patientRequest();
+        noDateOfBirth.setName("Margo");
+        noDateOfBirth.setDateOfBirth(null);
+        when(jdbcRepository.findExistingNames(Set.of("Ritka", "Rita"))).thenReturn(Set.of("Rita"));
+
+        List<PatientBulkResult> results = service.addPatients(List.of(fresh, existing, duplicate, noDateOfBirth));
+
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isAdded());
+        assertFalse(results.get(1).isAdded());
+        assertFalse(results.get(2).isAdded());
+        assertFalse(results.get(3).isAdded());
+        verify(jdbcRepository, times(1)).insertAll(any());
+    }
+
+    @Test
+    public void testAddPatients_NullAndOutOfRangeRowsRejectedOnTheirOwn() {
+        PatientRequest fresh = patientRequest();
+        PatientRequest feverish = patientRequest();
+        feverish.setName("Margo");
+        feverish.setTemperature(100.0);
+        List<PatientRequest> requests = new ArrayList<>();
+        requests.add(fresh);
+        requests.add(null);
+        requests.add(feverish);
+        when(jdbcRepository.findExistingNames(Set.of("Ritka"))).thenReturn(Set.of());
+
+        List<PatientBulkResult> results = service.addPatients(requests);
+
+        assertTrue(results.get(0).isAdded());
+        assertEquals("Patient request is required", results.get(1).getMessage());
+        assertEquals("Patient Margo has a temperature out of range", results.get(2).getMessage());
+    }
+
+    @Test
+    public void testAddPatients_NameTakenConcurrently_RejectsOnlyThatRow() {
+        PatientRequest fresh = patientRequest();
+        PatientRequest raced = patientRequest();
+        raced.setName("Rita");
+        when(jdbcRepository.insertAll(any())).thenAnswer(invocation -> {
+            List<PatientEntity> patients = invocation.getArgument(0);
+            return patients.subList(1, 2);
+        });
+
+        List<PatientBulkResult> results = service.addPatients(List.of(fresh, raced));
+
+        assertTrue(results.get(0).isAdded());
+        assertFalse(results.get(1).isAdded());
+        assertEquals("Patient with name Rita already exists", results.get(1).getMessage());
+        verify(eventPublisher, times(1)).publishEvent(any(PatientChangedEvent.class));
+    }
+
+    @Test
+    public void testAddPatient_NotUniqNameAnsweredFromCache() {
+        PatientEntity patient = getPatient();
+        nameCache.put(patient.getName(), PatientKey.of(patient));
+
+        assertThrows(ForbiddenException.class, () ->
+                service.addPatient(patient.getName(), patient.getTemperature(), patient.getPulse(), patient.getDateOfBirth()));
+
+        verify(repository, never()).existsByName(anyString());
+        assertEquals(1, nameCache.statistics().getHits());
+    }
+
+    @Test
+    public void testAddPatient_CachesAddedName() {
+        PatientEntity patient = getPatient();
+
+        service.addPatient(patient.getName(), patient.getTemperature(), patient.getPulse(), patient.getDateOfBirth());
+
+        assertEquals(PatientStatus.ACTIVE, nameCache.getIfPresent(patient.getName()).getStatus());
+    }
+
     @Test
     public void testDeletePatient_Success() {
         PatientEntity patient = getPatient();
@@ -71,7 +223,7 @@ public class PatientServiceImplTest {
         when(repository.findByName(anyString())).thenReturn(null);
 
         ThrowableAssert.ThrowingCallable deletePatient =
-                () -> service.deletePatient(anyString());
+                () -> service.deletePatient("Rita");
 
         assertThatThrownBy(deletePatient).isInstanceOf(ForbiddenException.class);
 
@@ -92,17 +244,81 @@ public class PatientServiceImplTest {
         verify(repository, never()).save(any());
     }
 
+    @Test
+    public void testDeletePatient_NotFoundAnsweredFromCache() {
+        nameCache.put("Rita", PatientKey.ABSENT);
+
+        assertThrows(ForbiddenException.class, () -> service.deletePatient("Rita"));
+
+        verify(repository, never()).findByName(anyString());
+    }
+
+    @Test
+    public void testDeletePatient_AlreadyDeletedAnsweredFromCache() {
+        nameCache.put("Rita", new PatientKey(1, PatientStatus.DELETED, 0));
+
+        assertThrows(ForbiddenException.class, () -> service.deletePatient("Rita"));
+
+        verify(repository, never()).findByName(anyString());
+    }
+
     @Test
     public void testUpdatePatient_Success() {
-        String oldName = "Ritka";
+        String oldName = "Rita";
         PatientEntity patient = getPatient();
         PatientRequest patientRequest = patientRequest();
         when(repository.findByName(anyString())).thenReturn(patient);
+        when(jdbcRepository.updateIfCurrent(oldName, patientRequest, null)).thenReturn(1);
 
         service.updatePatient(oldName, patientRequest);
 
-        verify(repository, times(1)).save(any());
+        verify(jdbcRepository, times(1)).updateIfCurrent(oldName, patientRequest, null);
+        verify(repository, never()).save(any());
+        assertFalse(nameCache.getIfPresent(oldName).exists());
+        assertEquals(1, nameCache.getIfPresent(patientRequest.getName()).getVersion());
+    }
+
+    @Test
+    public void testUpdatePatient_SingleStatementOnCacheHit() {
+        String oldName = "Rita";
+        PatientRequest patientRequest = patientRequest();
+        nameCache.put(oldName, new PatientKey(1, PatientStatus.ACTIVE, 3));
+        when(jdbcRepository.updateIfCurrent(oldName, patientRequest, null)).thenReturn(4);
+
+        service.updatePatient(oldName, patientRequest);
+
+        verify(repository, never()).findByName(anyString());
+        verify(repository, never()).existsByName(anyString());
+    }
+
+    @Test
+    public void testUpdatePatient_StaleCachedVersion_NoConflictWithoutClientVersion() {
+        String oldName = "Rita";
+        PatientRequest patientRequest = patientRequest();
+        patientRequest.setName(oldName);
+        nameCache.put(oldName, new PatientKey(1, PatientStatus.ACTIVE, 3));
+        when(jdbcRepository.updateIfCurrent(oldName, patientRequest, null)).thenReturn(6);
+
+        service.updatePatient(oldName, patientRequest);
 
+        assertEquals(6, nameCache.getIfPresent(oldName).getVersion());
+        verify(repository, never()).findByName(anyString());
+    }
+
+    @Test
+    public void testUpdatePatient_ConflictException_StaleVersion() {
+        String oldName = "Rita";
+        PatientEntity patient = getPatient();
+        patient.setVersion(4);
+        PatientRequest patientRequest = patientRequest();
+        patientRequest.setVersion(3);
+        nameCache.put(oldName, new PatientKey(1, PatientStatus.ACTIVE, 3));
+        when(jdbcRepository.updateIfCurrent(oldName, patientRequest, 3)).thenReturn(null);
+        when(repository.findByName(oldName)).thenReturn(patient);
+
+        assertThrows(ConflictException.class, () -> service.updatePatient(oldName, patientRequest));
+
+        assertEquals(4, nameCache.getIfPresent(oldName).getVersion());
     }
 
     @Test
@@ -125,7 +341,8 @@ public class PatientServiceImplTest {
         PatientEntity patient = getPatient();
         when(repository.findByName(oldName)).thenReturn(patient);
 
-        when(repository.existsByName(patientRequest.getName())).thenReturn(true);
+        when(jdbcRepository.updateIfCurrent(oldName, patientRequest, null))
+                .thenThrow(new DuplicateKeyException("patients_name_uidx"));
 
         assertThrows(ForbiddenException.class, () ->
                 service.updatePatient(oldName, patientRequest));
@@ -171,6 +388,89 @@ public class PatientServiceImplTest {
         assertNull(patients);
     }
 
+    @Test
+    public void testShowActivePatientsPage_HasNext() {
+        List<PatientEntity> entities = addPatients();
+        when(repository.findAllByStatusOrderByNameAscIdAsc(PatientStatus.ACTIVE, Limit.of(4))).thenReturn(entities);
+
+        PatientPage page = service.showActivePatientsPage(null, 3);
+
+        assertEquals(3, page.getItems().size());
+        PatientCursor next = PatientCursor.decode(page.getNext());
+        assertEquals("Name2", next.getName());
+        assertEquals(2, next.getId());
+    }
+
+    @Test
+    public void testFilterPatients_PagesBySpecification() {
+        List<PatientEntity> entities = addPatients();
+        when(repository.findBy(any(Specification.class), any())).thenReturn(entities);
+        PatientFilter filter = new PatientFilter();
+        filter.setStatus(PatientStatus.ACTIVE);
+        filter.setMinTemperature(38.0);
+
+        PatientPage page = service.filterPatients(filter, null, 3);
+
+        assertEquals(3, page.getItems().size());
+        assertEquals("Name2", PatientCursor.decode(page.getNext()).getName());
+    }
+
+    @Test
+    public void testShowActivePatientsPage_LastPage() {
+        List<PatientEntity> entities = addPatients();
+        when(repository.findAllByStatusAfter(eq(PatientStatus.ACTIVE), eq("Name0"), eq(0), any()))
+                .thenReturn(entities.subList(1, 4));
+
+        PatientPage page = service.showActivePatientsPage(new PatientCursor("Name0", 0), 3);
+
+        assertEquals(3, page.getItems().size());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    public void testStreamAllActivePatients_Success() {
+        List<PatientEntity> streamed = new ArrayList<>();
+
+        service.streamAllActivePatients(streamed::add);
+
+        verify(jdbcRepository, times(1)).streamByStatus(eq(PatientStatus.ACTIVE), any());
+    }
+
+    @Test
+    public void testFindPatient_FallsBackToArchiveOnlyWhenAsked() {
+        PatientView archived = new PatientView(1, "Rita", 36.6, 60.0, LocalDate.of(1990, 1, 1),
+                PatientStatus.ARCHIVED, 2);
+        when(repository.findByName("Rita")).thenReturn(null);
+        when(archiveRepository.findLatestByName("Rita")).thenReturn(archived);
+
+        assertNull(service.findPatient("Rita", false));
+        assertEquals(archived, service.findPatient("Rita", true));
+        verify(archiveRepository, times(1)).findLatestByName("Rita");
+    }
+
+    @Test
+    public void testFindPatient_LivePatientWins() {
+        PatientEntity patient = getPatient();
+        when(repository.findByName(patient.getName())).thenReturn(patient);
+
+        PatientView found = service.findPatient(patient.getName(), true);
+
+        assertEquals(PatientStatus.ACTIVE, found.getStatus());
+        verify(archiveRepository, never()).findLatestByName(anyString());
+    }
+
+    @Test
+    public void testFindPatient_RepeatedLookupIsCached() {
+        PatientEntity patient = getPatient();
+        when(repository.findByName(patient.getName())).thenReturn(patient);
+
+        service.findPatient(patient.getName(), false);
+        PatientView found = service.findPatient(patient.getName(), false);
+
+        assertEquals(patient.getId(), found.getId());
+        verify(repository, times(1)).findByName(patient.getName());
+    }
+
     private PatientEntity getPatient() {
         PatientEntity patient = new PatientEntity();
         patient.setId(1);
@@ -179,6 +479,7 @@ public class PatientServiceImplTest {
         patient.setPulse(120.0);
         patient.setTemperature(36.6);
         patient.setDateOfBirth(LocalDate.of(2002, 7, 9));
+        patient.setVersion(0);
         return patient;
     }
 
@@ -195,6 +496,7 @@ public class PatientServiceImplTest {
         List<PatientEntity> patientEntities = new ArrayList<>();
         for (int i = 0; i < 4; i++) {
             PatientEntity patient = new PatientEntity();
+            patient.setId(i);
             patient.setName("Name" + i);
             patient.setStatus(PatientStatus.ACTIVE);
             patient.setTemperature(36.6);
@@ -0,0 +1,109 @@
+package com.example.interview.service;
+
+import com.example.interview.domain.VitalReading;
+import com.example.interview.repository.VitalsJdbcRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ExtendWith(MockitoExtension.class)
+public class VitalsIngestBufferTest {
+    @Mock
+    private VitalsJdbcRepository repository;
+
+    @Test
+    public void testOffer_RejectsReadingsBeyondCapacity() {
+        VitalsIngestBuffer buffer = new VitalsIngestBuffer(repository, 2, 10, Duration.ofMillis(10));
+
+        int accepted = buffer.offer(List.of(reading(), reading(), reading()));
+
+        assertEquals(2, accepted);
+        assertEquals(2, buffer.pending());
+        verify(repository, never()).insertAll(anyList());
+    }
+
+    @Test
+    public void testStop_FlushesPendingReadingsInBatches() {
+        AtomicInteger flushed = new AtomicInteger();
+        AtomicInteger largestBatch = new AtomicInteger();
+        doAnswer(invocation -> {
+            List<VitalReading> batch = invocation.getArgument(0);
+            flushed.addAndGet(batch.size());
+            largestBatch.accumulateAndGet(batch.size(), Math::max);
+            return null;
+        }).when(repository).insertAll(anyList());
+        VitalsIngestBuffer buffer = new VitalsIngestBuffer(repository, 100, 10, Duration.ofMillis(10));
+        buffer.offer(List.of(reading(), reading(), reading(), reading(), reading(),
+                reading(), reading(), reading(), reading(), reading(), reading(), reading()));
+
+        buffer.start();
+        buffer.stop();
+
+        assertEquals(12, flushed.get());
+        assertEquals(10, largestBatch.get());
+        assertEquals(0, buffer.pending());
+    }
+
+    @Test
+    public void testRejectedBatch_IsSplitAndOnlyTheBadReadingDropped() {
+        List<VitalReading> written = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<VitalReading> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(reading -> reading.getPulse() == null)) {
+                throw new DataIntegrityViolationException("numeric field overflow");
+            }
+            written.addAll(batch);
+            return null;
+        }).when(repository).insertAll(anyList());
+        VitalsIngestBuffer buffer = new VitalsIngestBuffer(repository, 100, 10, Duration.ofMillis(10));
+        buffer.offer(List.of(reading(), reading(), new VitalReading(2, Instant.now(), 36.6, null), reading(),
+                reading()));
+
+        buffer.start();
+        buffer.stop();
+
+        assertEquals(4, written.size());
+    }
+
+    @Test
+    public void testFailedFlush_IsRetriedUntilTheDatabaseIsBack() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicInteger flushed = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new CannotGetJdbcConnectionException("Connection refused");
+            }
+            List<VitalReading> batch = invocation.getArgument(0);
+            flushed.addAndGet(batch.size());
+            return null;
+        }).when(repository).insertAll(anyList());
+        VitalsIngestBuffer buffer = new VitalsIngestBuffer(repository, 100, 10, Duration.ofMillis(1));
+        buffer.offer(List.of(reading(), reading(), reading()));
+
+        buffer.start();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (flushed.get() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        buffer.stop();
+
+        assertEquals(3, flushed.get());
+    }
+
+    private VitalReading reading() {
+        return new VitalReading(1, Instant.now(), 36.6, 70.0);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.interview.service;
+
+import com.example.interview.domain.VitalReading;
+import com.example.interview.repository.VitalsJdbcRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+public class VitalsServiceImplTest {
+    @Mock
+    private VitalsIngestBuffer buffer;
+    @Mock
+    private VitalsJdbcRepository repository;
+    @InjectMocks
+    private VitalsServiceImpl service;
+
+    @Test
+    public void testRecordVitals_OutOfRangeReadingRejectsTheRequest() {
+        List<VitalReading> readings = List.of(new VitalReading(1, Instant.now(), 36.6, 70.0),
+                new VitalReading(2, Instant.now(), 36.6, 1000.0));
+
+        assertThrows(IllegalArgumentException.class, () -> service.recordVitals(readings));
+
+        verify(buffer, never()).offer(anyList());
+    }
+
+    @Test
+    public void testRecordVitals_ReadingBeyondThePartitionedMonthsRejectsTheRequest() {
+        Instant tooFar = ZonedDateTime.now().plusMonths(VitalsPartitionMaintainer.MONTHS_AHEAD).plusDays(1).toInstant();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.recordVitals(List.of(new VitalReading(1, tooFar, 36.6, 70.0))));
+
+        verify(buffer, never()).offer(anyList());
+    }
+
+    @Test
+    public void testRecordVitals_ReadingOlderThanTheMaximumAgeRejectsTheRequest() {
+        Instant tooOld = Instant.now().minus(Duration.ofDays(31));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.recordVitals(List.of(new VitalReading(1, tooOld, 36.6, 70.0))));
+
+        verify(buffer, never()).offer(anyList());
+    }
+
+    @Test
+    public void testRecordVitals_ReadingsWithinTheWindowAreBuffered() {
+        List<VitalReading> readings = List.of(new VitalReading(1, Instant.now().minus(Duration.ofDays(29)), 36.6, 70.0),
+                new VitalReading(1, ZonedDateTime.now().plusMonths(1).toInstant(), 36.6, 70.0));
+
+        service.recordVitals(readings);
+
+        verify(buffer).offer(readings);
+    }
+}